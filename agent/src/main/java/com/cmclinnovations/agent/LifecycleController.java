@@ -1,7 +1,9 @@
 package com.cmclinnovations.agent;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -394,20 +396,39 @@ public class LifecycleController {
     });
   }
 
+  /**
+   * Assign dispatch details for multiple service orders at once. The
+   * occurrences are generated together and written in batched updates, and the
+   * response reports the success status of each order.
+   */
   @PutMapping("/service/dispatch/bulk")
   public ResponseEntity<StandardApiResponse<?>> bulkUpdateTaskEventDetails(
       @RequestBody Map<String, List<Map<String, Object>>> params) {
-    try {
-      params.get("items")
-          .forEach(item -> this.updateTaskEventDetails(LifecycleEventType.SERVICE_ORDER_DISPATCHED.getId(), item));
-    } catch (IllegalArgumentException _) {
+    List<Map<String, Object>> items = params.get("items");
+    if (items == null || items.isEmpty()) {
+      LOGGER.error("Missing `items` field in request parameters!");
+      throw new IllegalArgumentException(
+          LocalisationTranslator.getMessage(LocalisationResource.ERROR_MISSING_FIELD_KEY, "items"));
+    }
+    LOGGER.info("Received request to assign the dispatch details for {} service orders...", items.size());
+    List<Boolean> results = this.concurrencyService.executeInWriteLock(LifecycleResource.TASK_RESOURCE,
+        () -> this.lifecycleTaskService.genDispatchOccurrences(items, TrackActionType.ASSIGNMENT));
+    // Items are reported by their input index, as invalid items may not have an ID
+    List<Map<String, Object>> report = new ArrayList<>();
+    for (int i = 0; i < results.size(); i++) {
+      Map<String, Object> itemReport = new LinkedHashMap<>();
+      itemReport.put("index", i);
+      itemReport.put(QueryResource.ID_KEY, items.get(i).get(QueryResource.ID_KEY));
+      itemReport.put("success", results.get(i));
+      report.add(itemReport);
+    }
+    if (results.contains(false)) {
       LOGGER.error("Error encountered while bulk assigning dispatch details! Read error logs for more details");
-      return this.responseEntityBuilder.error(
-          LocalisationTranslator.getMessage(LocalisationResource.ERROR_DISPATCH_PARTIAL_KEY),
-          HttpStatus.INTERNAL_SERVER_ERROR);
+      return this.responseEntityBuilder.success(
+          LocalisationTranslator.getMessage(LocalisationResource.ERROR_DISPATCH_PARTIAL_KEY), report);
     }
-    return this.responseEntityBuilder
-        .success("task", LocalisationTranslator.getMessage(LocalisationResource.SUCCESS_CONTRACT_TASK_BULK_ASSIGN_KEY));
+    return this.responseEntityBuilder.success(
+        LocalisationTranslator.getMessage(LocalisationResource.SUCCESS_CONTRACT_TASK_BULK_ASSIGN_KEY), report);
   }
 
   /**
@@ -661,6 +682,7 @@ public class LifecycleController {
     Integer limit = Integer.valueOf(allRequestParams.remove(StringResource.LIMIT_REQUEST_PARAM));
     String sortBy = allRequestParams.getOrDefault(StringResource.SORT_BY_REQUEST_PARAM, StringResource.DEFAULT_SORT_BY);
     allRequestParams.remove(StringResource.SORT_BY_REQUEST_PARAM);
+    String cursor = allRequestParams.remove(StringResource.CURSOR_REQUEST_PARAM);
     LifecycleEventType eventType = switch (stage.toLowerCase()) {
       case "draft" -> {
         LOGGER.info("Received request to retrieve draft contracts...");
@@ -679,7 +701,7 @@ public class LifecycleController {
     };
     return this.concurrencyService.executeInOptimisticReadLock(LifecycleResource.CONTRACT_KEY,
         () -> this.lifecycleContractService.getContracts(type, label, eventType,
-            new PaginationState(page, limit, sortBy, true, allRequestParams), allRequestParams));
+            new PaginationState(page, limit, sortBy, true, allRequestParams, cursor), allRequestParams));
   }
 
   /**
@@ -695,11 +717,12 @@ public class LifecycleController {
     Integer limit = Integer.valueOf(allRequestParams.remove(StringResource.LIMIT_REQUEST_PARAM));
     String sortBy = allRequestParams.getOrDefault(StringResource.SORT_BY_REQUEST_PARAM, StringResource.DEFAULT_SORT_BY);
     allRequestParams.remove(StringResource.SORT_BY_REQUEST_PARAM);
+    String cursor = allRequestParams.remove(StringResource.CURSOR_REQUEST_PARAM);
     return this.concurrencyService.executeInOptimisticReadLock(LifecycleResource.TASK_RESOURCE,
         () -> this.lifecycleTaskService.getOccurrences(null, endTimestamp, type,
             LifecycleEventType.SERVICE_ORDER_RECEIVED,
             new PaginationState(page, limit, sortBy + LifecycleResource.TASK_ID_SORT_BY_PARAMS, false,
-                allRequestParams),
+                allRequestParams, cursor),
             allRequestParams));
   }
 
@@ -733,11 +756,12 @@ public class LifecycleController {
     Integer limit = Integer.valueOf(allRequestParams.remove(StringResource.LIMIT_REQUEST_PARAM));
     String sortBy = allRequestParams.getOrDefault(StringResource.SORT_BY_REQUEST_PARAM, StringResource.DEFAULT_SORT_BY);
     allRequestParams.remove(StringResource.SORT_BY_REQUEST_PARAM);
+    String cursor = allRequestParams.remove(StringResource.CURSOR_REQUEST_PARAM);
     return this.concurrencyService.executeInOptimisticReadLock(LifecycleResource.TASK_RESOURCE,
         () -> this.lifecycleTaskService.getOccurrences(startTimestamp, endTimestamp, type,
             LifecycleEventType.SERVICE_ORDER_RECEIVED,
             new PaginationState(page, limit, sortBy + LifecycleResource.TASK_ID_SORT_BY_PARAMS, false,
-                allRequestParams),
+                allRequestParams, cursor),
             allRequestParams));
   }
 
@@ -755,11 +779,12 @@ public class LifecycleController {
     Integer limit = Integer.valueOf(allRequestParams.remove(StringResource.LIMIT_REQUEST_PARAM));
     String sortBy = allRequestParams.getOrDefault(StringResource.SORT_BY_REQUEST_PARAM, StringResource.DEFAULT_SORT_BY);
     allRequestParams.remove(StringResource.SORT_BY_REQUEST_PARAM);
+    String cursor = allRequestParams.remove(StringResource.CURSOR_REQUEST_PARAM);
     return this.concurrencyService.executeInOptimisticReadLock(LifecycleResource.TASK_RESOURCE,
         () -> this.lifecycleTaskService.getOccurrences(startTimestamp, endTimestamp, type,
             LifecycleEventType.ACTIVE_SERVICE,
             new PaginationState(page, limit, sortBy + LifecycleResource.TASK_ID_SORT_BY_PARAMS, false,
-                allRequestParams),
+                allRequestParams, cursor),
             allRequestParams));
   }
 
@@ -1,5 +1,6 @@
 package com.cmclinnovations.agent;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -65,27 +66,29 @@ public class ReportingController {
     Integer limit = Integer.valueOf(allRequestParams.remove(StringResource.LIMIT_REQUEST_PARAM));
     String sortBy = allRequestParams.getOrDefault(StringResource.SORT_BY_REQUEST_PARAM, StringResource.DEFAULT_SORT_BY);
     allRequestParams.remove(StringResource.SORT_BY_REQUEST_PARAM);
+    String cursor = allRequestParams.remove(StringResource.CURSOR_REQUEST_PARAM);
     return this.concurrencyService.executeInOptimisticReadLock(type, () -> {
-      PaginationState pagination = new PaginationState(page, limit, sortBy, allRequestParams);
+      PaginationState pagination = new PaginationState(page, limit, sortBy, null, allRequestParams, cursor);
       var results = ParallelTaskExecutor.execParallelQueryTasks(
           () -> {
-            Queue<List<String>> ids = this.getService.getAllIds(type, "", pagination);
-            DataManifest<Queue<SparqlBinding>> instanceManifest = this.getService.getInstances(type, true, ids,
-                BillingResource.ACCOUNT_FLAG_QUERY_STATEMENT, List.of(BillingResource.FLAG_COLUMN_META_PAYLOAD));
+            DataManifest<Queue<SparqlBinding>> instanceManifest = this.getService.getInstancePage(type, true, "",
+                BillingResource.ACCOUNT_FLAG_QUERY_STATEMENT, pagination,
+                new ArrayList<>(List.of(BillingResource.FLAG_COLUMN_META_PAYLOAD)));
             List<Map<String, Object>> data = instanceManifest.data().stream()
                 .map(SparqlBinding::get)
                 .toList();
             return new DataManifest<>(data, instanceManifest.columns());
           },
           () -> this.getService.getCount(type, allRequestParams),
-          () -> this.getService.getCount(type, new HashMap<>()));
+          () -> this.getService.getTotalCount(type));
 
       return this.responseEntityBuilder.success(
           null,
           results.filteredCount(),
           results.totalCount(),
           results.data().columns(),
-          results.data().data());
+          results.data().data(),
+          pagination.getNextCursor());
     });
   }
 
@@ -156,11 +159,12 @@ public class ReportingController {
     Integer limit = Integer.valueOf(allRequestParams.remove(StringResource.LIMIT_REQUEST_PARAM));
     String sortBy = allRequestParams.getOrDefault(StringResource.SORT_BY_REQUEST_PARAM, StringResource.DEFAULT_SORT_BY);
     allRequestParams.remove(StringResource.SORT_BY_REQUEST_PARAM);
+    String cursor = allRequestParams.remove(StringResource.CURSOR_REQUEST_PARAM);
     return this.concurrencyService.executeInOptimisticReadLock(LifecycleResource.TASK_RESOURCE,
         () -> this.billingService.getBillableOccurrences(type,
             // Target account field will be included directly in the filter parameters
             new PaginationState(page, limit, sortBy + LifecycleResource.TASK_ID_SORT_BY_PARAMS, false,
-                allRequestParams),
+                allRequestParams, cursor),
             allRequestParams));
   }
 
@@ -1,9 +1,14 @@
 package com.cmclinnovations.agent;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.http.HttpStatus;
@@ -23,6 +28,7 @@ import com.cmclinnovations.agent.model.pagination.PaginationState;
 import com.cmclinnovations.agent.model.response.SelectOption;
 import com.cmclinnovations.agent.model.response.StandardApiResponse;
 import com.cmclinnovations.agent.model.type.TrackActionType;
+import com.cmclinnovations.agent.schedule.CronJobMetrics;
 import com.cmclinnovations.agent.service.AddService;
 import com.cmclinnovations.agent.service.DeleteService;
 import com.cmclinnovations.agent.service.GetService;
@@ -44,12 +50,15 @@ public class VisBackendAgent {
   private final GeocodingService geocodingService;
   private final UpdateService updateService;
   private final ResponseEntityBuilder responseEntityBuilder;
+  private final PoolingHttpClientConnectionManager sparqlConnectionManager;
+  private final CronJobMetrics cronJobMetrics;
 
   private static final Logger LOGGER = LogManager.getLogger(VisBackendAgent.class);
 
   public VisBackendAgent(ConcurrencyService concurrencyService, AddService addService,
       ChangelogService changelogService, DeleteService deleteService, GetService getService,
-      GeocodingService geocodingService, UpdateService updateService, ResponseEntityBuilder responseEntityBuilder) {
+      GeocodingService geocodingService, UpdateService updateService, ResponseEntityBuilder responseEntityBuilder,
+      PoolingHttpClientConnectionManager sparqlConnectionManager, CronJobMetrics cronJobMetrics) {
     this.concurrencyService = concurrencyService;
     this.addService = addService;
     this.changelogService = changelogService;
@@ -58,6 +67,8 @@ public class VisBackendAgent {
     this.geocodingService = geocodingService;
     this.updateService = updateService;
     this.responseEntityBuilder = responseEntityBuilder;
+    this.sparqlConnectionManager = sparqlConnectionManager;
+    this.cronJobMetrics = cronJobMetrics;
   }
 
   @GetMapping("/status")
@@ -66,6 +77,38 @@ public class VisBackendAgent {
     return this.responseEntityBuilder.success(null, LocalisationTranslator.getMessage(LocalisationResource.STATUS_KEY));
   }
 
+  /**
+   * Retrieves the usage of the connection pool to the knowledge graph, in total
+   * and for each endpoint host. Pending requests indicate that the pool is
+   * saturated.
+   */
+  @GetMapping("/status/connections")
+  public ResponseEntity<StandardApiResponse<?>> getConnectionPoolStatus() {
+    LOGGER.info("Detected request to get connection pool status...");
+    List<Map<String, Object>> poolStats = new ArrayList<>();
+    PoolStats totalStats = this.sparqlConnectionManager.getTotalStats();
+    if (totalStats.getPending() > 0) {
+      LOGGER.warn("Connection pool is saturated with {} pending requests!", totalStats.getPending());
+    }
+    poolStats.add(this.genPoolStats("total", totalStats));
+    for (HttpRoute route : this.sparqlConnectionManager.getRoutes()) {
+      poolStats.add(this.genPoolStats(route.getTargetHost().toURI(), this.sparqlConnectionManager.getStats(route)));
+    }
+    return this.responseEntityBuilder.success(LocalisationTranslator.getMessage(LocalisationResource.STATUS_KEY),
+        poolStats);
+  }
+
+  /**
+   * Retrieves the progress and throughput of the latest run of each scheduled
+   * job.
+   */
+  @GetMapping("/status/jobs")
+  public ResponseEntity<StandardApiResponse<?>> getJobStatus() {
+    LOGGER.info("Detected request to get scheduled job status...");
+    return this.responseEntityBuilder.success(LocalisationTranslator.getMessage(LocalisationResource.STATUS_KEY),
+        this.cronJobMetrics.getLatestRuns());
+  }
+
   @GetMapping("/location")
   public ResponseEntity<StandardApiResponse<?>> getCoordinates(
       @RequestParam(required = true) String iri) {
@@ -115,18 +158,24 @@ public class VisBackendAgent {
    * Unified sync route to get instances belonging to the specified type.
    * Performs a paginated full refresh if no timestamp is provided,
    * or fetches only incremental changes when a last-sync
-   * timestamp is present.
+   * timestamp is present. A numeric cursor is read as a page index, whereas an
+   * empty cursor or the cursor returned with the previous page retrieves the
+   * page after it.
    */
   @GetMapping("/{type}/pull")
   public ResponseEntity<StandardApiResponse<?>> pullInstances(
       @PathVariable(name = "type") String type,
-      @RequestParam Integer cursor, @RequestParam Integer limit, @RequestParam(required = false) String parent,
+      @RequestParam String cursor, @RequestParam Integer limit, @RequestParam(required = false) String parent,
       @RequestParam(required = false) String timestamp) {
     LOGGER.info("Received request to get all instances for {}...", type);
+    String parentField = parent == null || parent.equals("null") ? null : parent;
     return this.concurrencyService.executeInOptimisticReadLock(type, () -> {
       String deltaFilterClause = this.changelogService.buildDeltaFilterQuery(timestamp);
-      List<SelectOption> options = this.getService.getAllFilterOptions(type, "", parent.equals("null") ? null : parent,
-          deltaFilterClause, "", cursor, limit);
+      if (cursor.isEmpty() || !cursor.chars().allMatch(Character::isDigit)) {
+        return this.getService.getFilterOptionsPage(type, parentField, deltaFilterClause, cursor, limit);
+      }
+      List<SelectOption> options = this.getService.getAllFilterOptions(type, "", parentField,
+          deltaFilterClause, "", Integer.parseInt(cursor), limit);
       return this.responseEntityBuilder.success(options);
     });
   }
@@ -144,10 +193,11 @@ public class VisBackendAgent {
     Integer limit = Integer.valueOf(allRequestParams.remove(StringResource.LIMIT_REQUEST_PARAM));
     String sortBy = allRequestParams.getOrDefault(StringResource.SORT_BY_REQUEST_PARAM, StringResource.DEFAULT_SORT_BY);
     allRequestParams.remove(StringResource.SORT_BY_REQUEST_PARAM);
+    String cursor = allRequestParams.remove(StringResource.CURSOR_REQUEST_PARAM);
     return this.concurrencyService.executeInOptimisticReadLock(type, () ->
     // This route does not require further restriction on parent instances
     this.getService.getInstances(type, true,
-        new PaginationState(page, limit, sortBy, allRequestParams), allRequestParams));
+        new PaginationState(page, limit, sortBy, null, allRequestParams, cursor), allRequestParams));
   }
 
   /**
@@ -306,11 +356,28 @@ public class VisBackendAgent {
    */
   @PutMapping("/{type}/{id}")
   public ResponseEntity<StandardApiResponse<?>> updateEntity(@PathVariable String type, @PathVariable String id,
+      @RequestParam(defaultValue = "false") boolean diff,
       @RequestBody Map<String, Object> updatedEntity) {
     LOGGER.info("Received request to update {}...", type);
 
     return this.concurrencyService.executeInWriteLock(type,
         () -> this.updateService.update(id, type, LocalisationResource.SUCCESS_UPDATE_KEY, updatedEntity,
-            TrackActionType.MODIFICATION));
+            TrackActionType.MODIFICATION, diff));
+  }
+
+  /**
+   * Generates the pool statistics for the route in a response format.
+   * 
+   * @param route The route or total label.
+   * @param stats The pool statistics.
+   */
+  private Map<String, Object> genPoolStats(String route, PoolStats stats) {
+    Map<String, Object> poolStats = new LinkedHashMap<>();
+    poolStats.put("route", route);
+    poolStats.put("leased", stats.getLeased());
+    poolStats.put("pending", stats.getPending());
+    poolStats.put("available", stats.getAvailable());
+    poolStats.put("max", stats.getMax());
+    return poolStats;
   }
-}
\ No newline at end of file
+}
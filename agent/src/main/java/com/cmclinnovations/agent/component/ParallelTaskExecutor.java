@@ -2,22 +2,33 @@ package com.cmclinnovations.agent.component;
 
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.StructuredTaskScope;
 import java.util.concurrent.StructuredTaskScope.Joiner;
 import java.util.concurrent.StructuredTaskScope.Subtask;
+import java.util.function.Predicate;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import com.cmclinnovations.agent.exception.ParallelInterruptedException;
+import com.cmclinnovations.agent.model.util.JobProgress;
 import com.cmclinnovations.agent.model.util.ParallelTableQueryManifest;
 
 @Component
 public class ParallelTaskExecutor {
+    private static final Logger LOGGER = LogManager.getLogger(ParallelTaskExecutor.class);
+
     private ParallelTaskExecutor() {
     }
 
@@ -89,4 +100,44 @@ public class ParallelTaskExecutor {
                     .toList();
         }
     }
+
+    /**
+     * Executes a task for each item on virtual threads, with at most the
+     * specified number of tasks running at once. A failed or throwing task does
+     * not affect the other items. The security context of the caller is
+     * propagated to each task. Blocks until all items have been processed.
+     * 
+     * @param items          The items to process.
+     * @param maxConcurrency The maximum number of concurrent tasks.
+     * @param task           Processes an item and returns if it is successful.
+     * @param progress       Records the outcome of each item.
+     */
+    public static <T> void execBoundedTasks(Collection<T> items, int maxConcurrency, Predicate<T> task,
+            JobProgress progress) {
+        SecurityContext context = SecurityContextHolder.getContext();
+        Semaphore permits = new Semaphore(Math.max(maxConcurrency, 1));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (T item : items) {
+                try {
+                    permits.acquire(); // Wait for a running task to complete if the cap is reached
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ParallelInterruptedException("The bounded tasks have been interrupted: ", e);
+                }
+                executor.execute(new DelegatingSecurityContextRunnable(() -> {
+                    boolean success = false;
+                    try {
+                        success = task.test(item);
+                    } catch (RuntimeException e) {
+                        LOGGER.error("Task for {} in {} has failed!", item, progress.getName(), e);
+                    } finally {
+                        progress.record(success);
+                        permits.release();
+                    }
+                }, context));
+            }
+        } // Closing the executor waits for all submitted tasks
+        progress.finish();
+    }
 }
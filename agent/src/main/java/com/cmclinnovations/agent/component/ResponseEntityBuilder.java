@@ -76,6 +76,24 @@ public class ResponseEntityBuilder {
     return success(null, message, currentItemCount, totalItems, null, columns, items);
   }
 
+  /**
+   * Builds a successful response for a page of items retrieved with a cursor.
+   *
+   * @param message          An optional message for its corresponding key in the
+   *                         data payload.
+   * @param currentItemCount The count of all items after filter applied. Equals
+   *                         to total items if no filter is applied.
+   * @param totalItems       An integer count of all items.
+   * @param columns          An optional list of column metadata.
+   * @param items            A collection of instances/data.
+   * @param nextCursor       An optional cursor to the next page. Omitted on the
+   *                         last page.
+   */
+  public ResponseEntity<StandardApiResponse<?>> success(String message, Integer currentItemCount,
+      Integer totalItems, List<ColumnMetaPayload> columns, List<Map<String, Object>> items, String nextCursor) {
+    return success(null, message, currentItemCount, totalItems, null, columns, items, nextCursor);
+  }
+
   /**
    * Builds a successful response with the data payload.
    *
@@ -94,8 +112,31 @@ public class ResponseEntityBuilder {
    */
   public ResponseEntity<StandardApiResponse<?>> success(String id, String message, Integer currentItemCount,
       Integer totalItems, Boolean deleted, List<ColumnMetaPayload> columns, List<Map<String, Object>> items) {
+    return success(id, message, currentItemCount, totalItems, deleted, columns, items, null);
+  }
+
+  /**
+   * Builds a successful response with the data payload.
+   *
+   * @param id               An optional id for its corresponding key in the data
+   *                         payload.
+   * @param message          An optional message for its corresponding key in the
+   *                         data payload.
+   * @param currentItemCount An optional count of all items after any filter
+   *                         applied. Equals to total items if no filter is
+   *                         applied.
+   * @param totalItems       An optional count of all items.
+   * @param deleted          An optional boolean to indicate the deleted status
+   *                         for any DELETE request.
+   * @param columns          An optional list of column metadata.
+   * @param items            An optional collection of instances/data.
+   * @param nextCursor       An optional cursor to the next page.
+   */
+  public ResponseEntity<StandardApiResponse<?>> success(String id, String message, Integer currentItemCount,
+      Integer totalItems, Boolean deleted, List<ColumnMetaPayload> columns, List<Map<String, Object>> items,
+      String nextCursor) {
     DataPayload<Map<String, Object>> dataPayload = new DataPayload<>(id, message, currentItemCount, totalItems, deleted,
-        columns, items);
+        columns, items, nextCursor);
     return new ResponseEntity<>(
         new StandardApiResponse<>(this.appVersion, dataPayload, null),
         HttpStatus.OK);
@@ -107,7 +148,18 @@ public class ResponseEntityBuilder {
    * @param items An optional collection of strings.
    */
   public <T> ResponseEntity<StandardApiResponse<?>> success(List<T> items) {
-    DataPayload<T> dataPayload = new DataPayload<>(null, null, null, null, null, null, items);
+    return successPage(items, null);
+  }
+
+  /**
+   * Builds a successful response with the data payload for a list of strings
+   * retrieved with a cursor.
+   *
+   * @param items      An optional collection of strings.
+   * @param nextCursor An optional cursor to the next page.
+   */
+  public <T> ResponseEntity<StandardApiResponse<?>> successPage(List<T> items, String nextCursor) {
+    DataPayload<T> dataPayload = new DataPayload<>(null, null, null, null, null, null, items, nextCursor);
     return new ResponseEntity<>(
         new StandardApiResponse<>(this.appVersion, dataPayload, null),
         HttpStatus.OK);
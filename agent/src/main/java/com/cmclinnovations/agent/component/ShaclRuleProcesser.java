@@ -9,19 +9,39 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.query.Query;
 import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QueryParseException;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.ResourceFactory;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.sparql.core.TriplePath;
 import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprFunction;
+import org.apache.jena.sparql.expr.ExprFunctionOp;
+import org.apache.jena.sparql.path.P_Link;
+import org.apache.jena.sparql.path.P_NegPropSet;
+import org.apache.jena.sparql.path.P_ReverseLink;
+import org.apache.jena.sparql.path.PathVisitorBase;
+import org.apache.jena.sparql.path.PathWalker;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.ElementBind;
+import org.apache.jena.sparql.syntax.ElementFilter;
+import org.apache.jena.sparql.syntax.ElementPathBlock;
+import org.apache.jena.sparql.syntax.ElementSubQuery;
+import org.apache.jena.sparql.syntax.ElementTriplesBlock;
+import org.apache.jena.sparql.syntax.ElementVisitorBase;
+import org.apache.jena.sparql.syntax.ElementWalker;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -31,6 +51,9 @@ import org.springframework.stereotype.Component;
 import com.cmclinnovations.agent.model.SparqlBinding;
 import com.cmclinnovations.agent.model.SparqlResponseField;
 import com.cmclinnovations.agent.model.type.ShaclRuleType;
+import com.cmclinnovations.agent.model.util.ShaclRuleSet;
+import com.cmclinnovations.agent.model.util.ShaclRuleSet.ConstructRule;
+import com.cmclinnovations.agent.model.util.ShaclRuleSet.VirtualRule;
 import com.cmclinnovations.agent.utils.QueryResource;
 import com.cmclinnovations.agent.utils.StringResource;
 
@@ -41,6 +64,7 @@ public class ShaclRuleProcesser {
     private final Property shaclSelect;
     private static final String ID_TRIPLE_STATEMENT = QueryResource.genVariable(QueryResource.THIS_KEY)
             .has(QueryResource.DC_TERM_ID, QueryResource.ID_VAR).getQueryString();
+    private static final Pattern WHERE_CLAUSE_PATTERN = Pattern.compile("(?i)WHERE\\s*\\{");
     private static final Logger LOGGER = LogManager.getLogger(ShaclRuleProcesser.class);
 
     /**
@@ -53,80 +77,120 @@ public class ShaclRuleProcesser {
     }
 
     /**
-     * Retrieve all virtual queries to be executed at query time.
+     * Parses the SHACL rules once into their construct and virtual rules, so that
+     * they can be reused without parsing their queries again.
      *
      * @param rules The model containing SHACL rules.
+     */
+    public ShaclRuleSet compile(Model rules) {
+        LOGGER.debug("Compiling SHACL rules....");
+        List<ConstructRule> constructRules = new ArrayList<>();
+        for (String constructQuery : this.getConstructQueries(rules)) {
+            Query query = QueryFactory.create(constructQuery);
+            if (!query.isConstructType()) {
+                throw new IllegalStateException("The provided query is not a CONSTRUCT query: " + constructQuery);
+            }
+            String whereClause = query.getQueryPattern().toString();
+            PredicateCollector predicateCollector = new PredicateCollector();
+            predicateCollector.collect(query.getQueryPattern());
+            constructRules.add(new ConstructRule(whereClause.substring(0, whereClause.length() - 1),
+                    List.copyOf(query.getConstructTemplate().getTriples()),
+                    Set.copyOf(predicateCollector.predicates), predicateCollector.hasAnyPredicate));
+        }
+        List<VirtualRule> virtualRules = new ArrayList<>();
+        StmtIterator ruleStatements = rules.listStatements(null, RDF.type,
+                ShaclRuleType.SPARQL_VIRTUAL_RULE.getResource());
+        while (ruleStatements.hasNext()) {
+            Resource rule = ruleStatements.nextStatement().getSubject();
+            Statement selectStatement = rule.getProperty(this.shaclSelect);
+            if (selectStatement != null) {
+                virtualRules.add(this.compileVirtualRule(selectStatement.getString()));
+            }
+        }
+        return new ShaclRuleSet(rules, List.copyOf(constructRules), List.copyOf(virtualRules));
+    }
+
+    /**
+     * Retrieve all virtual queries to be executed at query time.
+     *
+     * @param rules The compiled SHACL rules.
      * @param iris  The list of IRIs to be targeted.
      */
-    public Queue<String> getVirtualQueries(Model rules, List<String> iris) {
+    public Queue<String> getVirtualQueries(ShaclRuleSet rules, List<String> iris) {
         LOGGER.debug("Retrieving SHACL virtual rules....");
-        Queue<String> queries = this.execVirtualQueryOperation(rules, (String selectStatement) -> {
+        Queue<String> queries = new ArrayDeque<>();
+        String iriClause = this.getIriClause(QueryResource.ID_KEY, iris);
+        for (VirtualRule rule : rules.virtualRules()) {
+            StringBuilder queryBuilder = new StringBuilder(QueryResource.DC_TERM.getQueryString())
+                    .append(rule.selectHead());
             // Update the query with ID filters and variable
-            return QueryResource.DC_TERM.getQueryString() +
-                    selectStatement.replaceFirst("(?i)WHERE\\s*\\{",
-                            "?id WHERE{" + ID_TRIPLE_STATEMENT
-                                    + this.getIriClause(QueryResource.ID_KEY, iris));
-        });
+            if (rule.selectTail() != null) {
+                queryBuilder.append("?id WHERE{").append(ID_TRIPLE_STATEMENT).append(iriClause)
+                        .append(rule.selectTail());
+            }
+            queries.offer(queryBuilder.toString());
+        }
         return queries;
     }
 
     /**
      * Retrieve the virtual queries associated with the fields.
      *
-     * @param rules         The model containing SHACL rules.
+     * @param rules         The compiled SHACL rules.
      * @param fields        The fields of interest.
      * @param virtualFields Stores the fields that are in virtual queries.
      */
-    public Queue<String> getVirtualQueries(Model rules, Set<String> fields, Set<String> virtualFields) {
+    public Queue<String> getVirtualQueries(ShaclRuleSet rules, Set<String> fields, Set<String> virtualFields) {
         LOGGER.debug("Retrieving SHACL virtual rules....");
-        Queue<String> queries = this.execVirtualQueryOperation(rules, (String selectStatement) -> {
-            String selectQuery = QueryResource.DC_TERM.getQueryString() +
-                    selectStatement.replaceFirst("(?i)WHERE\\s*\\{",
-                            "?id WHERE{" + ID_TRIPLE_STATEMENT);
-            Query query = QueryFactory.create(selectQuery);
-            List<Var> variables = query.getProjectVars().stream()
-                    // Filter out ID variable and if the fields does not contain the variable
-                    .filter(v -> !v.getVarName().equals(QueryResource.ID_KEY) && fields.contains(v.getVarName()))
-                    .toList();
-            // Skip this iteration if the field is not present
-            if (variables.isEmpty()) {
-                return null;
+        Queue<String> queries = new ArrayDeque<>();
+        for (VirtualRule rule : rules.virtualRules()) {
+            if (rule.fieldQuery() == null) {
+                throw new IllegalStateException("Invalid query for SHACL SPARQL virtual rule: " + rule.selectHead());
             }
+            boolean hasField = false;
             // For each variable present, append to the virtual fields
-            variables.stream()
-                    .forEach(v -> virtualFields.add(v.getVarName()));
-            // Reset prefixes to use full IRIs
-            query.getPrefixMapping().clearNsPrefixMap();
-            return query.serialize();
-        });
+            for (String variable : rule.variables()) {
+                if (fields.contains(variable)) {
+                    virtualFields.add(variable);
+                    hasField = true;
+                }
+            }
+            // Skip this rule if none of the fields are present
+            if (hasField) {
+                queries.offer(rule.fieldQuery());
+            }
+        }
         return queries;
     }
 
     /**
-     * Execute the operations to retrieve virtual queries based on the operation
-     * required.
+     * Parses the SELECT statement of a virtual rule, and splits it at its WHERE
+     * clause for the ID filters to be inserted.
      *
-     * @param rules          The model containing SHACL rules.
-     * @param queryOperation The function to apply for each select query if it
-     *                       exists.
+     * @param selectStatement The SELECT statement of the virtual rule.
      */
-    public Queue<String> execVirtualQueryOperation(Model rules, Function<String, String> queryOperation) {
-        LOGGER.debug("Retrieving SHACL virtual rules....");
-        Queue<String> queries = new ArrayDeque<>();
-        StmtIterator ruleStatements = rules.listStatements(null, RDF.type,
-                ShaclRuleType.SPARQL_VIRTUAL_RULE.getResource());
-        while (ruleStatements.hasNext()) {
-            Statement ruleStmt = ruleStatements.nextStatement();
-            Resource rule = ruleStmt.getSubject();
-            Statement selectStatement = rule.getProperty(this.shaclSelect);
-            if (selectStatement != null) {
-                String selectQuery = queryOperation.apply(selectStatement.getString());
-                if (selectQuery != null) {
-                    queries.offer(selectQuery);
-                }
-            }
+    private VirtualRule compileVirtualRule(String selectStatement) {
+        Matcher matcher = WHERE_CLAUSE_PATTERN.matcher(selectStatement);
+        if (!matcher.find()) {
+            return new VirtualRule(selectStatement, null, null, Set.of());
+        }
+        String selectHead = selectStatement.substring(0, matcher.start());
+        String selectTail = selectStatement.substring(matcher.end());
+        try {
+            Query query = QueryFactory.create(QueryResource.DC_TERM.getQueryString() + selectHead
+                    + "?id WHERE{" + ID_TRIPLE_STATEMENT + selectTail);
+            Set<String> variables = query.getProjectVars().stream()
+                    .map(Var::getVarName)
+                    // Filter out ID variable
+                    .filter(variable -> !variable.equals(QueryResource.ID_KEY))
+                    .collect(Collectors.toUnmodifiableSet());
+            // Reset prefixes to use full IRIs
+            query.getPrefixMapping().clearNsPrefixMap();
+            return new VirtualRule(selectHead, selectTail, query.serialize(), variables);
+        } catch (QueryParseException e) {
+            LOGGER.warn("Unable to parse SHACL SPARQL virtual rule: {}", e.getMessage());
+            return new VirtualRule(selectHead, selectTail, null, Set.of());
         }
-        return queries;
     }
 
     /**
@@ -196,6 +260,22 @@ public class ShaclRuleProcesser {
         return selectQueryBuilder.toString();
     }
 
+    /**
+     * Generates a SELECT SPARQL query from the compiled CONSTRUCT rule using the
+     * same WHERE clause.
+     *
+     * @param rule The compiled CONSTRUCT rule.
+     * @param iris List of IRI strings.
+     */
+    public String genSelectQuery(ConstructRule rule, List<String> iris) {
+        LOGGER.debug("Constructing a SELECT query from the WHERE clause....");
+        return new StringBuilder("SELECT *").append(System.lineSeparator())
+                .append("WHERE ")
+                .append(rule.whereClause())
+                .append(this.getIriClause(QueryResource.THIS_KEY, iris)).append("}")
+                .toString();
+    }
+
     /**
      * Generates a list of triples for the CONSTRUCT template.
      *
@@ -359,4 +439,97 @@ public class ShaclRuleProcesser {
             return targetNode.toString();
         }
     }
+
+    /**
+     * Collects the IRIs of the predicates queried by a graph pattern from its
+     * parsed elements, including property paths, sub-queries and EXISTS filters.
+     */
+    private static class PredicateCollector extends ElementVisitorBase {
+        private final Set<String> predicates = new HashSet<>();
+        // Variable predicates and negated property sets may match any predicate
+        private boolean hasAnyPredicate = false;
+
+        /**
+         * Collects the predicates of the graph pattern.
+         *
+         * @param pattern The target graph pattern.
+         */
+        private void collect(Element pattern) {
+            ElementWalker.walk(pattern, this);
+        }
+
+        @Override
+        public void visit(ElementTriplesBlock el) {
+            el.getPattern().forEach(triple -> this.addPredicate(triple.getPredicate()));
+        }
+
+        @Override
+        public void visit(ElementPathBlock el) {
+            for (TriplePath triplePath : el.getPattern()) {
+                if (triplePath.isTriple()) {
+                    this.addPredicate(triplePath.getPredicate());
+                } else {
+                    PathWalker.walk(triplePath.getPath(), new PathVisitorBase() {
+                        @Override
+                        public void visit(P_Link pathNode) {
+                            PredicateCollector.this.addPredicate(pathNode.getNode());
+                        }
+
+                        @Override
+                        public void visit(P_ReverseLink pathNode) {
+                            PredicateCollector.this.addPredicate(pathNode.getNode());
+                        }
+
+                        @Override
+                        public void visit(P_NegPropSet pathNotOneOf) {
+                            PredicateCollector.this.hasAnyPredicate = true;
+                        }
+                    });
+                }
+            }
+        }
+
+        @Override
+        public void visit(ElementSubQuery el) {
+            // The walker does not descend into sub-queries
+            this.collect(el.getQuery().getQueryPattern());
+        }
+
+        @Override
+        public void visit(ElementFilter el) {
+            this.collect(el.getExpr());
+        }
+
+        @Override
+        public void visit(ElementBind el) {
+            this.collect(el.getExpr());
+        }
+
+        /**
+         * Collects the predicates of any EXISTS or NOT EXISTS patterns in the
+         * expression.
+         *
+         * @param expr The target expression.
+         */
+        private void collect(Expr expr) {
+            if (expr instanceof ExprFunctionOp existsExpr) {
+                this.collect(existsExpr.getElement());
+            } else if (expr instanceof ExprFunction function) {
+                function.getArgs().forEach(this::collect);
+            }
+        }
+
+        /**
+         * Adds the predicate if it is an IRI.
+         *
+         * @param predicate The predicate node.
+         */
+        private void addPredicate(Node predicate) {
+            if (predicate.isURI()) {
+                this.predicates.add(predicate.getURI());
+            } else {
+                this.hasAnyPredicate = true;
+            }
+        }
+    }
 }
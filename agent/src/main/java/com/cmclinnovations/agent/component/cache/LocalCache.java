@@ -0,0 +1,101 @@
+package com.cmclinnovations.agent.component.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A bounded in-process cache that evicts the least recently used entry once it
+ * is full, and expires entries after a fixed time since they were written.
+ * Values are computed outside the lock, so concurrent misses for the same key
+ * may compute the value more than once.
+ */
+public class LocalCache<K, V> {
+    private final Map<K, Entry<V>> entries;
+    private final long ttlNanos;
+
+    /**
+     * Constructs a new cache.
+     *
+     * @param maxSize The maximum number of entries to retain.
+     * @param ttl     The duration an entry is retained after it is written.
+     */
+    public LocalCache(int maxSize, Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Retrieves the value for the key, or null if it is missing or expired.
+     *
+     * @param key The target key.
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = this.entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiry() - System.nanoTime() <= 0) {
+            this.entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Retrieves the value for the key, or computes and caches it if it is missing
+     * or expired.
+     *
+     * @param key    The target key.
+     * @param loader Computes the value on a cache miss. Null values are not
+     *               cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        V value = this.get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                this.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Stores the value for the key.
+     *
+     * @param key   The target key.
+     * @param value The value to cache.
+     */
+    public synchronized void put(K key, V value) {
+        this.entries.put(key, new Entry<>(value, System.nanoTime() + this.ttlNanos));
+    }
+
+    /**
+     * Removes the value for the key if it is present.
+     *
+     * @param key The target key.
+     */
+    public synchronized void remove(K key) {
+        this.entries.remove(key);
+    }
+
+    /**
+     * Removes all values from the cache.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * A cached value with its expiry time in nanoseconds.
+     */
+    private record Entry<V>(V value, long expiry) {
+    }
+}
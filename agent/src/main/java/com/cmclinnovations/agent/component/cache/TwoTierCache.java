@@ -0,0 +1,124 @@
+package com.cmclinnovations.agent.component.cache;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * A cache that reads through a local in-process tier before the shared remote
+ * tier. Writes and evictions are applied to both tiers and announced so that
+ * other instances can drop their local copies. Cached values are shared across
+ * requests, and must not be modified by callers.
+ */
+public class TwoTierCache implements Cache {
+    private final Cache remoteCache;
+    private final LocalCache<Object, Object> localCache;
+    private final Consumer<Object> invalidationPublisher;
+
+    /**
+     * Constructs a new two-tier cache.
+     *
+     * @param remoteCache           The shared remote cache.
+     * @param localCache            The local cache in front of the remote cache.
+     * @param invalidationPublisher Announces the key that has changed, or null if
+     *                              the cache is cleared.
+     */
+    public TwoTierCache(Cache remoteCache, LocalCache<Object, Object> localCache,
+            Consumer<Object> invalidationPublisher) {
+        this.remoteCache = remoteCache;
+        this.localCache = localCache;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return this.remoteCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this.remoteCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = this.localCache.get(key);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+        ValueWrapper remoteValue = this.remoteCache.get(key);
+        if (remoteValue != null && remoteValue.get() != null) {
+            this.localCache.put(key, remoteValue.get());
+        }
+        return remoteValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = this.get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = this.get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = this.remoteCache.get(key, valueLoader);
+        if (value != null) {
+            this.localCache.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        this.remoteCache.put(key, value);
+        if (value != null) {
+            this.localCache.put(key, value);
+        }
+        this.invalidationPublisher.accept(key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        this.remoteCache.evict(key);
+        this.localCache.remove(key);
+        this.invalidationPublisher.accept(key);
+    }
+
+    @Override
+    public void clear() {
+        this.remoteCache.clear();
+        this.localCache.clear();
+        this.invalidationPublisher.accept(null);
+    }
+
+    /**
+     * Removes the key from the local tier only, after it has changed in another
+     * instance.
+     *
+     * @param key The target key.
+     */
+    public void evictLocal(Object key) {
+        this.localCache.remove(key);
+    }
+
+    /**
+     * Clears the local tier only, after the cache has been cleared in another
+     * instance.
+     */
+    public void clearLocal() {
+        this.localCache.clear();
+    }
+}
@@ -0,0 +1,107 @@
+package com.cmclinnovations.agent.component.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * A cache manager that places a bounded local cache in front of each cache of
+ * the remote cache manager. Changes are published on a Redis channel so that
+ * other instances of the agent drop the affected local entries.
+ */
+public class TwoTierCacheManager implements CacheManager {
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final ConcurrentMap<String, TwoTierCache> caches;
+    private final String instanceId;
+    private final int localMaxSize;
+    private final Duration localTtl;
+
+    public static final String INVALIDATION_CHANNEL = "vis-backend-agent:cache-invalidation";
+    private static final String MESSAGE_SEPARATOR = "\n";
+
+    private static final Logger LOGGER = LogManager.getLogger(TwoTierCacheManager.class);
+
+    /**
+     * Constructs a new two-tier cache manager.
+     *
+     * @param remoteCacheManager The shared remote cache manager.
+     * @param redisTemplate      Publishes invalidation messages.
+     * @param localMaxSize       The maximum number of local entries per cache.
+     * @param localTtl           The duration a local entry is retained.
+     */
+    public TwoTierCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate, int localMaxSize,
+            Duration localTtl) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.caches = new ConcurrentHashMap<>();
+        this.instanceId = UUID.randomUUID().toString();
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return this.caches.computeIfAbsent(name, cacheName -> {
+            Cache remoteCache = this.remoteCacheManager.getCache(cacheName);
+            if (remoteCache == null) {
+                return null;
+            }
+            return new TwoTierCache(remoteCache, new LocalCache<>(this.localMaxSize, this.localTtl),
+                    key -> this.publishInvalidation(cacheName, key));
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return this.remoteCacheManager.getCacheNames();
+    }
+
+    /**
+     * Handles an invalidation message from the channel by dropping the affected
+     * local entries. Messages published by this instance are ignored.
+     *
+     * @param message The invalidation message.
+     */
+    public void handleInvalidation(String message) {
+        String[] parts = message.split(MESSAGE_SEPARATOR, 3);
+        if (parts.length < 2 || parts[0].equals(this.instanceId)) {
+            return;
+        }
+        TwoTierCache cache = this.caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts.length == 2) {
+            LOGGER.debug("Clearing local cache {} after remote change", parts[1]);
+            cache.clearLocal();
+        } else {
+            LOGGER.debug("Evicting local entry {} from cache {} after remote change", parts[2], parts[1]);
+            cache.evictLocal(parts[2]);
+        }
+    }
+
+    /**
+     * Publishes the change to a cache for other instances.
+     *
+     * @param cacheName The name of the changed cache.
+     * @param key       The changed key, or null if the cache is cleared.
+     */
+    private void publishInvalidation(String cacheName, Object key) {
+        String message = this.instanceId + MESSAGE_SEPARATOR + cacheName
+                + (key == null ? "" : MESSAGE_SEPARATOR + key);
+        try {
+            this.redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to publish cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+}
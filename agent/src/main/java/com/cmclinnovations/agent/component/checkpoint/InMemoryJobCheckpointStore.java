@@ -0,0 +1,44 @@
+package com.cmclinnovations.agent.component.checkpoint;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A checkpoint store held in memory, which does not survive a restart of the
+ * agent. Only the checkpoints of the latest run of each job are retained.
+ */
+public class InMemoryJobCheckpointStore implements JobCheckpointStore {
+    private final ConcurrentMap<String, Checkpoint> checkpoints;
+
+    public InMemoryJobCheckpointStore() {
+        this.checkpoints = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Set<String> getProcessed(String jobName, String runKey) {
+        Checkpoint checkpoint = this.checkpoints.get(jobName);
+        if (checkpoint == null || !checkpoint.runKey().equals(runKey)) {
+            return Set.of();
+        }
+        return Set.copyOf(checkpoint.items());
+    }
+
+    @Override
+    public void markProcessed(String jobName, String runKey, String item) {
+        this.checkpoints.compute(jobName, (name, checkpoint) -> {
+            // Replace the checkpoint of an earlier run
+            if (checkpoint == null || !checkpoint.runKey().equals(runKey)) {
+                checkpoint = new Checkpoint(runKey, ConcurrentHashMap.newKeySet());
+            }
+            checkpoint.items().add(item);
+            return checkpoint;
+        });
+    }
+
+    /**
+     * The processed items of a run.
+     */
+    private record Checkpoint(String runKey, Set<String> items) {
+    }
+}
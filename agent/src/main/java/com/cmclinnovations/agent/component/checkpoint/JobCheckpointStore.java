@@ -0,0 +1,26 @@
+package com.cmclinnovations.agent.component.checkpoint;
+
+import java.util.Set;
+
+/**
+ * Persists the items processed by a run of a scheduled job, so that a
+ * restarted run can resume by skipping the items that are already done.
+ */
+public interface JobCheckpointStore {
+    /**
+     * Retrieves the items that have been processed in the run.
+     *
+     * @param jobName The name of the job.
+     * @param runKey  Identifies the run, such as its cutoff date.
+     */
+    Set<String> getProcessed(String jobName, String runKey);
+
+    /**
+     * Records an item as processed in the run.
+     *
+     * @param jobName The name of the job.
+     * @param runKey  Identifies the run, such as its cutoff date.
+     * @param item    The processed item.
+     */
+    void markProcessed(String jobName, String runKey, String item);
+}
@@ -0,0 +1,68 @@
+package com.cmclinnovations.agent.component.checkpoint;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * A checkpoint store that keeps the processed items of each run as a Redis set,
+ * so that checkpoints survive a restart and are shared by all instances. Items
+ * are also held in memory, which is used on its own if Redis is unavailable.
+ */
+public class RedisJobCheckpointStore implements JobCheckpointStore {
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final JobCheckpointStore fallbackStore;
+
+    private static final String KEY_PREFIX = "vis-backend-agent:checkpoint:";
+
+    private static final Logger LOGGER = LogManager.getLogger(RedisJobCheckpointStore.class);
+
+    /**
+     * Constructs a new Redis checkpoint store.
+     *
+     * @param redisTemplate Accesses the checkpoints in Redis.
+     * @param ttl           The duration a checkpoint is retained after its last
+     *                      update.
+     */
+    public RedisJobCheckpointStore(StringRedisTemplate redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.fallbackStore = new InMemoryJobCheckpointStore();
+    }
+
+    @Override
+    public Set<String> getProcessed(String jobName, String runKey) {
+        Set<String> processed = new HashSet<>(this.fallbackStore.getProcessed(jobName, runKey));
+        try {
+            Set<String> members = this.redisTemplate.opsForSet().members(genKey(jobName, runKey));
+            if (members != null) {
+                processed.addAll(members);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to read checkpoint for {} from redis, using local checkpoint: {}", jobName,
+                    e.getMessage());
+        }
+        return processed;
+    }
+
+    @Override
+    public void markProcessed(String jobName, String runKey, String item) {
+        this.fallbackStore.markProcessed(jobName, runKey, item);
+        String key = genKey(jobName, runKey);
+        try {
+            this.redisTemplate.opsForSet().add(key, item);
+            this.redisTemplate.expire(key, this.ttl);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to write checkpoint for {} to redis: {}", jobName, e.getMessage());
+        }
+    }
+
+    private static String genKey(String jobName, String runKey) {
+        return KEY_PREFIX + jobName + ":" + runKey;
+    }
+}
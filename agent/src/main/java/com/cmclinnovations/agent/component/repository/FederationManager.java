@@ -0,0 +1,162 @@
+package com.cmclinnovations.agent.component.repository;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.rdf4j.federated.FedXFactory;
+import org.eclipse.rdf4j.federated.repository.FedXRepository;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import com.cmclinnovations.agent.model.type.SparqlEndpointType;
+
+/**
+ * Manages long-lived FedX federations for each endpoint type, so that the
+ * federation setup and its source selection cache are reused across queries.
+ * A federation is rebuilt when the endpoints for its type have changed, or
+ * after an update so that its cache cannot hide newly written triples. The
+ * stale federation is shut down once its in-flight queries complete.
+ */
+@Component
+public class FederationManager implements DisposableBean {
+    private final Map<SparqlEndpointType, Federation> federations;
+
+    private static final Logger LOGGER = LogManager.getLogger(FederationManager.class);
+
+    /**
+     * Constructs a new federation manager.
+     */
+    public FederationManager() {
+        this.federations = new EnumMap<>(SparqlEndpointType.class);
+    }
+
+    /**
+     * Acquires the federation for the endpoint type. Callers must release the
+     * federation once they have finished querying it.
+     *
+     * @param endpointType The endpoint type of the federation.
+     * @param endpoints    The current endpoints for this type.
+     */
+    public Federation acquire(SparqlEndpointType endpointType, List<String> endpoints) {
+        while (true) {
+            Federation federation = this.getOrCreate(endpointType, endpoints);
+            federation.activeQueries.incrementAndGet();
+            // Retry if the federation was retired before it could be acquired
+            if (!federation.retired) {
+                return federation;
+            }
+            this.release(federation);
+        }
+    }
+
+    /**
+     * Releases the federation after querying, and shuts it down if it has since
+     * been retired.
+     *
+     * @param federation The acquired federation.
+     */
+    public void release(Federation federation) {
+        if (federation.activeQueries.decrementAndGet() == 0 && federation.retired) {
+            federation.shutDown();
+        }
+    }
+
+    /**
+     * Retires all federations so that subsequent queries use a fresh source
+     * selection cache. Otherwise, a cached negative ASK for an endpoint would hide
+     * the triples written to it until the cache entry expires.
+     */
+    public synchronized void invalidate() {
+        this.federations.values().forEach(this::retire);
+        this.federations.clear();
+    }
+
+    /**
+     * Shuts down all federations when the application context is closed.
+     */
+    @Override
+    public synchronized void destroy() {
+        LOGGER.info("Shutting down all FedX federations...");
+        this.invalidate();
+    }
+
+    /**
+     * Retrieves the current federation for the endpoint type, or creates a new one
+     * if there is none or its endpoints are outdated.
+     *
+     * @param endpointType The endpoint type of the federation.
+     * @param endpoints    The current endpoints for this type.
+     */
+    private synchronized Federation getOrCreate(SparqlEndpointType endpointType, List<String> endpoints) {
+        Federation federation = this.federations.get(endpointType);
+        if (federation != null && federation.endpoints.equals(endpoints)) {
+            return federation;
+        }
+        if (federation != null) {
+            LOGGER.info("Endpoints for {} have changed. Rebuilding the FedX federation...", endpointType);
+            this.retire(federation);
+        } else {
+            LOGGER.info("Initialising the FedX federation for {}...", endpointType);
+        }
+        Federation newFederation = new Federation(List.copyOf(endpoints),
+                FedXFactory.createSparqlFederation(endpoints));
+        this.federations.put(endpointType, newFederation);
+        return newFederation;
+    }
+
+    /**
+     * Retires the federation so that it is no longer handed out, and shuts it
+     * down immediately if no query is using it.
+     *
+     * @param federation The target federation.
+     */
+    private void retire(Federation federation) {
+        federation.retired = true;
+        if (federation.activeQueries.get() == 0) {
+            federation.shutDown();
+        }
+    }
+
+    /**
+     * A FedX repository with its endpoints and usage.
+     */
+    public static class Federation {
+        private final List<String> endpoints;
+        private final FedXRepository repository;
+        private final AtomicInteger activeQueries;
+        private volatile boolean retired;
+
+        private Federation(List<String> endpoints, FedXRepository repository) {
+            this.endpoints = endpoints;
+            this.repository = repository;
+            this.activeQueries = new AtomicInteger();
+            this.retired = false;
+        }
+
+        /**
+         * Retrieves the FedX repository of this federation.
+         */
+        public FedXRepository getRepository() {
+            return this.repository;
+        }
+
+        /**
+         * Shuts down the FedX repository if it is still running. May be invoked by
+         * both the retiring and the last releasing thread.
+         */
+        private synchronized void shutDown() {
+            if (this.repository.isInitialized()) {
+                try {
+                    this.repository.shutDown();
+                } catch (RepositoryException e) {
+                    LOGGER.error("Failed to shut down FedX repository", e);
+                }
+            }
+        }
+    }
+}
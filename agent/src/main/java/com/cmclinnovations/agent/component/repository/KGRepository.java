@@ -1,23 +1,22 @@
 package com.cmclinnovations.agent.component.repository;
 
-import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.eclipse.rdf4j.federated.FedXFactory;
-import org.eclipse.rdf4j.federated.repository.FedXRepository;
 import org.eclipse.rdf4j.federated.repository.FedXRepositoryConnection;
+import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.TupleQuery;
-import org.eclipse.rdf4j.query.resultio.sparqljson.SPARQLResultsJSONWriter;
-import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.query.TupleQueryResult;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
 
 import com.cmclinnovations.agent.exception.InvalidRouteException;
 import com.cmclinnovations.agent.model.SparqlBinding;
@@ -32,16 +31,13 @@ import com.cmclinnovations.agent.utils.ShaclResource;
 import com.cmclinnovations.agent.utils.StringResource;
 import com.cmclinnovations.stack.clients.blazegraph.BlazegraphClient;
 
-import tools.jackson.core.JacksonException;
-import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.json.JsonMapper;
-import tools.jackson.databind.node.ArrayNode;
-import tools.jackson.databind.node.ObjectNode;
 
 @Component
 public class KGRepository {
     private final RestClient client;
-    private final JsonMapper objectMapper;
+    private final SparqlResultStreamReader resultReader;
+    private final FederationManager federationManager;
     private final FileService fileService;
     private final LoggingService loggingService;
     private final QueryTemplateService queryTemplateService;
@@ -60,10 +56,12 @@ public class KGRepository {
      * to separate the cacheable methods from their callers, as SpringBoot enforces
      * this behaviour.
      */
-    public KGRepository(FileService fileService, LoggingService loggingService,
-            QueryTemplateService queryTemplateService, @Value("${SHACL_NAMESPACE}") String shaclNamespace) {
-        this.client = RestClient.create();
-        this.objectMapper = new JsonMapper();
+    public KGRepository(RestClient client, FederationManager federationManager, FileService fileService,
+            LoggingService loggingService, QueryTemplateService queryTemplateService,
+            @Value("${SHACL_NAMESPACE}") String shaclNamespace) {
+        this.client = client;
+        this.resultReader = new SparqlResultStreamReader(new JsonMapper());
+        this.federationManager = federationManager;
         this.fileService = fileService;
         this.loggingService = loggingService;
         this.queryTemplateService = queryTemplateService;
@@ -110,62 +108,104 @@ public class KGRepository {
      * @return the query results.
      */
     public List<SparqlBinding> query(String query, String endpoint) {
+        List<SparqlBinding> results = new ArrayList<>();
+        this.query(query, endpoint, results::add);
+        return results;
+    }
+
+    /**
+     * A method that executes a query at the specified endpoint, and streams each
+     * row of the SPARQL results to the consumer without materialising the entire
+     * response.
+     * 
+     * @param query       the query for execution.
+     * @param endpoint    the endpoint for execution.
+     * @param rowConsumer callback executed for each row in the results.
+     * 
+     * @return the number of rows read.
+     */
+    public int query(String query, String endpoint, Consumer<SparqlBinding> rowConsumer) {
         this.loggingService.logQuery(query, LOGGER);
-        String results = this.client.post()
+        return this.client.post()
                 .uri(endpoint)
                 .accept(QueryResource.JSON_MEDIA_TYPE)
                 .contentType(QueryResource.SPARQL_MEDIA_TYPE)
                 .body(query)
-                .retrieve()
-                .body(String.class);
-        JsonNode[] sparqlResponse = this.readSparqlResponse(results);
-        if (sparqlResponse[0].isArray()) {
-            return this.readResultsAsSparqlBinding((ArrayNode) sparqlResponse[0], (ArrayNode) sparqlResponse[1]);
-        }
-        return new ArrayList<>();
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw new RestClientResponseException("Failed to execute query at " + endpoint,
+                                response.getStatusCode(), response.getStatusText(), response.getHeaders(),
+                                response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+                    }
+                    LOGGER.debug("Parsing the results...");
+                    return this.resultReader.read(response.getBody(), rowConsumer);
+                });
     }
 
     /**
      * A method that executes a federated query across the endpoints to retrieve
      * results.
      * 
-     * @param query     The query for execution.
-     * @param endpoints List of endpoints for execution.
+     * @param query        The query for execution.
+     * @param endpointType The type of the endpoints.
+     * @param endpoints    List of endpoints for execution.
      * 
      * @return the query results.
      */
-    public List<SparqlBinding> query(String query, List<String> endpoints) {
-        FedXRepository repository = null;
+    public List<SparqlBinding> query(String query, SparqlEndpointType endpointType, List<String> endpoints) {
+        List<SparqlBinding> results = new ArrayList<>();
         try {
-            StringWriter stringWriter = new StringWriter();
-            repository = FedXFactory.createSparqlFederation(endpoints);
-            try (FedXRepositoryConnection conn = repository.getConnection()) {
-                this.loggingService.logQuery(query, LOGGER);
-                TupleQuery tq = conn.prepareTupleQuery(query);
-                // Extend execution time as required
-                tq.setMaxExecutionTime(600);
-                SPARQLResultsJSONWriter jsonWriter = new SPARQLResultsJSONWriter(stringWriter);
-                tq.evaluate(jsonWriter);
-                JsonNode[] sparqlResponse = this.readSparqlResponse(stringWriter.toString());
-                if (sparqlResponse[0].isArray()) {
-                    return this.readResultsAsSparqlBinding((ArrayNode) sparqlResponse[0],
-                            (ArrayNode) sparqlResponse[1]);
+            this.query(query, endpointType, endpoints, results::add);
+        } catch (RuntimeException e) {
+            // Partial results should not be returned
+            results.clear();
+        }
+        return results;
+    }
+
+    /**
+     * A method that executes a federated query across the endpoints, and passes
+     * each row of the results to the consumer as it is evaluated. The federation
+     * is reused across queries for the same endpoint type.
+     * 
+     * @param query        The query for execution.
+     * @param endpointType The type of the endpoints.
+     * @param endpoints    List of endpoints for execution.
+     * @param rowConsumer  Callback executed for each row in the results.
+     * 
+     * @return the number of rows read.
+     */
+    public int query(String query, SparqlEndpointType endpointType, List<String> endpoints,
+            Consumer<SparqlBinding> rowConsumer) {
+        FederationManager.Federation federation = this.federationManager.acquire(endpointType, endpoints);
+        int rowCount = 0;
+        try (FedXRepositoryConnection conn = federation.getRepository().getConnection()) {
+            this.loggingService.logQuery(query, LOGGER);
+            TupleQuery tq = conn.prepareTupleQuery(query);
+            // Extend execution time as required
+            tq.setMaxExecutionTime(600);
+            try (TupleQueryResult results = tq.evaluate()) {
+                List<String> variables = results.getBindingNames();
+                for (BindingSet bindingSet : results) {
+                    rowConsumer.accept(this.resultReader.read(bindingSet, variables));
+                    rowCount++;
                 }
-            } catch (RepositoryException e) {
-                LOGGER.error(e);
             }
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
             LOGGER.error(e);
+            throw e;
         } finally {
-            if (repository != null && repository.isInitialized()) {
-                try {
-                    repository.shutDown();
-                } catch (RepositoryException e) {
-                    LOGGER.error("Failed to shut down FedX repository", e);
-                }
-            }
+            this.federationManager.release(federation);
         }
-        return new ArrayList<>();
+        return rowCount;
+    }
+
+    /**
+     * Discards the federations and their source selection cache, so that
+     * subsequent federated queries see the triples written by an update.
+     */
+    public void invalidateFederations() {
+        this.federationManager.invalidate();
     }
 
     /**
@@ -231,44 +271,6 @@ public class KGRepository {
         return this.query(query, this.getShaclEndpoint());
     }
 
-    /**
-     * Reads the SPARQL query response into object nodes.
-     * 
-     * @param response Response string from the knowledge graph.
-     */
-    private JsonNode[] readSparqlResponse(String response) {
-        try {
-            ObjectNode sparqlResponse = this.objectMapper.readValue(response, ObjectNode.class);
-            JsonNode bindings = sparqlResponse.path("results")
-                    .path("bindings");
-            JsonNode variables = sparqlResponse.path("head")
-                    .path("vars");
-            return new JsonNode[] { bindings, variables };
-        } catch (JacksonException e) {
-            LOGGER.error(e);
-            throw new IllegalArgumentException(e);
-        }
-    }
-
-    /**
-     * Parses the results into the required data model.
-     * 
-     * @param results   Results retrieved from the knowledge graph.
-     * @param variables Expected variables to find.
-     */
-    private List<SparqlBinding> readResultsAsSparqlBinding(ArrayNode results, ArrayNode variables) {
-        LOGGER.debug("Parsing the results...");
-        try {
-            List<String> variableSet = this.objectMapper.readerForListOf(String.class).readValue(variables);
-            return StreamSupport.stream(results.spliterator(), false)
-                    .filter(JsonNode::isObject) // Ensure they are object node so that we can type cast
-                    .map(row -> new SparqlBinding((ObjectNode) row, variableSet))
-                    .collect(Collectors.toCollection(ArrayList::new));
-        } catch (JacksonException e) {
-            throw new IllegalArgumentException(e);
-        }
-    }
-
     /**
      * Queries for the nested predicates as a queue of responses based on their
      * current nested level.
@@ -0,0 +1,215 @@
+package com.cmclinnovations.agent.component.repository;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+
+import com.cmclinnovations.agent.model.SparqlBinding;
+import com.cmclinnovations.agent.model.SparqlResponseField;
+import com.cmclinnovations.agent.utils.QueryResource;
+import com.cmclinnovations.agent.utils.ShaclResource;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Reads SPARQL JSON results (application/sparql-results+json) as a token
+ * stream, emitting each row as a binding as soon as it is parsed. This avoids
+ * holding the raw response string and its intermediate tree on the heap in
+ * addition to the final bindings.
+ */
+public class SparqlResultStreamReader {
+    private final JsonMapper objectMapper;
+
+    private static final String HEAD_KEY = "head";
+    private static final String VARS_KEY = "vars";
+    private static final String RESULTS_KEY = "results";
+    private static final String BINDINGS_KEY = "bindings";
+    private static final String TYPE_KEY = "type";
+    private static final String VALUE_KEY = "value";
+    private static final String DATA_TYPE_KEY = "datatype";
+    private static final String LANGUAGE_KEY = "xml:lang";
+    private static final String BNODE_TYPE = "bnode";
+
+    /**
+     * Constructs a new reader.
+     *
+     * @param objectMapper The mapper used to create the underlying JSON parsers.
+     */
+    public SparqlResultStreamReader(JsonMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads the SPARQL JSON results from the input stream and passes each row to
+     * the consumer in the order they were received. The stream is not closed by
+     * this method.
+     *
+     * @param input       The response body of the SPARQL endpoint.
+     * @param rowConsumer Callback executed for each row.
+     * @return the number of rows read.
+     */
+    public int read(InputStream input, Consumer<SparqlBinding> rowConsumer) {
+        try (JsonParser parser = this.objectMapper.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Invalid SPARQL JSON response: expected a JSON object!");
+            }
+            List<String> variables = null;
+            // Rows are only buffered if the results are sent before the head
+            List<Map<String, SparqlResponseField>> pendingRows = new ArrayList<>();
+            int rowCount = 0;
+            while (parser.nextToken() != JsonToken.END_OBJECT) {
+                String section = parser.currentName();
+                parser.nextToken();
+                if (HEAD_KEY.equals(section) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    variables = this.readVariables(parser);
+                    for (Map<String, SparqlResponseField> row : pendingRows) {
+                        rowConsumer.accept(new SparqlBinding(row, variables));
+                    }
+                    pendingRows.clear();
+                } else if (RESULTS_KEY.equals(section) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() != JsonToken.END_OBJECT) {
+                        String resultSection = parser.currentName();
+                        parser.nextToken();
+                        if (BINDINGS_KEY.equals(resultSection) && parser.currentToken() == JsonToken.START_ARRAY) {
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                Map<String, SparqlResponseField> row = this.readRow(parser);
+                                if (variables == null) {
+                                    pendingRows.add(row);
+                                } else {
+                                    rowConsumer.accept(new SparqlBinding(row, variables));
+                                }
+                                rowCount++;
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    // Skips boolean results, links, and any other unsupported sections
+                    parser.skipChildren();
+                }
+            }
+            // Results without any head should still be returned
+            for (Map<String, SparqlResponseField> row : pendingRows) {
+                rowConsumer.accept(new SparqlBinding(row, new ArrayList<>()));
+            }
+            return rowCount;
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Converts a binding set evaluated by RDF4J into the required data model,
+     * matching the defaults of rows read from SPARQL JSON results.
+     *
+     * @param bindingSet The evaluated binding set.
+     * @param variables  Expected variables to find.
+     */
+    public SparqlBinding read(BindingSet bindingSet, List<String> variables) {
+        Map<String, SparqlResponseField> row = new HashMap<>();
+        for (Binding binding : bindingSet) {
+            Value value = binding.getValue();
+            if (value.isIRI()) {
+                row.put(binding.getName(), genResponseField(QueryResource.URI_TYPE, value.stringValue(), null, null));
+            } else if (value.isBNode()) {
+                row.put(binding.getName(), genResponseField(BNODE_TYPE, value.stringValue(), null, null));
+            } else {
+                Literal literal = (Literal) value;
+                String lang = literal.getLanguage().orElse(null);
+                // Language tagged literals have no datatype in the JSON results
+                String dataType = lang == null ? literal.getDatatype().stringValue() : null;
+                row.put(binding.getName(),
+                        genResponseField(QueryResource.LITERAL_TYPE, literal.getLabel(), dataType, lang));
+            }
+        }
+        return new SparqlBinding(row, variables);
+    }
+
+    /**
+     * Reads the variables in the head section. The parser should be positioned at
+     * the start of the head object.
+     *
+     * @param parser The JSON parser.
+     */
+    private List<String> readVariables(JsonParser parser) {
+        List<String> variables = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_OBJECT) {
+            String headSection = parser.currentName();
+            parser.nextToken();
+            if (VARS_KEY.equals(headSection) && parser.currentToken() == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    variables.add(parser.getValueAsString());
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return variables;
+    }
+
+    /**
+     * Reads one row of the bindings. The parser should be positioned at the start
+     * of the row object.
+     *
+     * @param parser The JSON parser.
+     */
+    private Map<String, SparqlResponseField> readRow(JsonParser parser) {
+        Map<String, SparqlResponseField> row = new HashMap<>();
+        while (parser.nextToken() != JsonToken.END_OBJECT) {
+            String variable = parser.currentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String type = null;
+            String value = null;
+            String dataType = null;
+            String lang = null;
+            while (parser.nextToken() != JsonToken.END_OBJECT) {
+                String fieldKey = parser.currentName();
+                parser.nextToken();
+                switch (fieldKey) {
+                    case TYPE_KEY -> type = parser.getValueAsString();
+                    case VALUE_KEY -> value = parser.getValueAsString();
+                    case DATA_TYPE_KEY -> dataType = parser.getValueAsString();
+                    case LANGUAGE_KEY -> lang = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+            row.put(variable, genResponseField(type, value, dataType, lang));
+        }
+        return row;
+    }
+
+    /**
+     * Generates the response field with the same defaults as the tree-based
+     * parsing in SparqlBinding.
+     *
+     * @param type     Field value type.
+     * @param value    Field value.
+     * @param dataType Optional data type.
+     * @param lang     Optional language.
+     */
+    private static SparqlResponseField genResponseField(String type, String value, String dataType, String lang) {
+        String fieldType = type == null ? "" : type;
+        // Defaults to an empty string if it is a URI, else it should be string
+        String dataTypeDefaultOption = fieldType.equals(QueryResource.URI_TYPE) ? "" : ShaclResource.XSD_STRING;
+        return new SparqlResponseField(
+                fieldType,
+                value == null ? "" : value,
+                dataType == null ? dataTypeDefaultOption : dataType,
+                lang == null ? "" : lang);
+    }
+}
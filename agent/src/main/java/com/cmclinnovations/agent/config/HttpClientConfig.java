@@ -0,0 +1,81 @@
+package com.cmclinnovations.agent.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Configures the shared HTTP transport for all SPARQL query, update and JSON-LD
+ * traffic to the knowledge graph.
+ */
+@Configuration
+public class HttpClientConfig {
+    @Value("${SPARQL_POOL_MAX_TOTAL:100}")
+    private int maxTotalConnections;
+
+    @Value("${SPARQL_POOL_MAX_PER_ROUTE:20}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${SPARQL_CONNECT_TIMEOUT_SECONDS:10}")
+    private long connectTimeoutSeconds;
+
+    @Value("${SPARQL_READ_TIMEOUT_SECONDS:600}")
+    private long readTimeoutSeconds;
+
+    private static final long IDLE_CONNECTION_EVICTION_SECONDS = 60;
+
+    /**
+     * A connection pool bounded in total and for each endpoint host.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager sparqlConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(this.maxTotalConnections)
+                .setMaxConnPerRoute(this.maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofSeconds(this.connectTimeoutSeconds))
+                        .setSocketTimeout(Timeout.ofSeconds(this.readTimeoutSeconds))
+                        .build())
+                .build();
+    }
+
+    /**
+     * An HTTP client that keeps connections alive in the pool. Gzip and deflate
+     * responses are requested and decompressed by the client's default content
+     * compression.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient sparqlHttpClient(PoolingHttpClientConnectionManager sparqlConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(sparqlConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofSeconds(this.connectTimeoutSeconds))
+                        .setResponseTimeout(Timeout.ofSeconds(this.readTimeoutSeconds))
+                        .build())
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(IDLE_CONNECTION_EVICTION_SECONDS))
+                .build();
+    }
+
+    /**
+     * The REST client shared by all knowledge graph requests.
+     */
+    @Bean
+    public RestClient sparqlRestClient(CloseableHttpClient sparqlHttpClient) {
+        return RestClient.builder()
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(sparqlHttpClient))
+                .build();
+    }
+}
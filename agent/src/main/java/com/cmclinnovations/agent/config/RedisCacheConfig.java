@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.Duration;
@@ -17,10 +18,16 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.JacksonJsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import com.cmclinnovations.agent.component.cache.TwoTierCacheManager;
+import com.cmclinnovations.agent.component.checkpoint.JobCheckpointStore;
+import com.cmclinnovations.agent.component.checkpoint.RedisJobCheckpointStore;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 
@@ -34,10 +41,23 @@ public class RedisCacheConfig {
     @Value("${REDIS}")
     private String redisUrl;
 
+    @Value("${LOCAL_CACHE_MAX_SIZE:1000}")
+    private int localCacheMaxSize;
+
+    @Value("${LOCAL_CACHE_TTL_SECONDS:300}")
+    private long localCacheTtlSeconds;
+
+    @Value("${CRON_CHECKPOINT_TTL_HOURS:48}")
+    private long checkpointTtlHours;
+
     private static final String PASSWORD_SECRET = "/run/secrets/redis_password";
 
+    /**
+     * A cache manager with a bounded local cache in front of each Redis cache, so
+     * that repeated reads skip the network round trip and deserialisation.
+     */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
         PolymorphicTypeValidator ptv = BasicPolymorphicTypeValidator.builder()
                 .allowIfBaseType(Object.class)
                 .build();
@@ -65,9 +85,37 @@ public class RedisCacheConfig {
                         RedisSerializationContext.SerializationPair
                                 .fromSerializer(jacksonJsonRedisSerializer));
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
                 .build();
+        redisCacheManager.initializeCaches();
+        return new TwoTierCacheManager(redisCacheManager, new StringRedisTemplate(connectionFactory),
+                this.localCacheMaxSize, Duration.ofSeconds(this.localCacheTtlSeconds));
+    }
+
+    /**
+     * Listens for cache changes in other instances to invalidate the local cache.
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+            TwoTierCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cacheManager
+                        .handleInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    /**
+     * Persists the progress of scheduled jobs so that restarted runs resume where
+     * they stopped.
+     */
+    @Bean
+    public JobCheckpointStore jobCheckpointStore(RedisConnectionFactory connectionFactory) {
+        return new RedisJobCheckpointStore(new StringRedisTemplate(connectionFactory),
+                Duration.ofHours(this.checkpointTtlHours));
     }
 
     @Bean
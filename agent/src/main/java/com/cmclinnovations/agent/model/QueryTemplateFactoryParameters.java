@@ -18,27 +18,39 @@ public record QueryTemplateFactoryParameters(
     String addQueryStatements,
     List<ColumnMetaPayload> addColumns,
     String branchName,
-    Set<String> optVarNames) {
+    Set<String> optVarNames,
+    String shapeKey) {
 
   public QueryTemplateFactoryParameters(ObjectNode rootNode, String targetId) {
-    this(null, rootNode, new ArrayDeque<>(List.of(Arrays.asList(targetId))), null, null, null, null, null);
+    this(null, rootNode, new ArrayDeque<>(List.of(Arrays.asList(targetId))), null, null, null, null, null, null);
   }
 
   public QueryTemplateFactoryParameters(Queue<Queue<SparqlBinding>> bindings, Map<String, String> criterias) {
-    this(bindings, null, new ArrayDeque<>(), criterias, null, null, null, null);
+    this(bindings, null, new ArrayDeque<>(), criterias, null, null, null, null, null);
+  }
+
+  public QueryTemplateFactoryParameters(String shapeKey, Queue<Queue<SparqlBinding>> bindings,
+      Map<String, String> criterias) {
+    this(bindings, null, new ArrayDeque<>(), criterias, null, null, null, null, shapeKey);
   }
 
   public QueryTemplateFactoryParameters(Queue<Queue<SparqlBinding>> bindings, Queue<List<String>> targetIds,
       String addQueryStatements, List<ColumnMetaPayload> addColumns) {
-    this(bindings, null, targetIds, null, addQueryStatements, addColumns, null, null);
+    this(bindings, null, targetIds, null, addQueryStatements, addColumns, null, null, null);
+  }
+
+  public QueryTemplateFactoryParameters(String shapeKey, Queue<Queue<SparqlBinding>> bindings,
+      Queue<List<String>> targetIds, String addQueryStatements, List<ColumnMetaPayload> addColumns) {
+    this(bindings, null, targetIds, null, addQueryStatements, addColumns, null, null, shapeKey);
   }
 
   public QueryTemplateFactoryParameters(ObjectNode rootNode, String targetId, String branchName) {
-    this(null, rootNode, new ArrayDeque<>(List.of(Arrays.asList(targetId))), null, null, null, branchName, null);
+    this(null, rootNode, new ArrayDeque<>(List.of(Arrays.asList(targetId))), null, null, null, branchName, null, null);
   }
 
   public QueryTemplateFactoryParameters(ObjectNode rootNode, String targetId, String branchName,
       Set<String> optVarNames) {
-    this(null, rootNode, new ArrayDeque<>(List.of(Arrays.asList(targetId))), null, null, null, branchName, optVarNames);
+    this(null, rootNode, new ArrayDeque<>(List.of(Arrays.asList(targetId))), null, null, null, branchName, optVarNames,
+        null);
   }
 }
@@ -70,6 +70,19 @@ public class SparqlBinding {
     missingVariables.forEach(variable -> this.bindings.put(variable, null));
   }
 
+  /**
+   * Constructs a new model from fields that have already been parsed, such as
+   * those emitted by a streaming reader.
+   *
+   * @param fields    Mappings between each bound variable and its field.
+   * @param variables Expected variables to find.
+   */
+  public SparqlBinding(Map<String, SparqlResponseField> fields, List<String> variables) {
+    this();
+    this.bindings.putAll(fields);
+    variables.forEach(variable -> this.bindings.putIfAbsent(variable, null));
+  }
+
   /**
    * Retrieve the Bindings as a map object.
    * 
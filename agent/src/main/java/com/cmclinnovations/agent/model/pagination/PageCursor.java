@@ -0,0 +1,98 @@
+package com.cmclinnovations.agent.model.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.util.FmtUtils;
+import org.apache.jena.sparql.util.NodeFactoryExtra;
+
+import com.cmclinnovations.agent.component.LocalisationTranslator;
+import com.cmclinnovations.agent.model.SparqlBinding;
+import com.cmclinnovations.agent.model.SparqlResponseField;
+import com.cmclinnovations.agent.utils.LocalisationResource;
+import com.cmclinnovations.agent.utils.QueryResource;
+
+/**
+ * An opaque cursor pointing to the last row of a page, which holds the values
+ * of the sort fields of the row in their sort order. The next page is
+ * retrieved by filtering for the rows after these values instead of skipping
+ * all rows before the page.
+ *
+ * @param values The SPARQL terms of the sort field values, or null if the
+ *               field is unbound in the row.
+ */
+public record PageCursor(List<String> values) {
+    private static final String UNBOUND_VALUE = "UNDEF";
+    private static final String VALUE_SEPARATOR = "\n";
+
+    /**
+     * Generates the cursor to the row.
+     *
+     * @param row        The last row of the page.
+     * @param sortFields The sort fields in their sort order.
+     */
+    public static PageCursor of(SparqlBinding row, List<String> sortFields) {
+        List<String> values = new ArrayList<>();
+        for (String field : sortFields) {
+            SparqlResponseField fieldResponse = row.getFieldResponse(field);
+            values.add(fieldResponse == null ? null : FmtUtils.stringForNode(genNode(fieldResponse)));
+        }
+        return new PageCursor(values);
+    }
+
+    /**
+     * Parses the cursor from its encoded form. Each value must be a single RDF
+     * term, so that the cursor cannot inject other statements into the query.
+     *
+     * @param cursor The encoded cursor.
+     */
+    public static PageCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            List<String> values = new ArrayList<>();
+            for (String value : decoded.split(VALUE_SEPARATOR, -1)) {
+                values.add(value.equals(UNBOUND_VALUE) ? null
+                        : FmtUtils.stringForNode(NodeFactoryExtra.parseNode(value)));
+            }
+            return new PageCursor(values);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(
+                    LocalisationTranslator.getMessage(LocalisationResource.ERROR_INVALID_CURSOR_KEY), e);
+        }
+    }
+
+    /**
+     * Encodes the cursor into an opaque URL-safe string.
+     */
+    public String encode() {
+        String joined = String.join(VALUE_SEPARATOR, this.values.stream()
+                .map(value -> value == null ? UNBOUND_VALUE : value)
+                .toList());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Generates the RDF term of the field value.
+     *
+     * @param fieldResponse The field value in the query response.
+     */
+    private static Node genNode(SparqlResponseField fieldResponse) {
+        if (fieldResponse.type().equals(QueryResource.URI_TYPE)) {
+            return NodeFactory.createURI(fieldResponse.value());
+        }
+        if (fieldResponse.lang() != null && !fieldResponse.lang().isEmpty()) {
+            return NodeFactory.createLiteralLang(fieldResponse.value(), fieldResponse.lang());
+        }
+        if (fieldResponse.dataType() != null && !fieldResponse.dataType().isEmpty()) {
+            return NodeFactory.createLiteralDT(fieldResponse.value(),
+                    TypeMapper.getInstance().getSafeTypeByName(fieldResponse.dataType()));
+        }
+        return NodeFactory.createLiteralDT(fieldResponse.value(), XSDDatatype.XSDstring);
+    }
+}
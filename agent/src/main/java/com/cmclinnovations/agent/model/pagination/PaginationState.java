@@ -1,7 +1,9 @@
 package com.cmclinnovations.agent.model.pagination;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
@@ -12,7 +14,10 @@ import org.eclipse.rdf4j.sparqlbuilder.core.OrderCondition;
 import org.eclipse.rdf4j.sparqlbuilder.core.SparqlBuilder;
 import org.eclipse.rdf4j.sparqlbuilder.core.Variable;
 
+import com.cmclinnovations.agent.component.LocalisationTranslator;
+import com.cmclinnovations.agent.model.SparqlBinding;
 import com.cmclinnovations.agent.utils.LifecycleResource;
+import com.cmclinnovations.agent.utils.LocalisationResource;
 import com.cmclinnovations.agent.utils.QueryResource;
 import com.cmclinnovations.agent.utils.StringResource;
 
@@ -24,17 +29,42 @@ public class PaginationState {
     private final Set<String> sortedFields;
     private final Map<String, Set<String>> filters;
     private final Queue<SortDirective> sortedDirectives;
+    private final List<SortDirective> keysetDirectives;
+    private final boolean isKeyset;
+    private final PageCursor cursor;
+    private String nextCursor;
 
     // Overloaded method without isConstract
     public PaginationState(int pageIndex, Integer limit, String sortBy, Map<String, String> filters) {
         this(pageIndex, limit, sortBy, null, filters);
     }
 
+    // Overloaded method without cursor
     public PaginationState(int pageIndex, Integer limit, String sortBy, Boolean isContract,
             Map<String, String> filters) {
+        this(pageIndex, limit, sortBy, isContract, filters, null);
+    }
+
+    /**
+     * Constructs the pagination state. Pages are retrieved with keyset pagination
+     * instead of offsets if a cursor is given, which may be empty for the first
+     * page.
+     *
+     * @param pageIndex  The page index starting from 0. Ignored for keyset
+     *                   pagination.
+     * @param limit      The number of rows in a page.
+     * @param sortBy     The `sort_by` parameter string.
+     * @param isContract Indicates if it is a contract or task otherwise.
+     * @param filters    Mappings between filter fields and their values.
+     * @param cursor     Optional cursor returned with the previous page.
+     */
+    public PaginationState(int pageIndex, Integer limit, String sortBy, Boolean isContract,
+            Map<String, String> filters, String cursor) {
         this.limit = limit;
+        this.isKeyset = cursor != null;
+        this.cursor = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
         // Page index starts from 0
-        if (limit == null) {
+        if (limit == null || this.isKeyset) {
             this.offset = 0;
         } else {
             this.offset = pageIndex * limit;
@@ -45,6 +75,16 @@ public class PaginationState {
                 .map(match -> match.group(2))
                 .collect(Collectors.toCollection(HashSet::new));
         this.sortedDirectives = this.parseSortDirectives(sortBy, isContract);
+        this.keysetDirectives = new ArrayList<>(this.sortedDirectives);
+        // ID is always ordered last if not specified, and breaks any ties
+        if (this.keysetDirectives.stream()
+                .noneMatch(directive -> directive.field().getVarName().equals(QueryResource.ID_KEY))) {
+            this.keysetDirectives.add(new SortDirective(QueryResource.ID_VAR, SparqlBuilder.asc(QueryResource.ID_VAR)));
+        }
+        if (this.cursor != null && this.cursor.values().size() != this.keysetDirectives.size()) {
+            throw new IllegalArgumentException(
+                    LocalisationTranslator.getMessage(LocalisationResource.ERROR_INVALID_CURSOR_KEY));
+        }
         this.filters = StringResource.parseFilters(filters, isContract);
     }
 
@@ -68,6 +108,42 @@ public class PaginationState {
         return this.filters;
     }
 
+    /**
+     * Retrieves all sort directives in their order, including the ID tie-breaker.
+     * Unlike `getSortDirectives`, these are not consumed by the query templates.
+     */
+    public List<SortDirective> getKeysetDirectives() {
+        return this.keysetDirectives;
+    }
+
+    public boolean isKeyset() {
+        return this.isKeyset;
+    }
+
+    public PageCursor getCursor() {
+        return this.cursor;
+    }
+
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    /**
+     * Stores the cursor of the next page if the page is full, as a partial page
+     * must be the last page.
+     *
+     * @param lastRow  The last row of the page.
+     * @param rowCount The number of rows in the page.
+     */
+    public void setNextCursor(SparqlBinding lastRow, int rowCount) {
+        if (this.isKeyset && lastRow != null && this.limit != null && rowCount >= this.limit) {
+            this.nextCursor = PageCursor.of(lastRow, this.keysetDirectives.stream()
+                    .map(directive -> directive.field().getVarName())
+                    .toList())
+                    .encode();
+        }
+    }
+
     /**
      * Parses the sort directives from the 'sort_by' parameter.
      * 
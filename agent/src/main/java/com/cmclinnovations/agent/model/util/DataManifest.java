@@ -1,11 +1,21 @@
 package com.cmclinnovations.agent.model.util;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.cmclinnovations.agent.model.response.ColumnMetaPayload;
 
 /**
- * Stores the data and its associated column metadata
+ * Stores the data and its associated column metadata, along with the mappings
+ * of array variables grouped by their array group for any generated query.
  */
-public record DataManifest<T>(T data, List<ColumnMetaPayload> columns) {
+public record DataManifest<T>(T data, List<ColumnMetaPayload> columns, Map<String, Set<String>> arrayVariables) {
+    /**
+     * Stores the data and its associated column metadata without array variables.
+     */
+    public DataManifest(T data, List<ColumnMetaPayload> columns) {
+        this(data, columns, new HashMap<>());
+    }
 }
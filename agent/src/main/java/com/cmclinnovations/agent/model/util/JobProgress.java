@@ -0,0 +1,80 @@
+package com.cmclinnovations.agent.model.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the progress of a job processing a known number of items, which may
+ * be updated concurrently.
+ */
+public class JobProgress {
+    private final String name;
+    private final int total;
+    private final AtomicInteger completed;
+    private final AtomicInteger failed;
+    private final Instant startedAt;
+    private volatile Instant finishedAt;
+
+    /**
+     * Starts tracking a new job.
+     *
+     * @param name  The name of the job.
+     * @param total The number of items to process.
+     */
+    public JobProgress(String name, int total) {
+        this.name = name;
+        this.total = total;
+        this.completed = new AtomicInteger();
+        this.failed = new AtomicInteger();
+        this.startedAt = Instant.now();
+    }
+
+    /**
+     * Records the outcome of an item.
+     *
+     * @param success Indicates if the item has been processed successfully.
+     */
+    public void record(boolean success) {
+        this.completed.incrementAndGet();
+        if (!success) {
+            this.failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Marks the job as finished.
+     */
+    public void finish() {
+        this.finishedAt = Instant.now();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getFailed() {
+        return this.failed.get();
+    }
+
+    /**
+     * Generates a snapshot of the progress and throughput of the job.
+     */
+    public Map<String, Object> toMap() {
+        Instant end = this.finishedAt == null ? Instant.now() : this.finishedAt;
+        long elapsedMillis = Math.max(Duration.between(this.startedAt, end).toMillis(), 1);
+        int completedItems = this.completed.get();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("job", this.name);
+        snapshot.put("total", this.total);
+        snapshot.put("completed", completedItems);
+        snapshot.put("failed", this.failed.get());
+        snapshot.put("startedAt", this.startedAt.toString());
+        snapshot.put("finishedAt", this.finishedAt == null ? null : this.finishedAt.toString());
+        snapshot.put("elapsedSeconds", elapsedMillis / 1000.0);
+        snapshot.put("itemsPerSecond", completedItems * 1000.0 / elapsedMillis);
+        return snapshot;
+    }
+}
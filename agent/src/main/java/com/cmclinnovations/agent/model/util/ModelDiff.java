@@ -0,0 +1,121 @@
+package com.cmclinnovations.agent.model.util;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.util.ResourceUtils;
+
+/**
+ * The triples to remove and add to change the current state of an instance to
+ * its target state.
+ *
+ * @param deletions The triples to remove.
+ * @param additions The triples to add.
+ */
+public record ModelDiff(Model deletions, Model additions) {
+    /**
+     * Computes the difference between the current and target triples of an
+     * instance. Nodes that only exist in the target are first aligned with nodes
+     * in the current triples with the same properties and parent, so that unchanged
+     * array items regenerated with a new IRI are not rewritten. Neither model may
+     * contain blank nodes. The target model is modified by the alignment.
+     *
+     * @param current The current triples.
+     * @param target  The target triples.
+     */
+    public static ModelDiff compute(Model current, Model target) {
+        alignNewNodes(current, target);
+        return new ModelDiff(current.difference(target), target.difference(current));
+    }
+
+    /**
+     * Indicates if the model contains blank nodes, which cannot be diffed.
+     *
+     * @param model The target model.
+     */
+    public static boolean hasBlankNodes(Model model) {
+        return model.listStatements().toList().stream()
+                .anyMatch(statement -> statement.getSubject().isAnon() || statement.getObject().isAnon());
+    }
+
+    /**
+     * Indicates if there are no changes.
+     */
+    public boolean isEmpty() {
+        return this.deletions.isEmpty() && this.additions.isEmpty();
+    }
+
+    /**
+     * Retrieves the IRIs of the predicates of all changed triples.
+     */
+    public Set<String> getChangedPredicates() {
+        Set<String> predicates = new HashSet<>();
+        this.deletions.listStatements().forEachRemaining(statement -> predicates.add(statement.getPredicate().getURI()));
+        this.additions.listStatements().forEachRemaining(statement -> predicates.add(statement.getPredicate().getURI()));
+        return predicates;
+    }
+
+    /**
+     * Renames each subject that only exists in the target to the subject in the
+     * current triples with an identical signature. Renaming is repeated as long
+     * as new matches are found, since a renamed parent may allow its children to
+     * match.
+     *
+     * @param current The current triples.
+     * @param target  The target triples.
+     */
+    private static void alignNewNodes(Model current, Model target) {
+        boolean hasRenamed = true;
+        while (hasRenamed) {
+            hasRenamed = false;
+            Map<String, Queue<Resource>> currentOnlySubjects = new HashMap<>();
+            for (Resource subject : current.listSubjects().toList()) {
+                if (!target.containsResource(subject)) {
+                    currentOnlySubjects.computeIfAbsent(genSignature(current, subject), key -> new ArrayDeque<>())
+                            .offer(subject);
+                }
+            }
+            if (currentOnlySubjects.isEmpty()) {
+                return;
+            }
+            List<Resource> targetOnlySubjects = target.listSubjects()
+                    .filterDrop(current::containsResource)
+                    .toList();
+            for (Resource subject : targetOnlySubjects) {
+                Queue<Resource> matches = currentOnlySubjects.get(genSignature(target, subject));
+                if (matches != null && !matches.isEmpty()) {
+                    ResourceUtils.renameResource(subject, matches.poll().getURI());
+                    hasRenamed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates a signature of a node from its properties and the nodes linking
+     * to it, excluding its own IRI.
+     *
+     * @param model   The model containing the node.
+     * @param subject The target node.
+     */
+    private static String genSignature(Model model, Resource subject) {
+        Set<String> signature = new TreeSet<>();
+        for (Statement statement : model.listStatements(subject, null, (RDFNode) null).toList()) {
+            signature.add(statement.getPredicate() + " " + statement.getObject());
+        }
+        for (Statement statement : model.listStatements(null, null, subject).toList()) {
+            signature.add("^" + statement.getPredicate() + " " + statement.getSubject());
+        }
+        return String.join("\n", signature);
+    }
+}
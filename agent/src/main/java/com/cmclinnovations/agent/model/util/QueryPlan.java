@@ -0,0 +1,85 @@
+package com.cmclinnovations.agent.model.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.cmclinnovations.agent.model.response.ColumnMetaPayload;
+
+/**
+ * A query compiled once for a resource and rendered into text around slots for
+ * the statements that change between requests, such as the target IDs, filters
+ * and keyset conditions. Generating a query from the plan is a string fill
+ * instead of parsing the SHACL shapes and rendering the query again. Plans are
+ * immutable so that they can be shared across requests.
+ *
+ * @param segments       The query text between the slots.
+ * @param columns        The column metadata of the query results.
+ * @param arrayVariables Mappings of array variables grouped by groups.
+ */
+public record QueryPlan(List<String> segments, List<ColumnMetaPayload> columns,
+        Map<String, Set<String>> arrayVariables) {
+    /**
+     * The placeholder to render into the query where the statements are filled.
+     */
+    public static final String SLOT = "[query_plan_slot]";
+
+    public QueryPlan {
+        segments = List.copyOf(segments);
+        columns = List.copyOf(columns);
+        Map<String, Set<String>> immutableArrayVariables = new HashMap<>();
+        arrayVariables.forEach((key, value) -> immutableArrayVariables.put(key, Set.copyOf(value)));
+        arrayVariables = Collections.unmodifiableMap(immutableArrayVariables);
+    }
+
+    /**
+     * Compiles the plan from a query rendered with the slot.
+     *
+     * @param query The query text containing the slot.
+     */
+    public static QueryPlan of(String query) {
+        return of(new DataManifest<>(query, new ArrayList<>()));
+    }
+
+    /**
+     * Compiles the plan from a query rendered with the slot, along with its
+     * columns and array variables.
+     *
+     * @param manifest The manifest of the query text containing the slot.
+     */
+    public static QueryPlan of(DataManifest<String> manifest) {
+        return new QueryPlan(List.of(manifest.data().split(Pattern.quote(SLOT), -1)), manifest.columns(),
+                manifest.arrayVariables());
+    }
+
+    /**
+     * Generates the query with the statements filled into every slot. The columns
+     * of the manifest may be modified by the caller.
+     *
+     * @param statements The statements to fill.
+     */
+    public DataManifest<String> fill(String statements) {
+        return new DataManifest<>(String.join(statements, this.segments), new ArrayList<>(this.columns),
+                this.arrayVariables);
+    }
+
+    /**
+     * Generates the query with the statements filled into every slot, followed by
+     * the LIMIT and OFFSET modifiers.
+     *
+     * @param statements The statements to fill.
+     * @param limit      The maximum number of results, or null if there is none.
+     * @param offset     The number of results to skip.
+     */
+    public String fill(String statements, Integer limit, int offset) {
+        StringBuilder query = new StringBuilder(String.join(statements, this.segments));
+        if (limit != null) {
+            query.append("\nLIMIT ").append(limit);
+        }
+        return query.append("\nOFFSET ").append(offset).toString();
+    }
+}
@@ -0,0 +1,65 @@
+package com.cmclinnovations.agent.model.util;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+
+/**
+ * The SHACL rules of a resource for a rule type, with their SPARQL queries
+ * parsed once so that they can be reused across requests. The rules must be
+ * treated as read only.
+ *
+ * @param model          The model containing the SHACL rules.
+ * @param constructRules The SPARQL construct rules in order of execution.
+ * @param virtualRules   The SPARQL virtual rules.
+ */
+public record ShaclRuleSet(Model model, List<ConstructRule> constructRules, List<VirtualRule> virtualRules) {
+    /**
+     * Indicates if there are no SHACL rules.
+     */
+    public boolean isEmpty() {
+        return this.model.isEmpty();
+    }
+
+    /**
+     * Indicates if any construct rule queries one of the predicates, and may
+     * therefore infer different triples when they change.
+     *
+     * @param predicates The IRIs of the predicates.
+     */
+    public boolean hasConstructRuleFor(Collection<String> predicates) {
+        return this.constructRules.stream()
+                .anyMatch(rule -> rule.hasAnyPredicate() || predicates.stream().anyMatch(rule.predicates()::contains));
+    }
+
+    /**
+     * A parsed SPARQL construct rule.
+     *
+     * @param whereClause     The WHERE clause of the CONSTRUCT query without its
+     *                        closing brace.
+     * @param triples         The triples in the CONSTRUCT template.
+     * @param predicates      The IRIs of the predicates queried in the WHERE
+     *                        clause.
+     * @param hasAnyPredicate Indicates if the WHERE clause may query any
+     *                        predicate, such as with a variable predicate.
+     */
+    public record ConstructRule(String whereClause, List<Triple> triples, Set<String> predicates,
+            boolean hasAnyPredicate) {
+    }
+
+    /**
+     * A parsed SPARQL virtual rule.
+     *
+     * @param selectHead The SELECT query up to its WHERE clause.
+     * @param selectTail The SELECT query after the opening brace of its WHERE
+     *                   clause, or null if there is no WHERE clause.
+     * @param fieldQuery The SELECT query for the instance IDs with full IRIs, or
+     *                   null if the query cannot be parsed.
+     * @param variables  The variables returned by the query other than the ID.
+     */
+    public record VirtualRule(String selectHead, String selectTail, String fieldQuery, Set<String> variables) {
+    }
+}
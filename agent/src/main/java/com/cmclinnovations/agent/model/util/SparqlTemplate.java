@@ -0,0 +1,72 @@
+package com.cmclinnovations.agent.model.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable SPARQL template split at its placeholders, so that replacement
+ * values can be substituted positionally in a single pass without regex.
+ */
+public class SparqlTemplate {
+    private final String[] segments;
+    private final String placeholder;
+    private final int fixedLength;
+
+    private SparqlTemplate(String[] segments, String placeholder) {
+        this.segments = segments;
+        this.placeholder = placeholder;
+        int length = 0;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        this.fixedLength = length;
+    }
+
+    /**
+     * Compiles the template contents into the segments between each occurrence of
+     * the placeholder.
+     *
+     * @param contents    The template contents.
+     * @param placeholder The literal placeholder to substitute.
+     */
+    public static SparqlTemplate compile(String contents, String placeholder) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int index = contents.indexOf(placeholder);
+        while (index != -1) {
+            segments.add(contents.substring(start, index));
+            start = index + placeholder.length();
+            index = contents.indexOf(placeholder, start);
+        }
+        segments.add(contents.substring(start));
+        return new SparqlTemplate(segments.toArray(String[]::new), placeholder);
+    }
+
+    /**
+     * Substitutes the replacements into the placeholders in order. Placeholders
+     * without a replacement are retained as is, and excess replacements are
+     * ignored.
+     *
+     * @param replacements The replacement values in order of their positions.
+     */
+    public String fill(String... replacements) {
+        int length = this.fixedLength;
+        for (String replacement : replacements) {
+            length += replacement.length();
+        }
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(this.segments[0]);
+        for (int i = 1; i < this.segments.length; i++) {
+            builder.append(i <= replacements.length ? replacements[i - 1] : this.placeholder)
+                    .append(this.segments[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Retrieves the number of placeholders in this template.
+     */
+    public int getPlaceholderCount() {
+        return this.segments.length - 1;
+    }
+}
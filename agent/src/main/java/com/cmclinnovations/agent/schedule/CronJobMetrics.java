@@ -0,0 +1,43 @@
+package com.cmclinnovations.agent.schedule;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Component;
+
+import com.cmclinnovations.agent.model.util.JobProgress;
+
+@Component
+public class CronJobMetrics {
+  private final ConcurrentMap<String, JobProgress> latestRuns;
+
+  /**
+   * Constructs a new registry of the latest run of each cron job.
+   */
+  public CronJobMetrics() {
+    this.latestRuns = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Starts tracking a new run of the job, replacing its previous run.
+   * 
+   * @param jobName The name of the job.
+   * @param total   The number of items to process.
+   */
+  public JobProgress start(String jobName, int total) {
+    JobProgress progress = new JobProgress(jobName, total);
+    this.latestRuns.put(jobName, progress);
+    return progress;
+  }
+
+  /**
+   * Retrieves the progress and throughput of the latest run of each job.
+   */
+  public List<Map<String, Object>> getLatestRuns() {
+    return this.latestRuns.values().stream()
+        .map(JobProgress::toMap)
+        .toList();
+  }
+}
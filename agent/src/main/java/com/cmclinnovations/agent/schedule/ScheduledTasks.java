@@ -1,61 +1,124 @@
 package com.cmclinnovations.agent.schedule;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import com.cmclinnovations.agent.component.ParallelTaskExecutor;
+import com.cmclinnovations.agent.component.checkpoint.JobCheckpointStore;
+import com.cmclinnovations.agent.model.util.JobProgress;
 import com.cmclinnovations.agent.service.application.LifecycleContractService;
 import com.cmclinnovations.agent.service.application.LifecycleTaskService;
 import com.cmclinnovations.agent.service.core.AuthenticationService;
+import com.cmclinnovations.agent.service.core.DateTimeService;
 
 @Component
 @ConditionalOnProperty(name = "tasks.enabled", havingValue = "true", matchIfMissing = false)
 public class ScheduledTasks {
   private final AuthenticationService authService;
+  private final CronJobMetrics cronJobMetrics;
+  private final DateTimeService dateTimeService;
+  private final JobCheckpointStore checkpointStore;
   private final LifecycleContractService lifecycleContractService;
   private final LifecycleTaskService lifecycleTaskService;
+  private final int maxConcurrency;
 
+  private static final String ORDER_GENERATION_JOB = "order-generation";
+  private static final String CONTRACT_DISCHARGE_JOB = "contract-discharge";
   private static final Logger LOGGER = LogManager.getLogger(ScheduledTasks.class);
 
-  public ScheduledTasks(AuthenticationService authService, LifecycleContractService lifecycleService,
-      LifecycleTaskService lifecycleTaskService) {
+  public ScheduledTasks(AuthenticationService authService, CronJobMetrics cronJobMetrics,
+      DateTimeService dateTimeService, JobCheckpointStore checkpointStore, LifecycleContractService lifecycleService,
+      LifecycleTaskService lifecycleTaskService, @Value("${CRON_MAX_CONCURRENCY:8}") int maxConcurrency) {
     this.authService = authService;
+    this.cronJobMetrics = cronJobMetrics;
+    this.dateTimeService = dateTimeService;
+    this.checkpointStore = checkpointStore;
     this.lifecycleContractService = lifecycleService;
     this.lifecycleTaskService = lifecycleTaskService;
+    this.maxConcurrency = maxConcurrency;
   }
 
   @Scheduled(cron = "0 0 0 * * *")
   public void runDaily() {
     LOGGER.info("Performing daily cron job...");
     try {
-      this.genOrderActiveContracts();
-    } catch (Exception e) {
-      LOGGER.error("Failed to generate new active tasks in daily cron job", e);
-    }
+      this.authService.setInternalAuthentication();
+      try {
+        this.genOrderActiveContracts();
+      } catch (Exception e) {
+        LOGGER.error("Failed to generate new active tasks in daily cron job", e);
+      }
 
-    try {
-      this.dischargeExpiredContracts();
-    } catch (Exception e) {
-      LOGGER.error("Failed to discharge expired contracts in daily cron job", e);
+      try {
+        this.dischargeExpiredContracts();
+      } catch (Exception e) {
+        LOGGER.error("Failed to discharge expired contracts in daily cron job", e);
+      }
+    } finally {
+      SecurityContextHolder.clearContext();
     }
     LOGGER.info("Daily cron job has completed...");
   }
 
   private void genOrderActiveContracts() {
-    try {
-      this.authService.setInternalAuthentication();
-      this.lifecycleTaskService.genOrderActiveContracts();
-    } finally {
-      SecurityContextHolder.clearContext();
-    }
+    // Orders are checkpointed against the cutoff date as they are generated up to
+    // this date
+    String cutoffDate = this.lifecycleTaskService.getOrderGenerationCutoffDate();
+    Map<String, String> contractStartDates = this.lifecycleTaskService.getActiveContractsForOrders(cutoffDate);
+    this.skipProcessed(ORDER_GENERATION_JOB, cutoffDate, contractStartDates.keySet());
+    JobProgress progress = this.cronJobMetrics.start(ORDER_GENERATION_JOB, contractStartDates.size());
+    ParallelTaskExecutor.execBoundedTasks(contractStartDates.entrySet(), this.maxConcurrency, contract -> {
+      LOGGER.info("Generating orders for contract {}, starting from {}", contract.getKey(), contract.getValue());
+      boolean hasError = this.lifecycleTaskService.genOrderReceivedOccurrences(contract.getKey(),
+          contract.getValue());
+      if (!hasError) {
+        this.checkpointStore.markProcessed(ORDER_GENERATION_JOB, cutoffDate, contract.getKey());
+      }
+      return !hasError;
+    }, progress);
+    LOGGER.info("Generated orders for {} active contracts with {} failures", contractStartDates.size(),
+        progress.getFailed());
   }
 
   private void dischargeExpiredContracts() {
     LOGGER.info("Discharging the active contracts that have expired today...");
-    this.lifecycleContractService.dischargeExpiredContracts();
-    LOGGER.info("Scheduled task for service discharge has been completed successfully!");
+    String today = this.dateTimeService.getCurrentDate();
+    List<String> contracts = new ArrayList<>(this.lifecycleContractService.getExpiredActiveContracts());
+    this.skipProcessed(CONTRACT_DISCHARGE_JOB, today, contracts);
+    JobProgress progress = this.cronJobMetrics.start(CONTRACT_DISCHARGE_JOB, contracts.size());
+    ParallelTaskExecutor.execBoundedTasks(contracts, this.maxConcurrency, contract -> {
+      boolean success = this.lifecycleContractService.dischargeContract(contract);
+      if (success) {
+        this.checkpointStore.markProcessed(CONTRACT_DISCHARGE_JOB, today, contract);
+      }
+      return success;
+    }, progress);
+    LOGGER.info("Scheduled task for service discharge has been completed with {} failures!", progress.getFailed());
+  }
+
+  /**
+   * Removes the contracts that have been processed by an earlier attempt of the
+   * same run, so that a restarted job resumes where it stopped.
+   * 
+   * @param jobName   The name of the job.
+   * @param runKey    Identifies the run.
+   * @param contracts The contracts to be processed.
+   */
+  private void skipProcessed(String jobName, String runKey, Collection<String> contracts) {
+    Set<String> processed = this.checkpointStore.getProcessed(jobName, runKey);
+    if (!processed.isEmpty() && contracts.removeAll(processed)) {
+      LOGGER.info("Resuming {} for {}, skipping contracts that have been processed...", jobName, runKey);
+    }
   }
 }
@@ -1,26 +1,21 @@
 package com.cmclinnovations.agent.service;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.UUID;
 
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.riot.Lang;
-import org.apache.jena.riot.RDFFormat;
-import org.apache.jena.riot.RDFWriter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.eclipse.rdf4j.sparqlbuilder.rdf.Rdf;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.topbraid.shacl.rules.RuleUtil;
@@ -30,7 +25,11 @@ import com.cmclinnovations.agent.component.ResponseEntityBuilder;
 import com.cmclinnovations.agent.model.response.StandardApiResponse;
 import com.cmclinnovations.agent.model.type.ShaclRuleType;
 import com.cmclinnovations.agent.model.type.TrackActionType;
+import com.cmclinnovations.agent.model.util.ModelDiff;
+import com.cmclinnovations.agent.model.util.ShaclRuleSet;
+import com.cmclinnovations.agent.service.core.ChangelogRecorder;
 import com.cmclinnovations.agent.service.core.ChangelogService;
+import com.cmclinnovations.agent.service.core.CountCacheService;
 import com.cmclinnovations.agent.service.core.JsonLdService;
 import com.cmclinnovations.agent.service.core.KGService;
 import com.cmclinnovations.agent.service.core.QueryTemplateService;
@@ -45,26 +44,36 @@ import tools.jackson.databind.node.ObjectNode;
 
 @Service
 public class AddService {
+  private final ChangelogRecorder changelogRecorder;
   private final ChangelogService changelogService;
+  private final CountCacheService countCacheService;
   private final JsonLdService jsonLdService;
   private final KGService kgService;
   private final QueryTemplateService queryTemplateService;
   private final ResponseEntityBuilder responseEntityBuilder;
 
+  // Caps the size of each update when instantiating in bulk
+  private static final int MAX_TRIPLES_PER_UPDATE = 5000;
+  private static final int MAX_DELETES_PER_UPDATE = 100;
   private static final Logger LOGGER = LogManager.getLogger(AddService.class);
 
   /**
    * Constructs a new service with the following dependencies.
    * 
+   * @param changelogRecorder     Service to write changelogs in the background.
+   * @param changelogService      Service to track changes.
+   * @param countCacheService     Service caching the total instance counts.
    * @param jsonLdService         A service for interactions with JSON LD.
    * @param kgService             KG service for performing the query.
    * @param queryTemplateService  Service for generating query templates.
    * @param responseEntityBuilder A component to build the response entity.
    */
-  public AddService(ChangelogService changelogService, JsonLdService jsonLdService, KGService kgService,
-      QueryTemplateService queryTemplateService,
-      ResponseEntityBuilder responseEntityBuilder) {
+  public AddService(ChangelogRecorder changelogRecorder, ChangelogService changelogService,
+      CountCacheService countCacheService, JsonLdService jsonLdService, KGService kgService,
+      QueryTemplateService queryTemplateService, ResponseEntityBuilder responseEntityBuilder) {
+    this.changelogRecorder = changelogRecorder;
     this.changelogService = changelogService;
+    this.countCacheService = countCacheService;
     this.jsonLdService = jsonLdService;
     this.kgService = kgService;
     this.queryTemplateService = queryTemplateService;
@@ -112,16 +121,138 @@ public class AddService {
   public ResponseEntity<StandardApiResponse<?>> instantiate(String resourceID, String targetId,
       Map<String, Object> param, String successLogMessage, String messageResource, TrackActionType trackAction) {
     LOGGER.info("Instantiating an instance of {} ...", resourceID);
-    // Update ID value to target ID
-    param.put(QueryResource.ID_KEY, targetId);
-    // Retrieve the instantiation JSON schema
-    ObjectNode addJsonSchema = this.queryTemplateService.getJsonLdTemplate(resourceID);
+    ObjectNode addJsonSchema = this.genJsonLd(resourceID, targetId, param);
+    return this.instantiateJsonLd(addJsonSchema, resourceID, null, successLogMessage, messageResource, trackAction);
+  }
 
-    // Attempt to replace all placeholders in the JSON schema
-    this.recursiveReplacePlaceholders(addJsonSchema, null, null, param);
-    // Add the static ID reference
-    this.jsonLdService.appendId(addJsonSchema, targetId);
-    return this.instantiateJsonLd(addJsonSchema, resourceID, successLogMessage, messageResource, trackAction);
+  /**
+   * Replaces the target instance with a new instance following the input
+   * parameters. The existing instance is deleted and the new instance is
+   * inserted in a single update request.
+   * 
+   * @param resourceID        The target resource identifier for the instance.
+   * @param targetId          The target instance IRI.
+   * @param param             Request parameters.
+   * @param deleteQuery       The DELETE query for the existing instance.
+   * @param successLogMessage Optional log message on success.
+   * @param messageResource   Optional resource id of the message to be displayed
+   *                          when successful.
+   * @param trackAction       The action required for tracking.
+   */
+  public ResponseEntity<StandardApiResponse<?>> replace(String resourceID, String targetId,
+      Map<String, Object> param, String deleteQuery, String successLogMessage, String messageResource,
+      TrackActionType trackAction) {
+    LOGGER.info("Replacing the instance {} of {} ...", targetId, resourceID);
+    ObjectNode addJsonSchema = this.genJsonLd(resourceID, targetId, param);
+    return this.instantiateJsonLd(addJsonSchema, resourceID, deleteQuery, successLogMessage, messageResource,
+        trackAction);
+  }
+
+  /**
+   * Updates the target instance following the input parameters by only removing
+   * and adding the triples that differ from its current triples in a single
+   * update request. SHACL SPARQL rules are only executed if they query a changed
+   * property. The instance is replaced instead if its triples cannot be compared,
+   * such as when it does not exist or contains blank nodes.
+   * 
+   * @param resourceID        The target resource identifier for the instance.
+   * @param targetId          The target instance IRI.
+   * @param param             Request parameters.
+   * @param deleteQuery       The DELETE query for the existing instance.
+   * @param successLogMessage Optional log message on success.
+   * @param messageResource   Optional resource id of the message to be displayed
+   *                          when successful.
+   * @param trackAction       The action required for tracking.
+   */
+  public ResponseEntity<StandardApiResponse<?>> applyChanges(String resourceID, String targetId,
+      Map<String, Object> param, String deleteQuery, String successLogMessage, String messageResource,
+      TrackActionType trackAction) {
+    LOGGER.info("Updating the changed properties of {} for {} ...", resourceID, targetId);
+    ObjectNode addJsonSchema = this.genJsonLd(resourceID, targetId, param);
+    String instanceIri = addJsonSchema.path(ShaclResource.ID_KEY).asString();
+    Model currentModel = this.kgService.construct(this.queryTemplateService.genConstructQuery(deleteQuery));
+    Model targetModel = this.kgService.readStringModel(addJsonSchema.toString(), Lang.JSONLD);
+    if (currentModel.isEmpty() || ModelDiff.hasBlankNodes(currentModel) || ModelDiff.hasBlankNodes(targetModel)) {
+      LOGGER.info("Unable to compare the instance with its current triples! Replacing the instance instead...");
+      return this.instantiateJsonLd(addJsonSchema, resourceID, deleteQuery, successLogMessage, messageResource,
+          trackAction);
+    }
+
+    ModelDiff diff = ModelDiff.compute(currentModel, targetModel);
+    if (diff.isEmpty()) {
+      LOGGER.info("No changes detected for {}!", targetId);
+    } else {
+      LOGGER.debug("Removing {} and adding {} triples...", diff.deletions().size(), diff.additions().size());
+      Model additions = diff.additions();
+      ShaclRuleSet otherRules = this.kgService.getShaclRules(resourceID, ShaclRuleType.TRIPLE_RULE);
+      if (!otherRules.isEmpty()) {
+        LOGGER.info("Detected triple rules! Inferring instances...");
+        additions.add(RuleUtil.executeRules(targetModel, otherRules.model(), null, null));
+      }
+      if (trackAction != TrackActionType.IGNORED) {
+        additions.add(this.genActivityModel(instanceIri, trackAction));
+      }
+      int statusCode = this.kgService.update(diff.deletions(), additions);
+      if (statusCode != 200) {
+        LOGGER.warn("Failed to update triples with status code: {}", statusCode);
+        throw new IllegalStateException(LocalisationTranslator.getMessage(LocalisationResource.ERROR_ADD_KEY));
+      }
+      this.countCacheService.invalidate(resourceID);
+
+      ShaclRuleSet sparqlConstructRules = this.kgService.getShaclRules(resourceID, ShaclRuleType.SPARQL_RULE);
+      if (sparqlConstructRules.hasConstructRuleFor(diff.getChangedPredicates())) {
+        LOGGER.info("Detected SPARQL rules for the changed properties! Instantiating inferred instances...");
+        this.kgService.execShaclRules(sparqlConstructRules, Rdf.iri(instanceIri).getQueryString());
+      }
+    }
+
+    LOGGER.info(successLogMessage == null ? "Update is successful!" : successLogMessage);
+    return this.responseEntityBuilder.success(instanceIri,
+        LocalisationTranslator
+            .getMessage(messageResource == null ? LocalisationResource.SUCCESS_UPDATE_KEY : messageResource));
+  }
+
+  /**
+   * Instantiates a batch of instances of the same resource following the input
+   * parameters. ID field will default to a random UUID if no id parameter is
+   * sent. The instances, their inferred triples and changelogs are written in
+   * as few updates as possible, with each update capped in size, and the SHACL
+   * SPARQL rules are executed once for the whole batch. An instance is only
+   * reported as failed if its own JSON-LD cannot be generated or the update
+   * containing it is rejected.
+   * 
+   * @param resourceID  The target resource identifier for the instances.
+   * @param params      Request parameters for each instance.
+   * @param trackAction The action required for tracking.
+   * 
+   * @return the success status of each instance, mapped to its ID in input
+   *         order.
+   */
+  public Map<String, Boolean> instantiateAll(String resourceID, List<Map<String, Object>> params,
+      TrackActionType trackAction) {
+    LOGGER.info("Instantiating {} instances of {} ...", params.size(), resourceID);
+    return this.writeAll(resourceID, params, Map.of(), trackAction);
+  }
+
+  /**
+   * Replaces a batch of instances of the same resource following the input
+   * parameters, which must each contain an id parameter. The DELETE query of
+   * each instance is executed in the same update request as its insert, and
+   * updates are batched as with {@link #instantiateAll}.
+   * 
+   * @param resourceID    The target resource identifier for the instances.
+   * @param params        Request parameters for each instance.
+   * @param deleteQueries Mappings of each instance ID to the DELETE query for
+   *                      its existing instance.
+   * @param trackAction   The action required for tracking.
+   * 
+   * @return the success status of each instance, mapped to its ID in input
+   *         order.
+   */
+  public Map<String, Boolean> replaceAll(String resourceID, List<Map<String, Object>> params,
+      Map<String, String> deleteQueries, TrackActionType trackAction) {
+    LOGGER.info("Replacing {} instances of {} ...", params.size(), resourceID);
+    return this.writeAll(resourceID, params, deleteQueries, trackAction);
   }
 
   /**
@@ -131,7 +262,7 @@ public class AddService {
    * @param iri        The target instance IRI.
    */
   public void execSparqlConstructRules(String resourceID, String iri) {
-    Model sparqlConstructRules = this.kgService.getShaclRules(resourceID, ShaclRuleType.SPARQL_RULE);
+    ShaclRuleSet sparqlConstructRules = this.kgService.getShaclRules(resourceID, ShaclRuleType.SPARQL_RULE);
     if (!sparqlConstructRules.isEmpty()) {
       LOGGER.info("Detected SPARQL rules! Instantiating inferred instances to endpoint...");
       this.kgService.execShaclRules(sparqlConstructRules, Rdf.iri(iri).getQueryString());
@@ -139,71 +270,253 @@ public class AddService {
   }
 
   /**
-   * Logs the activity for the target instance.
+   * Executes SPARQL construct rules for a batch of instances.
+   * 
+   * @param resourceID The target resource identifier for the instances.
+   * @param iris       The target instance IRIs.
+   */
+  public void execSparqlConstructRules(String resourceID, List<String> iris) {
+    ShaclRuleSet sparqlConstructRules = this.kgService.getShaclRules(resourceID, ShaclRuleType.SPARQL_RULE);
+    if (!sparqlConstructRules.isEmpty()) {
+      LOGGER.info("Detected SPARQL rules! Instantiating inferred instances for {} instances to endpoint...",
+          iris.size());
+      this.kgService.execShaclRules(sparqlConstructRules,
+          iris.stream().map(iri -> Rdf.iri(iri).getQueryString()).toList());
+    }
+  }
+
+  /**
+   * Logs the activity for the target instance. The activity is recorded on the
+   * calling thread with its agent and timestamp, but written to the knowledge
+   * graph in the background.
    * 
    * @param iri         The target instance IRI.
    * @param trackAction The action required for tracking.
    */
   public void logActivity(String iri, TrackActionType trackAction) {
+    this.changelogRecorder.record(this.genActivityModel(iri, trackAction));
+  }
+
+  /**
+   * Generates the JSON-LD of the target instance from its template and the input
+   * parameters.
+   * 
+   * @param resourceID The target resource identifier for the instance.
+   * @param targetId   The target instance IRI.
+   * @param param      Request parameters.
+   */
+  private ObjectNode genJsonLd(String resourceID, String targetId, Map<String, Object> param) {
+    // Update ID value to target ID
+    param.put(QueryResource.ID_KEY, targetId);
+    // Retrieve the instantiation JSON schema
+    ObjectNode addJsonSchema = this.queryTemplateService.getJsonLdTemplate(resourceID);
+
+    // Attempt to replace all placeholders in the JSON schema
+    this.recursiveReplacePlaceholders(addJsonSchema, null, null, param);
+    // Add the static ID reference
+    this.jsonLdService.appendId(addJsonSchema, targetId);
+    return addJsonSchema;
+  }
+
+  /**
+   * Generates the changelog triples for the activity on the target instance,
+   * including the agent performing it if available. The agent profile is only
+   * included if it is not in the knowledge graph yet.
+   * 
+   * @param iri         The target instance IRI.
+   * @param trackAction The action required for tracking.
+   */
+  private Model genActivityModel(String iri, TrackActionType trackAction) {
+    Model activityModel = ModelFactory.createDefaultModel();
     Map<String, Object> agentDetails = this.changelogService.setAgent();
     Map<String, Object> actionDetails = this.changelogService.logAction(iri, trackAction);
     if (!agentDetails.isEmpty()) {
-      String agentId = this.instantiate(QueryResource.HISTORY_AGENT_RESOURCE, agentDetails, TrackActionType.IGNORED)
-          .getBody().data().id();
-      actionDetails.put(QueryResource.HISTORY_AGENT_RESOURCE, agentId);
+      String agentId = agentDetails.getOrDefault(QueryResource.ID_KEY, UUID.randomUUID()).toString();
+      ObjectNode agentJsonLd = this.genJsonLd(QueryResource.HISTORY_AGENT_RESOURCE, agentId, agentDetails);
+      String agentIri = agentJsonLd.path(ShaclResource.ID_KEY).asString();
+      // Only write the agent profile if it has not been persisted
+      if (this.changelogService.registerAgent(agentIri)) {
+        activityModel.add(this.kgService.readStringModel(agentJsonLd.toString(), Lang.JSONLD));
+      }
+      actionDetails.put(QueryResource.HISTORY_AGENT_RESOURCE, agentIri);
     }
-    this.instantiate(QueryResource.HISTORY_ACTIVITY_RESOURCE, actionDetails, TrackActionType.IGNORED);
+    ObjectNode activityJsonLd = this.genJsonLd(QueryResource.HISTORY_ACTIVITY_RESOURCE,
+        UUID.randomUUID().toString(), actionDetails);
+    activityModel.add(this.kgService.readStringModel(activityJsonLd.toString(), Lang.JSONLD));
+    return activityModel;
   }
 
   /**
-   * Instantiate an instance based on a jsonLD object.
+   * Instantiate an instance based on a jsonLD object. The instance, its triples
+   * inferred from SHACL triple rules, and its changelog are written in a single
+   * update, after the optional DELETE query. SHACL SPARQL rules are executed
+   * afterwards, as they query the knowledge graph including the new instance.
    * 
    * @param jsonLdSchema      The target json LD object to instantiate.
    * @param resourceID        The target resource identifier for the instance.
+   * @param deleteQuery       Optional DELETE query executed in the same update.
    * @param successLogMessage Optional log message on success.
    * @param messageResource   Optional resource id of the message to be displayed
    *                          when successful.
    * @param trackAction       The action required for tracking.
    */
   private ResponseEntity<StandardApiResponse<?>> instantiateJsonLd(JsonNode jsonLdSchema, String resourceID,
-      String successLogMessage, String messageResource, TrackActionType trackAction) {
+      String deleteQuery, String successLogMessage, String messageResource, TrackActionType trackAction) {
     LOGGER.info("Adding instance to endpoint...");
     String instanceIri = jsonLdSchema.path(ShaclResource.ID_KEY).asString();
-    String jsonString = jsonLdSchema.toString();
+    ShaclRuleSet otherRules = this.kgService.getShaclRules(resourceID, ShaclRuleType.TRIPLE_RULE);
+    this.insert(this.genInstanceModel(jsonLdSchema, instanceIri, otherRules, trackAction), deleteQuery);
+    this.countCacheService.invalidate(resourceID);
+    this.execSparqlConstructRules(resourceID, instanceIri);
 
-    ResponseEntity<String> response = this.kgService.add(jsonString);
+    LOGGER.info(successLogMessage == null ? "Instantiation is successful!" : successLogMessage);
+    return this.responseEntityBuilder.success(instanceIri,
+        LocalisationTranslator
+            .getMessage(messageResource == null ? LocalisationResource.SUCCESS_ADD_KEY : messageResource));
+  }
 
-    if (response.getStatusCode() != HttpStatus.OK) {
-      LOGGER.warn(response.getBody());
-      throw new IllegalStateException(LocalisationTranslator.getMessage(LocalisationResource.ERROR_ADD_KEY));
+  /**
+   * Writes a batch of instances of the same resource in as few updates as
+   * possible, with each update capped in size, and executes the SHACL SPARQL
+   * rules once for all written instances.
+   * 
+   * @param resourceID    The target resource identifier for the instances.
+   * @param params        Request parameters for each instance.
+   * @param deleteQueries Mappings of instance IDs to the DELETE query executed
+   *                      before its insert. Instances without a mapping are only
+   *                      inserted.
+   * @param trackAction   The action required for tracking.
+   */
+  private Map<String, Boolean> writeAll(String resourceID, List<Map<String, Object>> params,
+      Map<String, String> deleteQueries, TrackActionType trackAction) {
+    Map<String, Boolean> results = new LinkedHashMap<>();
+    ShaclRuleSet otherRules = this.kgService.getShaclRules(resourceID, ShaclRuleType.TRIPLE_RULE);
+    List<String> batchIds = new ArrayList<>();
+    List<String> batchDeletes = new ArrayList<>();
+    List<String> successfulIris = new ArrayList<>();
+    Map<String, String> instanceIris = new HashMap<>();
+    Model batchModel = ModelFactory.createDefaultModel();
+    for (Map<String, Object> param : params) {
+      String id = param.getOrDefault(QueryResource.ID_KEY, UUID.randomUUID()).toString();
+      try {
+        ObjectNode addJsonSchema = this.genJsonLd(resourceID, id, param);
+        String instanceIri = addJsonSchema.path(ShaclResource.ID_KEY).asString();
+        batchModel.add(this.genInstanceModel(addJsonSchema, instanceIri, otherRules, trackAction));
+        instanceIris.put(id, instanceIri);
+        batchIds.add(id);
+        results.put(id, true);
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        LOGGER.error("Unable to generate the instance {}: {}", id, e.getMessage());
+        results.put(id, false);
+        continue;
+      }
+      String deleteQuery = deleteQueries.get(id);
+      if (deleteQuery != null) {
+        batchDeletes.add(deleteQuery);
+      }
+      if (batchModel.size() >= MAX_TRIPLES_PER_UPDATE || batchDeletes.size() >= MAX_DELETES_PER_UPDATE) {
+        this.insertBatch(batchModel, batchIds, batchDeletes, instanceIris, successfulIris, results);
+        batchModel = ModelFactory.createDefaultModel();
+      }
     }
-    this.execSparqlConstructRules(resourceID, instanceIri);
+    if (!batchModel.isEmpty()) {
+      this.insertBatch(batchModel, batchIds, batchDeletes, instanceIris, successfulIris, results);
+    }
+    if (!successfulIris.isEmpty()) {
+      this.countCacheService.invalidate(resourceID);
+      this.execSparqlConstructRules(resourceID, successfulIris);
+    }
+    return results;
+  }
 
-    Model otherRules = this.kgService.getShaclRules(resourceID, ShaclRuleType.TRIPLE_RULE);
+  /**
+   * Generates the triples to be written for an instance, including the triples
+   * inferred from SHACL triple rules and its changelog if tracked.
+   * 
+   * @param jsonLdSchema The json LD object of the instance.
+   * @param instanceIri  The instance IRI.
+   * @param otherRules   The SHACL triple rules of the resource.
+   * @param trackAction  The action required for tracking.
+   */
+  private Model genInstanceModel(JsonNode jsonLdSchema, String instanceIri, ShaclRuleSet otherRules,
+      TrackActionType trackAction) {
+    Model writeModel = this.kgService.readStringModel(jsonLdSchema.toString(), Lang.JSONLD);
     if (!otherRules.isEmpty()) {
-      LOGGER.info("Detected triple rules! Instantiating inferred instances to endpoint...");
-
-      Model dataModel = this.kgService.readStringModel(jsonString, Lang.JSONLD);
-      Model inferredData = RuleUtil.executeRules(dataModel, otherRules, null, null);
-      try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-        RDFWriter.create()
-            .source(inferredData)
-            .format(RDFFormat.JSONLD)
-            .output(out);
-        String stringifiedInferredData = out.toString(StandardCharsets.UTF_8);
-        response = this.kgService.add(stringifiedInferredData);
-      } catch (IOException e) {
-        throw new UncheckedIOException(e);
-      }
+      LOGGER.info("Detected triple rules! Inferring instances...");
+      Model inferredData = RuleUtil.executeRules(writeModel, otherRules.model(), null, null);
+      writeModel.add(inferredData);
     }
-
-    LOGGER.info(successLogMessage == null ? "Instantiation is successful!" : successLogMessage);
     if (trackAction != TrackActionType.IGNORED) {
-      this.logActivity(instanceIri, trackAction);
+      writeModel.add(this.genActivityModel(instanceIri, trackAction));
     }
-    return this.responseEntityBuilder.success(instanceIri,
-        LocalisationTranslator
-            .getMessage(messageResource == null ? LocalisationResource.SUCCESS_ADD_KEY : messageResource));
+    return writeModel;
+  }
+
+  /**
+   * Inserts a batch of instances in a single update, and records the outcome for
+   * each instance in the batch. The batch IDs and DELETE queries are cleared
+   * afterwards.
+   * 
+   * @param batchModel     The triples of all instances in the batch.
+   * @param batchIds       The IDs of the instances in the batch.
+   * @param batchDeletes   The DELETE queries executed before the insert.
+   * @param instanceIris   Mappings of each instance ID to its IRI.
+   * @param successfulIris Stores the IRIs of successfully inserted instances.
+   * @param results        Stores the success status of each instance.
+   */
+  private void insertBatch(Model batchModel, List<String> batchIds, List<String> batchDeletes,
+      Map<String, String> instanceIris, List<String> successfulIris, Map<String, Boolean> results) {
+    LOGGER.info("Adding {} instances to endpoint...", batchIds.size());
+    int statusCode = this.execInsert(batchModel,
+        batchDeletes.isEmpty() ? null : String.join(";\n", batchDeletes));
+    if (statusCode == 200) {
+      batchIds.forEach(id -> successfulIris.add(instanceIris.get(id)));
+    } else {
+      LOGGER.warn("Failed to insert a batch of {} instances with status code: {}", batchIds.size(), statusCode);
+      batchIds.forEach(id -> results.put(id, false));
+    }
+    batchIds.clear();
+    batchDeletes.clear();
+  }
+
+  /**
+   * Inserts all triples of the model into the knowledge graph.
+   * 
+   * @param model           The triples to insert.
+   * @param precedingUpdate Optional update executed in the same request before
+   *                        the insert.
+   */
+  private void insert(Model model, String precedingUpdate) {
+    int statusCode = this.execInsert(model, precedingUpdate);
+    if (statusCode != 200) {
+      LOGGER.warn("Failed to insert triples with status code: {}", statusCode);
+      throw new IllegalStateException(LocalisationTranslator.getMessage(LocalisationResource.ERROR_ADD_KEY));
+    }
+  }
+
+  /**
+   * Executes the insert of all triples of the model, and evicts the agents whose
+   * profiles are in the model if it fails, so that their profiles are written
+   * again by later activities.
+   * 
+   * @param model           The triples to insert.
+   * @param precedingUpdate Optional update executed in the same request before
+   *                        the insert.
+   * 
+   * @return the status code.
+   */
+  private int execInsert(Model model, String precedingUpdate) {
+    int statusCode;
+    try {
+      statusCode = this.kgService.insert(model, precedingUpdate);
+    } catch (RuntimeException e) {
+      this.changelogService.evictAgents(model);
+      throw e;
+    }
+    if (statusCode != 200) {
+      this.changelogService.evictAgents(model);
+    }
+    return statusCode;
   }
 
   /**
@@ -13,12 +13,14 @@ import com.cmclinnovations.agent.component.ResponseEntityBuilder;
 import com.cmclinnovations.agent.model.SparqlBinding;
 import com.cmclinnovations.agent.model.response.StandardApiResponse;
 import com.cmclinnovations.agent.model.type.LifecycleEventType;
+import com.cmclinnovations.agent.service.core.CountCacheService;
 import com.cmclinnovations.agent.service.core.KGService;
 import com.cmclinnovations.agent.service.core.QueryTemplateService;
 import com.cmclinnovations.agent.utils.QueryResource;
 
 @Service
 public class DeleteService {
+  private final CountCacheService countCacheService;
   private final KGService kgService;
   private final GetService getService;
   private final ResponseEntityBuilder responseEntityBuilder;
@@ -30,11 +32,13 @@ public class DeleteService {
   /**
    * Constructs a new service with the following dependencies.
    * 
+   * @param countCacheService    Service caching the total instance counts.
    * @param kgService            KG service for performing the query.
    * @param queryTemplateService Service for generating query templates.
    */
-  public DeleteService(KGService kgService, GetService getService,
+  public DeleteService(CountCacheService countCacheService, KGService kgService, GetService getService,
       ResponseEntityBuilder responseEntityBuilder, QueryTemplateService queryTemplateService) {
+    this.countCacheService = countCacheService;
     this.kgService = kgService;
     this.getService = getService;
     this.responseEntityBuilder = responseEntityBuilder;
@@ -50,11 +54,25 @@ public class DeleteService {
    */
   public ResponseEntity<StandardApiResponse<?>> delete(String resourceID, String targetId, String branchName) {
     LOGGER.debug("Deleting {} instance of {}", resourceID, targetId);
+    String query = this.genDeleteQuery(resourceID, targetId, branchName);
+    ResponseEntity<StandardApiResponse<?>> response = this.kgService.delete(query, targetId);
+    this.countCacheService.invalidate(resourceID);
+    return response;
+  }
+
+  /**
+   * Generates the DELETE query for the instance associated with the target
+   * identifier without executing it.
+   * 
+   * @param resourceID The target resource identifier for the instance.
+   * @param targetId   The target instance IRI.
+   * @param branchName The branch name to filter (can be null).
+   */
+  public String genDeleteQuery(String resourceID, String targetId, String branchName) {
     // Query for optional parameters
     Set<String> optVarNames = this.kgService.getSparqlOptionalParameters(resourceID);
     // Generate query with branch validation
-    String query = this.queryTemplateService.genDeleteQuery(resourceID, targetId, branchName, optVarNames);
-    return this.kgService.delete(query, targetId);
+    return this.queryTemplateService.genDeleteQuery(resourceID, targetId, branchName, optVarNames);
   }
 
   /**
@@ -71,7 +89,9 @@ public class DeleteService {
     Set<String> optVarNames = this.kgService.getSparqlOptionalParameters(resourceID);
     String query = this.queryTemplateService.genDeleteLifecycleOccurrenceQuery(
         resourceID, targetId, null, optVarNames, eventType.getEvent());
-    return this.kgService.delete(query, targetId);
+    ResponseEntity<StandardApiResponse<?>> response = this.kgService.delete(query, targetId);
+    this.countCacheService.invalidate(resourceID);
+    return response;
   }
 
   /**
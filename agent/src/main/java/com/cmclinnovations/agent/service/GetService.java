@@ -3,6 +3,7 @@ package com.cmclinnovations.agent.service;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -14,10 +15,12 @@ import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.eclipse.rdf4j.common.exception.RDF4JException;
 import org.eclipse.rdf4j.sparqlbuilder.core.query.SelectQuery;
 import org.eclipse.rdf4j.sparqlbuilder.graphpattern.GraphPattern;
 import org.eclipse.rdf4j.sparqlbuilder.graphpattern.GraphPatterns;
 import org.eclipse.rdf4j.sparqlbuilder.rdf.Rdf;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -28,14 +31,19 @@ import com.cmclinnovations.agent.component.ResponseEntityBuilder;
 import com.cmclinnovations.agent.model.SparqlBinding;
 import com.cmclinnovations.agent.model.SparqlResponseField;
 import com.cmclinnovations.agent.model.pagination.PaginationState;
+import com.cmclinnovations.agent.model.pagination.SortDirective;
 import com.cmclinnovations.agent.model.response.ColumnMetaPayload;
 import com.cmclinnovations.agent.model.response.SelectOption;
 import com.cmclinnovations.agent.model.response.StandardApiResponse;
 import com.cmclinnovations.agent.model.type.LifecycleEventType;
+import com.cmclinnovations.agent.model.type.ShaclRuleType;
 import com.cmclinnovations.agent.model.type.SparqlEndpointType;
 import com.cmclinnovations.agent.model.type.TrackActionType;
 import com.cmclinnovations.agent.model.util.DataManifest;
+import com.cmclinnovations.agent.model.util.QueryPlan;
+import com.cmclinnovations.agent.service.core.CountCacheService;
 import com.cmclinnovations.agent.service.core.KGService;
+import com.cmclinnovations.agent.service.core.QueryPlanCacheService;
 import com.cmclinnovations.agent.service.core.QueryTemplateService;
 import com.cmclinnovations.agent.utils.BillingResource;
 import com.cmclinnovations.agent.utils.LocalisationResource;
@@ -44,13 +52,15 @@ import com.cmclinnovations.agent.utils.ShaclResource;
 import com.cmclinnovations.agent.utils.StringResource;
 import com.cmclinnovations.agent.utils.TypeCastUtils;
 
-import tools.jackson.databind.node.ArrayNode;
 
 @Service
 public class GetService {
+  private final CountCacheService countCacheService;
   private final KGService kgService;
+  private final QueryPlanCacheService queryPlanCacheService;
   private final QueryTemplateService queryTemplateService;
   private final ResponseEntityBuilder responseEntityBuilder;
+  private final boolean isSinglePageQueryEnabled;
 
   private static final String SUCCESSFUL_REQUEST_MSG = "Request has been completed successfully!";
   private static final String GET_FORM_LOG_MSG = "Retrieving the form template for {}...";
@@ -59,15 +69,24 @@ public class GetService {
   /**
    * Constructs a new service with the following dependencies.
    * 
-   * @param kgService             KG service for performing the query.
-   * @param queryTemplateService  Service for generating query templates.
-   * @param responseEntityBuilder A component to build the response entity.
+   * @param countCacheService        Service caching the total instance counts.
+   * @param kgService                KG service for performing the query.
+   * @param queryPlanCacheService    Service caching the compiled queries.
+   * @param queryTemplateService     Service for generating query templates.
+   * @param responseEntityBuilder    A component to build the response entity.
+   * @param isSinglePageQueryEnabled Indicates if a page of instances should be
+   *                                 retrieved in a single query where possible.
    */
-  public GetService(KGService kgService, QueryTemplateService queryTemplateService,
-      ResponseEntityBuilder responseEntityBuilder) {
+  public GetService(CountCacheService countCacheService, KGService kgService,
+      QueryPlanCacheService queryPlanCacheService, QueryTemplateService queryTemplateService,
+      ResponseEntityBuilder responseEntityBuilder,
+      @Value("${SINGLE_PAGE_QUERY_ENABLED:true}") boolean isSinglePageQueryEnabled) {
+    this.countCacheService = countCacheService;
     this.kgService = kgService;
+    this.queryPlanCacheService = queryPlanCacheService;
     this.queryTemplateService = queryTemplateService;
     this.responseEntityBuilder = responseEntityBuilder;
+    this.isSinglePageQueryEnabled = isSinglePageQueryEnabled;
   }
 
   /**
@@ -99,7 +118,8 @@ public class GetService {
             Map.Entry::getValue));
     Queue<Queue<SparqlBinding>> nestedVariablesAndPropertyPaths = this.kgService
         .getSparqlQueryConstructionParameters(iri, false);
-    String searchQuery = this.queryTemplateService.genSearchQuery(nestedVariablesAndPropertyPaths, parsedCriterias);
+    String searchQuery = this.queryTemplateService.genSearchQuery(iri, nestedVariablesAndPropertyPaths,
+        parsedCriterias);
     // Query for direct instances
     Queue<SparqlBinding> results = this.kgService.query(searchQuery, SparqlEndpointType.MIXED);
     LOGGER.info(SUCCESSFUL_REQUEST_MSG);
@@ -228,6 +248,17 @@ public class GetService {
     return this.getCount(resourceID, "", "", filters, null);
   }
 
+  /**
+   * Retrieves the total number of instances belonging to the resource without
+   * any filters. The count is cached until the next write.
+   * 
+   * @param resourceID Target resource identifier for the instance class.
+   */
+  public int getTotalCount(String resourceID) {
+    return this.countCacheService.getCount(resourceID, "",
+        () -> this.getCount(resourceID, new HashMap<>()));
+  }
+
   /**
    * Retrieves the number of instances belonging to the resource.
    * 
@@ -239,9 +270,18 @@ public class GetService {
    */
   public int getCount(String resourceID, String addStatements, String addSortedBy, Map<String, String> filters,
       Boolean isContract) {
-    Queue<List<String>> ids = this.getAllIds(resourceID, addStatements,
-        new PaginationState(0, null, "-id" + addSortedBy, isContract, filters));
-    return ids.size();
+    LOGGER.info("Retrieving the number of instances...");
+    PaginationState pagination = new PaginationState(0, null, "-id" + addSortedBy, isContract, filters);
+    String iri = this.queryTemplateService.getIri(resourceID);
+    addStatements += this.getQueryStatementsForTargetFields(resourceID, iri, pagination.getSortedFields(),
+        pagination.getFilters());
+    SelectQuery countQueryObj = this.queryTemplateService.getCountInstancesQueryTemplate(iri, pagination);
+    String countQuery = this.queryTemplateService.addStringStatements(countQueryObj, addStatements);
+    SparqlBinding result = this.kgService.query(countQuery, SparqlEndpointType.MIXED).poll();
+    if (result == null) {
+      return 0;
+    }
+    return Integer.parseInt(result.getFieldValue(QueryResource.COUNT_KEY, "0"));
   }
 
   /**
@@ -252,22 +292,48 @@ public class GetService {
    * @param pagination    Optional state containing the current page and limit.
    */
   public Queue<List<String>> getAllIds(String resourceID, String addStatements, PaginationState pagination) {
-    LOGGER.info("Retrieving all ids...");
-    String iri = this.queryTemplateService.getIri(resourceID);
-    addStatements += this.getQueryStatementsForTargetFields(resourceID, iri, pagination.getSortedFields(),
-        pagination.getFilters());
-    SelectQuery allInstancesQueryObj = this.queryTemplateService.getAllInstancesQueryTemplate(iri, pagination, true,
-        false);
-    String allInstancesQuery = this.queryTemplateService.addStringStatements(allInstancesQueryObj, addStatements);
-    return this.kgService.query(allInstancesQuery, SparqlEndpointType.MIXED).stream()
-        .map(binding -> {
-          String eventIdVar = QueryResource.EVENT_ID_VAR.getVarName();
-          if (binding.containsField(eventIdVar)) {
-            return List.of(binding.getFieldValue(QueryResource.ID_KEY), binding.getFieldValue(eventIdVar));
-          }
-          return List.of(binding.getFieldValue(QueryResource.ID_KEY));
-        })
-        .collect(Collectors.toCollection(ArrayDeque::new));
+    return this.queryIds(this.genAllIdsQuery(resourceID, addStatements, pagination), pagination);
+  }
+
+  /**
+   * Retrieve a page of the target instances and their information. By default,
+   * the IDs of the page are retrieved in a sub-query, so that the page is
+   * retrieved in a single query in its sort order. The IDs are queried first
+   * instead if single page queries are disabled, the page is sorted by event IDs,
+   * virtual rules must be executed with the IDs, or the single query fails. Keyset
+   * pagination also queries the IDs first, as the cursor to the next page is read
+   * from the last ID row.
+   * 
+   * @param resourceID         The target resource identifier for the instance
+   *                           class.
+   * @param requireLabel       Indicates if labels should be returned for all
+   *                           the fields that are IRIs.
+   * @param addIdStatements    Additional query statements to be added to the ID
+   *                           query.
+   * @param addQueryStatements Additional query statements to be added to the
+   *                           instance query.
+   * @param pagination         State containing the current page, limit, sort
+   *                           fields and filters.
+   * @param addColumns         Optional additional columns to be included in the
+   *                           results.
+   */
+  public DataManifest<Queue<SparqlBinding>> getInstancePage(String resourceID, boolean requireLabel,
+      String addIdStatements, String addQueryStatements, PaginationState pagination,
+      List<ColumnMetaPayload> addColumns) {
+    // Directives are copied, as the query templates may consume them
+    List<SortDirective> sortDirectives = new ArrayList<>(pagination.getSortDirectives());
+    String idQuery = this.genAllIdsQuery(resourceID, addIdStatements, pagination);
+    if (this.isSinglePageQueryEnabled && !pagination.isKeyset()
+        && this.canQueryPageAtOnce(resourceID, requireLabel, sortDirectives)) {
+      try {
+        return this.execGetInstancePage(resourceID, requireLabel, idQuery, sortDirectives, addQueryStatements,
+            addColumns);
+      } catch (RDF4JException e) {
+        LOGGER.warn("Unable to retrieve the page in a single query! Retrieving its IDs first...", e);
+      }
+    }
+    return this.execGetInstancesWithVirtualResults(resourceID, requireLabel, this.queryIds(idQuery, pagination),
+        addQueryStatements, addColumns);
   }
 
   /**
@@ -283,8 +349,8 @@ public class GetService {
   public List<String> getAllFilterOptionsAsStrings(String resourceID, String field, String addStatements,
       String search, Map<String, Set<String>> filters) {
     return this
-        .queryFilterOptions(resourceID, field, null, addStatements, "", search, 0,
-            QueryResource.PAGINATION_DEFAULT_LIMIT,
+        .queryFilterOptions(resourceID, field, null, addStatements, "", search,
+            this.genFilterOptionsPagination(field, null, 0, QueryResource.PAGINATION_DEFAULT_LIMIT, null),
             filters, field.equals(QueryResource.ID_KEY), false)
         .stream()
         .map(binding -> binding.getFieldValue(field))
@@ -301,8 +367,10 @@ public class GetService {
    */
   public List<SelectOption> getAllFilterOptions(String resourceID, String search, Map<String, Set<String>> filters) {
     return this
-        .queryFilterOptions(resourceID, ShaclResource.NAME_PROPERTY, null, "", "", search, 0,
-            QueryResource.PAGINATION_DEFAULT_LIMIT, filters, false, true)
+        .queryFilterOptions(resourceID, ShaclResource.NAME_PROPERTY, null, "", "", search,
+            this.genFilterOptionsPagination(ShaclResource.NAME_PROPERTY, null, 0,
+                QueryResource.PAGINATION_DEFAULT_LIMIT, null),
+            filters, false, true)
         .stream()
         .map(binding -> new SelectOption(binding.getFieldValue(ShaclResource.NAME_PROPERTY),
             binding.getFieldValue(QueryResource.IRI_KEY), ""))
@@ -323,10 +391,42 @@ public class GetService {
    */
   public List<SelectOption> getAllFilterOptions(String resourceID, String search, String parent,
       String addStatements, String addVar, int pageIndex, Integer limit) {
-    return this
-        .queryFilterOptions(resourceID, ShaclResource.NAME_PROPERTY, parent, addStatements, addVar, search, pageIndex,
-            limit, new HashMap<>(), false, true)
-        .stream()
+    return this.parseSelectOptions(this.queryFilterOptions(resourceID, ShaclResource.NAME_PROPERTY, parent,
+        addStatements, addVar, search,
+        this.genFilterOptionsPagination(ShaclResource.NAME_PROPERTY, parent, pageIndex, limit, null),
+        new HashMap<>(), false, true), parent);
+  }
+
+  /**
+   * Retrieve a page of options with names and their IDs after the cursor, which
+   * is returned with the cursor to the next page. Unlike page indices, the cursor
+   * does not skip the options before the page, and remains stable if options are
+   * added or removed between pages.
+   * 
+   * @param resourceID    Target resource identifier for the instance class.
+   * @param parent        Optional parent field if this is a dependent field.
+   * @param addStatements Additional query statements to be added if any.
+   * @param cursor        The cursor returned with the previous page, or an
+   *                      empty string for the first page.
+   * @param limit         The limit of options to retrieve.
+   */
+  public ResponseEntity<StandardApiResponse<?>> getFilterOptionsPage(String resourceID, String parent,
+      String addStatements, String cursor, Integer limit) {
+    PaginationState pagination = this.genFilterOptionsPagination(ShaclResource.NAME_PROPERTY, parent, 0, limit,
+        cursor);
+    Queue<SparqlBinding> results = this.queryFilterOptions(resourceID, ShaclResource.NAME_PROPERTY, parent,
+        addStatements, "", "", pagination, new HashMap<>(), true, true);
+    return this.responseEntityBuilder.successPage(this.parseSelectOptions(results, parent), pagination.getNextCursor());
+  }
+
+  /**
+   * Parses the filter option results into options with names and their IDs.
+   * 
+   * @param results The filter option results.
+   * @param parent  Optional parent field if this is a dependent field.
+   */
+  private List<SelectOption> parseSelectOptions(Queue<SparqlBinding> results, String parent) {
+    return results.stream()
         .map(binding -> {
           String parentVal = parent != null && binding.containsField(parent) ? binding.getFieldValue(parent) : "";
           if (binding.containsField(BillingResource.FLAG_KEY)) {
@@ -352,14 +452,14 @@ public class GetService {
    * @param addStatements Additional query statements to be added if any.
    * @param addVar        One additional query variable to be added if any.
    * @param search        String subset to narrow filter scope.
-   * @param pageIndex     Current page index acting as a pagination cursor.
-   * @param limit         The limit of options to retrieve.
+   * @param pagination    Pagination state sorting by the field and parent.
    * @param filters       Optional additional filters.
-   * @param requireId     If the results should include ID.
+   * @param requireId     If the results should include ID. Required for keyset
+   *                      pagination.
    * @param requireIri    If the results should include IRI variable.
    */
   private Queue<SparqlBinding> queryFilterOptions(String resourceID, String field, String parent, String addStatements,
-      String addVar, String search, int pageIndex, Integer limit, Map<String, Set<String>> filters, boolean requireId,
+      String addVar, String search, PaginationState pagination, Map<String, Set<String>> filters, boolean requireId,
       boolean requireIri) {
     LOGGER.info("Retrieving all filter options...");
     String iri = this.queryTemplateService.getIri(resourceID);
@@ -381,14 +481,32 @@ public class GetService {
           + search.toLowerCase()
           + "\"))";
     }
-    String parentFieldSort = parent != null ? ",+" + parent : "";
-    SelectQuery allInstancesQueryObj = this.queryTemplateService.getAllInstancesQueryTemplate(iri,
-        new PaginationState(pageIndex, limit, "+" + field + parentFieldSort, new HashMap<>()), requireId, requireIri);
+    addStatements += this.queryTemplateService.genKeysetFilter(pagination);
+    SelectQuery allInstancesQueryObj = this.queryTemplateService.getAllInstancesQueryTemplate(iri, pagination,
+        requireId, requireIri);
     if (!addVar.isEmpty()) {
       allInstancesQueryObj.select(QueryResource.genVariable(addVar));
     }
     String allInstancesQuery = this.queryTemplateService.addStringStatements(allInstancesQueryObj, addStatements);
-    return this.kgService.query(allInstancesQuery, SparqlEndpointType.MIXED);
+    Queue<SparqlBinding> results = this.kgService.query(allInstancesQuery, SparqlEndpointType.MIXED);
+    pagination.setNextCursor(results.stream().reduce((first, second) -> second).orElse(null), results.size());
+    return results;
+  }
+
+  /**
+   * Generates the pagination state for filter options, which are sorted by the
+   * field followed by any parent field.
+   * 
+   * @param field     The field of interest.
+   * @param parent    Optional parent field if this is a dependent field.
+   * @param pageIndex Current page index.
+   * @param limit     The limit of options to retrieve.
+   * @param cursor    Optional cursor for keyset pagination.
+   */
+  private PaginationState genFilterOptionsPagination(String field, String parent, int pageIndex, Integer limit,
+      String cursor) {
+    String parentFieldSort = parent != null ? ",+" + parent : "";
+    return new PaginationState(pageIndex, limit, "+" + field + parentFieldSort, null, new HashMap<>(), cursor);
   }
 
   /**
@@ -447,23 +565,23 @@ public class GetService {
     LOGGER.debug("Retrieving all instances of {} ...", resourceID);
     var results = ParallelTaskExecutor.execParallelQueryTasks(
         () -> {
-          Queue<List<String>> ids = this.getAllIds(resourceID, "", pagination);
-          DataManifest<Queue<SparqlBinding>> instanceManifest = this.execGetInstancesWithVirtualResults(resourceID,
-              requireLabel, ids, "", new ArrayList<>());
+          DataManifest<Queue<SparqlBinding>> instanceManifest = this.getInstancePage(resourceID, requireLabel, "",
+              "", pagination, new ArrayList<>());
           List<Map<String, Object>> data = instanceManifest.data().stream()
               .map(SparqlBinding::get)
               .toList();
           return new DataManifest<>(data, instanceManifest.columns());
         },
         () -> this.getCount(resourceID, filters),
-        () -> this.getCount(resourceID, new HashMap<>()));
+        () -> this.getTotalCount(resourceID));
 
     return this.responseEntityBuilder.success(
         null,
         results.filteredCount(),
         results.totalCount(),
         results.data().columns(),
-        results.data().data());
+        results.data().data(),
+        pagination.getNextCursor());
   }
 
   /**
@@ -550,7 +668,9 @@ public class GetService {
   }
 
   /**
-   * Gets the query statements associated with the fields of interest.
+   * Gets the query statements associated with the fields of interest. The
+   * statements are cached for the fields and user roles, as they do not depend
+   * on the filter values.
    * 
    * @param shaclReplacement The replacement value of the SHACL query target.
    * @param sortedFields     Set of fields for sorting that should be included.
@@ -558,6 +678,19 @@ public class GetService {
    */
   public Map<String, String> getStatementMappingsForTargetFields(String shaclReplacement, Set<String> sortedFields,
       Map<String, Set<String>> filters) {
+    return this.queryPlanCacheService.getFieldStatements(shaclReplacement, sortedFields, filters.keySet(),
+        () -> this.genStatementMappingsForTargetFields(shaclReplacement, sortedFields, filters.keySet()));
+  }
+
+  /**
+   * Generates the query statements associated with the fields of interest.
+   * 
+   * @param shaclReplacement The replacement value of the SHACL query target.
+   * @param sortedFields     Set of fields for sorting that should be included.
+   * @param filterFields     Set of fields for filtering that should be included.
+   */
+  private Map<String, String> genStatementMappingsForTargetFields(String shaclReplacement, Set<String> sortedFields,
+      Set<String> filterFields) {
     // First query for all the available query construction params associated with
     // the target replacement
     ArrayDeque<Queue<SparqlBinding>> results = (ArrayDeque<Queue<SparqlBinding>>) this.kgService
@@ -565,7 +698,6 @@ public class GetService {
     // Next, parse and get the query statements for the fields of interest that
     // requires sorting or filtering
     Set<String> groups = new HashSet<>();
-    Set<String> filterFields = new HashSet<>(filters.keySet());
     Map<String, ArrayDeque<Queue<SparqlBinding>>> groupQueryPartMappings = new HashMap<>();
     Map<String, ArrayDeque<Queue<SparqlBinding>>> filterQueryPartMappings = new HashMap<>();
     Map<String, ArrayDeque<Queue<SparqlBinding>>> sortedQueryPartMappings = new HashMap<>();
@@ -642,7 +774,8 @@ public class GetService {
           .replaceAll("(?s)\\s*OPTIONAL\\s*\\{(.*)\\}", "$1");
       outputMappings.put(key, clause);
     });
-    return outputMappings;
+    // Mappings are shared across requests once cached
+    return Collections.unmodifiableMap(outputMappings);
   }
 
   /**
@@ -680,6 +813,100 @@ public class GetService {
     });
   }
 
+  /**
+   * Generates the query to retrieve all IDs associated with the target
+   * replacement.
+   * 
+   * @param resourceID    Target resource identifier for the instance class.
+   * @param addStatements Additional query statements to be added if any.
+   * @param pagination    Optional state containing the current page and limit.
+   */
+  private String genAllIdsQuery(String resourceID, String addStatements, PaginationState pagination) {
+    String iri = this.queryTemplateService.getIri(resourceID);
+    addStatements += this.getQueryStatementsForTargetFields(resourceID, iri, pagination.getSortedFields(),
+        pagination.getFilters());
+    addStatements += this.queryTemplateService.genKeysetFilter(pagination);
+    List<SortDirective> sortDirectives = new ArrayList<>(pagination.getSortDirectives());
+    QueryPlan idQueryPlan = this.queryPlanCacheService.getIdQueryPlan(iri, sortDirectives,
+        () -> this.queryTemplateService.compileAllIdsQuery(iri, sortDirectives));
+    return idQueryPlan.fill(addStatements, pagination.getLimit(), pagination.getOffset());
+  }
+
+  /**
+   * Executes the query to retrieve IDs, and any event IDs if available. The
+   * cursor to the next page is stored in the pagination state for keyset
+   * pagination.
+   * 
+   * @param allInstancesQuery The query retrieving the IDs.
+   * @param pagination        The pagination state of the query.
+   */
+  private Queue<List<String>> queryIds(String allInstancesQuery, PaginationState pagination) {
+    LOGGER.info("Retrieving all ids...");
+    Queue<List<String>> ids = new ArrayDeque<>();
+    String eventIdVar = QueryResource.EVENT_ID_VAR.getVarName();
+    SparqlBinding[] lastRow = new SparqlBinding[1];
+    // Only the ids are retained, so each row is projected as it is read
+    int rowCount = this.kgService.query(allInstancesQuery, SparqlEndpointType.MIXED, binding -> {
+      if (binding.containsField(eventIdVar)) {
+        ids.offer(List.of(binding.getFieldValue(QueryResource.ID_KEY), binding.getFieldValue(eventIdVar)));
+      } else {
+        ids.offer(List.of(binding.getFieldValue(QueryResource.ID_KEY)));
+      }
+      lastRow[0] = binding;
+    });
+    pagination.setNextCursor(lastRow[0], rowCount);
+    return ids;
+  }
+
+  /**
+   * Indicates if the page can be retrieved in a single query. Pages sorted by
+   * event IDs must be retrieved by their ID and event ID pairs, and virtual
+   * rules can only be executed with the IDs of the page.
+   * 
+   * @param resourceID     The target resource identifier for the instance class.
+   * @param requireLabel   Indicates if labels should be returned for all the
+   *                       fields that are IRIs.
+   * @param sortDirectives The sort directives of the page.
+   */
+  private boolean canQueryPageAtOnce(String resourceID, boolean requireLabel, List<SortDirective> sortDirectives) {
+    boolean hasEventIdToSort = sortDirectives.stream()
+        .anyMatch(directive -> directive.field().getVarName().equals(QueryResource.EVENT_ID_VAR.getVarName()));
+    if (hasEventIdToSort) {
+      return false;
+    }
+    return !requireLabel || this.kgService.getShaclRules(resourceID, ShaclRuleType.SPARQL_VIRTUAL_RULE).isEmpty();
+  }
+
+  /**
+   * Retrieves a page of the target instances in a single query, with the page of
+   * IDs retrieved in a sub-query. The instances are returned in the sort order of
+   * the page.
+   * 
+   * @param resourceID         The target resource identifier for the instance
+   *                           class.
+   * @param requireLabel       Indicates if labels should be returned for all
+   *                           the fields that are IRIs.
+   * @param idQuery            The query retrieving the page of IDs.
+   * @param sortDirectives     The sort directives of the page.
+   * @param addQueryStatements Additional query statements to be added.
+   * @param addColumns         Optional additional columns to be included in the
+   *                           results.
+   */
+  private DataManifest<Queue<SparqlBinding>> execGetInstancePage(String resourceID, boolean requireLabel,
+      String idQuery, List<SortDirective> sortDirectives, String addQueryStatements,
+      List<ColumnMetaPayload> addColumns) {
+    String iri = this.queryTemplateService.getIri(resourceID);
+    String pageSubQuery = this.queryTemplateService.genPageSubQuery(idQuery, sortDirectives);
+    DataManifest<String> getQueryManifest = this.genGetQuery(iri, requireLabel, new ArrayDeque<>(),
+        pageSubQuery + addQueryStatements, addColumns);
+    String pageQuery = getQueryManifest.data() + this.queryTemplateService.genPageOrderBy(sortDirectives);
+    LOGGER.debug("Querying the knowledge graph for a page of instances...");
+    // Rows are grouped in the order they are first read, which follows the page
+    Queue<SparqlBinding> instances = this.kgService.queryAndCombine(pageQuery, SparqlEndpointType.MIXED,
+        getQueryManifest.arrayVariables());
+    return new DataManifest<>(instances, getQueryManifest.columns());
+  }
+
   /**
    * Executes the operation to retrieve all the target instances and their
    * information as well as any virtual derivation results.
@@ -742,17 +969,36 @@ public class GetService {
   private DataManifest<Queue<SparqlBinding>> execGetInstances(String nodeShapeReplacement,
       Queue<List<String>> targetIds,
       boolean requireLabel, String addQueryStatements, List<ColumnMetaPayload> addColumns) {
-    Queue<Queue<SparqlBinding>> queryVarsAndPaths = this.kgService.getSparqlQueryConstructionParameters(
-        nodeShapeReplacement, requireLabel);
-    DataManifest<String> getQueryManifest = this.queryTemplateService.genGetQuery(queryVarsAndPaths, targetIds,
+    DataManifest<String> getQueryManifest = this.genGetQuery(nodeShapeReplacement, requireLabel, targetIds,
         addQueryStatements, addColumns);
     LOGGER.debug("Querying the knowledge graph for the instances...");
-    // Query for direct instances
-    Queue<SparqlBinding> instances = this.kgService.query(getQueryManifest.data(), SparqlEndpointType.MIXED);
-    instances = this.kgService.combineBindingQueue(instances, this.queryTemplateService.getArrayVariables());
+    // Query for direct instances and combine their array values as they are read
+    Queue<SparqlBinding> instances = this.kgService.queryAndCombine(getQueryManifest.data(),
+        SparqlEndpointType.MIXED, getQueryManifest.arrayVariables());
     return new DataManifest<>(instances, getQueryManifest.columns());
   }
 
+  /**
+   * Generates the query to retrieve the target instances from the cached query
+   * plan of the node shape, which is compiled from its SHACL shapes on the first
+   * request.
+   * 
+   * @param nodeShapeReplacement The statement to target the node shape.
+   * @param requireLabel         Indicates if labels should be returned for all
+   *                             the fields that are IRIs.
+   * @param targetIds            An optional field with specific IDs to target.
+   * @param addQueryStatements   Additional query statements to be added
+   * @param addColumns           Optional additional columns to be included in the
+   *                             results.
+   */
+  private DataManifest<String> genGetQuery(String nodeShapeReplacement, boolean requireLabel,
+      Queue<List<String>> targetIds, String addQueryStatements, List<ColumnMetaPayload> addColumns) {
+    QueryPlan queryPlan = this.queryPlanCacheService.getInstanceQueryPlan(nodeShapeReplacement, requireLabel,
+        addColumns, () -> this.queryTemplateService.compileGetQuery(nodeShapeReplacement, requireLabel,
+            this.kgService.getSparqlQueryConstructionParameters(nodeShapeReplacement, requireLabel), addColumns));
+    return queryPlan.fill(addQueryStatements + this.queryTemplateService.genIdValuesClause(targetIds));
+  }
+
   /**
    * Retrieve the best-fit response based on the results. This method caters to
    * retrieving a single instance.
@@ -824,13 +1070,16 @@ public class GetService {
       Map<String, Object> currentEntity) {
     LOGGER.debug(GET_FORM_LOG_MSG, resourceID);
     String query = this.queryTemplateService.getFormQuery(resourceID, isReplacement);
-    // SHACL restrictions are stored at a different endpoint
-    String endpoint = this.kgService.getShaclEndpoint();
-    LOGGER.debug("Querying at the endpoint {}...", endpoint);
-    // Execute the query on the current endpoint and get the result
-    ArrayNode formTemplateInputs = this.kgService.queryJsonLd(query, endpoint);
-    if (!formTemplateInputs.isEmpty()) {
-      Map<String, Object> results = this.queryTemplateService.genFormTemplate(formTemplateInputs, currentEntity);
+    // The inputs are only queried if the form shapes are not cached for the user
+    // roles
+    Map<String, Object> results = this.queryTemplateService.genFormTemplate(query, () -> {
+      // SHACL restrictions are stored at a different endpoint
+      String endpoint = this.kgService.getShaclEndpoint();
+      LOGGER.debug("Querying at the endpoint {}...", endpoint);
+      // Execute the query on the current endpoint and get the result
+      return this.kgService.queryJsonLd(query, endpoint);
+    }, currentEntity);
+    if (results != null) {
       LOGGER.info(SUCCESSFUL_REQUEST_MSG);
       return this.responseEntityBuilder.success(null, results);
     }
@@ -1,6 +1,8 @@
 package com.cmclinnovations.agent.service;
 
 import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
@@ -13,6 +15,7 @@ import com.cmclinnovations.agent.component.LocalisationTranslator;
 import com.cmclinnovations.agent.component.ResponseEntityBuilder;
 import com.cmclinnovations.agent.model.response.StandardApiResponse;
 import com.cmclinnovations.agent.model.type.TrackActionType;
+import com.cmclinnovations.agent.service.core.CountCacheService;
 import com.cmclinnovations.agent.service.core.KGService;
 import com.cmclinnovations.agent.utils.LocalisationResource;
 import com.cmclinnovations.agent.utils.QueryResource;
@@ -20,6 +23,7 @@ import com.cmclinnovations.agent.utils.QueryResource;
 @Service
 public class UpdateService {
   private final AddService addService;
+  private final CountCacheService countCacheService;
   private final DeleteService deleteService;
   private final KGService kgService;
   private final ResponseEntityBuilder responseEntityBuilder;
@@ -30,22 +34,25 @@ public class UpdateService {
    * Constructs a new service with the following dependencies.
    * 
    * @param addService            KG service to add instances.
+   * @param countCacheService     Service caching the total instance counts.
    * @param deleteService         KG service to delete instances.
    * @param kgService             KG service for performing the query.
    * @param responseEntityBuilder A component to build the response entity.
    */
-  public UpdateService(AddService addService, DeleteService deleteService, KGService kgService,
-      ResponseEntityBuilder responseEntityBuilder) {
+  public UpdateService(AddService addService, CountCacheService countCacheService, DeleteService deleteService,
+      KGService kgService, ResponseEntityBuilder responseEntityBuilder) {
     this.addService = addService;
+    this.countCacheService = countCacheService;
     this.deleteService = deleteService;
     this.kgService = kgService;
     this.responseEntityBuilder = responseEntityBuilder;
   }
 
   /**
-   * Updates the instance in the knowledge graph by executing DELETE and ADD
-   * actions separately. Note that the DELETE action can fail gracefully and this
-   * effectively becomes an ADD action.
+   * Updates the instance in the knowledge graph by executing the DELETE and ADD
+   * actions in a single update request, so that the instance is never seen half
+   * written. Note that the DELETE action matches nothing if the instance does not
+   * exist, and this effectively becomes an ADD action.
    * 
    * @param id               Target instance identifier .
    * @param resourceID       The resource identifier ie type for the instance.
@@ -55,16 +62,56 @@ public class UpdateService {
    */
   public ResponseEntity<StandardApiResponse<?>> update(String id, String resourceId, String successMessageId,
       Map<String, Object> editedParams, TrackActionType trackAction) {
+    return this.update(id, resourceId, successMessageId, editedParams, trackAction, false);
+  }
+
+  /**
+   * Updates the instance in the knowledge graph in a single update request. In
+   * diff mode, only the triples that have changed are removed and added, and the
+   * SHACL SPARQL rules are only executed if they depend on a changed property.
+   * 
+   * @param id               Target instance identifier .
+   * @param resourceID       The resource identifier ie type for the instance.
+   * @param successMessageId Successful message identifier.
+   * @param editedParams     Edited parameters to replace the current values.
+   * @param trackAction      The action required for tracking.
+   * @param isDiff           Indicates if only the changes should be written.
+   */
+  public ResponseEntity<StandardApiResponse<?>> update(String id, String resourceId, String successMessageId,
+      Map<String, Object> editedParams, TrackActionType trackAction, boolean isDiff) {
     String branchDelete = (String) editedParams.get(QueryResource.DELETE_BRANCH_KEY);
-    ResponseEntity<StandardApiResponse<?>> deleteResponse = this.deleteService.delete(resourceId, id, branchDelete);
+    String deleteQuery = this.deleteService.genDeleteQuery(resourceId, id, branchDelete);
+    String successLogMessage = MessageFormat.format("{0} has been successfully updated for {1}", resourceId, id);
+    if (isDiff) {
+      return this.addService.applyChanges(resourceId, id, editedParams, deleteQuery, successLogMessage,
+          successMessageId, trackAction);
+    }
+    return this.addService.replace(resourceId, id, editedParams, deleteQuery, successLogMessage, successMessageId,
+        trackAction);
+  }
 
-    if (deleteResponse.getStatusCode().equals(HttpStatus.OK)) {
-      return this.addService.instantiate(resourceId, id, editedParams,
-          MessageFormat.format("{0} has been successfully updated for {1}", resourceId, id), successMessageId,
-          trackAction);
-    } else {
-      return deleteResponse;
+  /**
+   * Updates a batch of instances of the same resource, with the DELETE and ADD
+   * actions of each instance executed in the same update request. Instances are
+   * written together in as few update requests as possible.
+   * 
+   * @param resourceId   The resource identifier ie type for the instances.
+   * @param editedParams Edited parameters for each instance, which must include
+   *                     its identifier.
+   * @param trackAction  The action required for tracking.
+   * 
+   * @return the success status of each instance, mapped to its ID in input
+   *         order.
+   */
+  public Map<String, Boolean> updateAll(String resourceId, List<Map<String, Object>> editedParams,
+      TrackActionType trackAction) {
+    Map<String, String> deleteQueries = new HashMap<>();
+    for (Map<String, Object> params : editedParams) {
+      String id = params.get(QueryResource.ID_KEY).toString();
+      String branchDelete = (String) params.get(QueryResource.DELETE_BRANCH_KEY);
+      deleteQueries.put(id, this.deleteService.genDeleteQuery(resourceId, id, branchDelete));
     }
+    return this.addService.replaceAll(resourceId, editedParams, deleteQueries, trackAction);
   }
 
   /**
@@ -76,6 +123,8 @@ public class UpdateService {
     int statusCode = this.kgService.executeUpdate(query);
     if (statusCode == 200) {
       LOGGER.info("Instance has been successfully updated!");
+      // Direct updates do not specify their resource, and may affect any count
+      this.countCacheService.invalidateAll();
       return this.responseEntityBuilder.success(null,
           LocalisationTranslator.getMessage(LocalisationResource.SUCCESS_UPDATE_KEY));
     }
@@ -182,12 +182,15 @@ public class BillingService {
         this.addService.logActivity(contractIri, TrackActionType.ADJUSTMENT_PRICING);
       }
 
-      Queue<SparqlBinding> accrualInstances = this.lifecycleQueryService.getInstances(
-          FileService.TASK_ACCRUAL_QUERY_RESOURCE, contractId);
-      while (!accrualInstances.isEmpty()) {
-        SparqlBinding accrualInstance = accrualInstances.poll();
-        this.addService.execSparqlConstructRules(LifecycleEventType.SERVICE_ACCRUAL.getId(),
-            accrualInstance.getFieldValue(QueryResource.IRI_KEY));
+      // Re-evaluate the rules for all accruals of the contract together
+      List<String> accrualIris = this.lifecycleQueryService.getInstances(
+          FileService.TASK_ACCRUAL_QUERY_RESOURCE, contractId)
+          .stream()
+          .map(accrualInstance -> accrualInstance.getFieldValue(QueryResource.IRI_KEY))
+          .distinct()
+          .toList();
+      if (!accrualIris.isEmpty()) {
+        this.addService.execSparqlConstructRules(LifecycleEventType.SERVICE_ACCRUAL.getId(), accrualIris);
       }
     }
     return response;
@@ -29,6 +29,7 @@ import com.cmclinnovations.agent.model.util.DataManifest;
 import com.cmclinnovations.agent.service.AddService;
 import com.cmclinnovations.agent.service.GetService;
 import com.cmclinnovations.agent.service.UpdateService;
+import com.cmclinnovations.agent.service.core.CountCacheService;
 import com.cmclinnovations.agent.service.core.DateTimeService;
 import com.cmclinnovations.agent.service.core.FileService;
 import com.cmclinnovations.agent.template.LifecycleQueryFactory;
@@ -42,6 +43,7 @@ import com.cmclinnovations.agent.utils.TypeCastUtils;
 @Service
 public class LifecycleContractService {
   private final AddService addService;
+  private final CountCacheService countCacheService;
   private final GetService getService;
   private final UpdateService updateService;
   private final DateTimeService dateTimeService;
@@ -58,10 +60,11 @@ public class LifecycleContractService {
    * Constructs a new service with the following dependencies.
    * 
    */
-  public LifecycleContractService(AddService addService, GetService getService, UpdateService updateService,
-      DateTimeService dateTimeService, LifecycleQueryService lifecycleQueryService,
+  public LifecycleContractService(AddService addService, CountCacheService countCacheService, GetService getService,
+      UpdateService updateService, DateTimeService dateTimeService, LifecycleQueryService lifecycleQueryService,
       ResponseEntityBuilder responseEntityBuilder) {
     this.addService = addService;
+    this.countCacheService = countCacheService;
     this.getService = getService;
     this.updateService = updateService;
     this.dateTimeService = dateTimeService;
@@ -331,49 +334,62 @@ public class LifecycleContractService {
           }
           String[] addStatements = this.genLifecycleStatements(eventType, pagination.getSortedFields(),
               pagination.getFilters(), "", true);
-          Queue<List<String>> ids = this.getService.getAllIds(resourceID, addStatements[0], pagination);
-          DataManifest<Queue<SparqlBinding>> instanceManifest = this.getService.getInstances(resourceID, requireLabel,
-              ids, addStatements[1], contractColumns);
+          DataManifest<Queue<SparqlBinding>> instanceManifest = this.getService.getInstancePage(resourceID,
+              requireLabel, addStatements[0], addStatements[1], pagination, contractColumns);
           List<Map<String, Object>> data = instanceManifest.data().stream()
               .map(binding -> this.lifecycleQueryService.parseLifecycleBinding(binding.get()))
               .toList();
           return new DataManifest<>(data, instanceManifest.columns());
         },
         () -> this.getContractCount(resourceID, eventType, filters),
-        () -> this.getContractCount(resourceID, eventType, new HashMap<>()));
+        () -> this.countCacheService.getCount(resourceID, eventType.getId(),
+            () -> this.getContractCount(resourceID, eventType, new HashMap<>())));
 
     return this.responseEntityBuilder.success(
         null,
         results.filteredCount(),
         results.totalCount(),
         results.data().columns(),
-        results.data().data());
+        results.data().data(),
+        pagination.getNextCursor());
   }
 
   /**
-   * Discharges any active contracts that should have expired today.
+   * Retrieves the active contracts that should have expired today. Each contract
+   * should be discharged with `dischargeContract`.
    */
-  public void dischargeExpiredContracts() {
+  public List<String> getExpiredActiveContracts() {
     LOGGER.info("Retrieving all active contracts that are expiring...");
     String query = this.lifecycleQueryFactory.getExpiredActiveContractQuery();
     Queue<SparqlBinding> results = this.getService.getInstances(query);
-    Map<String, Object> paramTemplate = new HashMap<>();
-    paramTemplate.put(LifecycleResource.REMARKS_KEY,
+    return results.stream()
+        .map(binding -> binding.getFieldValue(QueryResource.ID_KEY))
+        .toList();
+  }
+
+  /**
+   * Discharges an active contract that has expired by instantiating its
+   * completed occurrence.
+   * 
+   * @param contract Target contract.
+   * @return boolean indicating if the contract has been discharged successfully.
+   */
+  public boolean dischargeContract(String contract) {
+    LOGGER.debug("Instanting completed occurrence for contract {}...", contract);
+    Map<String, Object> params = new HashMap<>();
+    params.put(LifecycleResource.REMARKS_KEY,
         LocalisationTranslator.getMessage(LocalisationResource.SUCCESS_CONTRACT_TASK_COMPLETE_KEY));
-    LOGGER.debug("Instanting completed occurrences for these contracts...");
-    while (!results.isEmpty()) {
-      Map<String, Object> params = new HashMap<>(paramTemplate);
-      String currentContract = results.poll().getFieldValue(QueryResource.ID_KEY);
-      params.put(LifecycleResource.CONTRACT_KEY, currentContract);
-      this.lifecycleQueryService.addOccurrenceParams(params, LifecycleEventType.ARCHIVE_COMPLETION);
-      ResponseEntity<StandardApiResponse<?>> response = this.addService.instantiate(
-          LifecycleResource.OCCURRENCE_INSTANT_RESOURCE, params, TrackActionType.IGNORED);
-      // Error logs for any specified occurrence
-      if (response.getStatusCode() != HttpStatus.OK) {
-        LOGGER.error("Error encountered while discharging the contract for {}! Read error logs for more details.",
-            currentContract);
-      }
+    params.put(LifecycleResource.CONTRACT_KEY, contract);
+    this.lifecycleQueryService.addOccurrenceParams(params, LifecycleEventType.ARCHIVE_COMPLETION);
+    ResponseEntity<StandardApiResponse<?>> response = this.addService.instantiate(
+        LifecycleResource.OCCURRENCE_INSTANT_RESOURCE, params, TrackActionType.IGNORED);
+    // Error logs for any specified occurrence
+    if (response.getStatusCode() != HttpStatus.OK) {
+      LOGGER.error("Error encountered while discharging the contract for {}! Read error logs for more details.",
+          contract);
+      return false;
     }
+    return true;
   }
 
   /**
@@ -38,6 +38,7 @@ import com.cmclinnovations.agent.service.AddService;
 import com.cmclinnovations.agent.service.DeleteService;
 import com.cmclinnovations.agent.service.GetService;
 import com.cmclinnovations.agent.service.UpdateService;
+import com.cmclinnovations.agent.service.core.CountCacheService;
 import com.cmclinnovations.agent.service.core.DateTimeService;
 import com.cmclinnovations.agent.service.core.FileService;
 import com.cmclinnovations.agent.service.core.KGService;
@@ -52,6 +53,7 @@ import com.cmclinnovations.agent.utils.TypeCastUtils;
 @Service
 public class LifecycleTaskService {
   private final AddService addService;
+  private final CountCacheService countCacheService;
   final DateTimeService dateTimeService;
   private final DeleteService deleteService;
   private final GetService getService;
@@ -78,10 +80,12 @@ public class LifecycleTaskService {
    * Constructs a new service with the following dependencies.
    * 
    */
-  public LifecycleTaskService(AddService addService, DateTimeService dateTimeService, DeleteService deleteService,
-      GetService getService, KGService kgService, UpdateService updateService,
-      LifecycleQueryService lifecycleQueryService, ResponseEntityBuilder responseEntityBuilder) {
+  public LifecycleTaskService(AddService addService, CountCacheService countCacheService,
+      DateTimeService dateTimeService, DeleteService deleteService, GetService getService, KGService kgService,
+      UpdateService updateService, LifecycleQueryService lifecycleQueryService,
+      ResponseEntityBuilder responseEntityBuilder) {
     this.addService = addService;
+    this.countCacheService = countCacheService;
     this.dateTimeService = dateTimeService;
     this.deleteService = deleteService;
     this.getService = getService;
@@ -170,14 +174,16 @@ public class LifecycleTaskService {
     var results = ParallelTaskExecutor.execParallelQueryTasks(
         () -> this.queryOccurrences(startTimestamp, endTimestamp, entityType, eventType, pagination),
         () -> this.getOccurrenceCount(entityType, startTimestamp, endTimestamp, eventType, filters),
-        () -> this.getOccurrenceCount(entityType, startTimestamp, endTimestamp, eventType, new HashMap<>()));
+        () -> this.countCacheService.getCount(entityType, eventType + "-" + startTimestamp + "-" + endTimestamp,
+            () -> this.getOccurrenceCount(entityType, startTimestamp, endTimestamp, eventType, new HashMap<>())));
 
     return this.responseEntityBuilder.success(
         null,
         results.filteredCount(),
         results.totalCount(),
         results.data().columns(),
-        results.data().data());
+        results.data().data(),
+        pagination.getNextCursor());
   }
 
   /**
@@ -885,23 +891,35 @@ public class LifecycleTaskService {
   }
 
   /**
-   * Check for active contract and generate orders up to the limit date.
+   * Retrieves the limit date up to which orders are generated for active
+   * contracts today.
    */
-  public void genOrderActiveContracts() {
+  public String getOrderGenerationCutoffDate() {
     String todayString = this.dateTimeService.getCurrentDate();
-    String taskGenerationCutoffDate = this.dateTimeService.getFutureDate(todayString, NUM_DAY_ORDER_GEN);
+    return this.dateTimeService.getFutureDate(todayString, NUM_DAY_ORDER_GEN);
+  }
+
+  /**
+   * Check for active contracts that require orders to be generated up to the
+   * limit date. Orders for each contract should be generated with
+   * `genOrderReceivedOccurrences`.
+   * 
+   * @param taskGenerationCutoffDate The limit date for generating orders.
+   * @return the next task start date mapped to each active contract.
+   */
+  public Map<String, String> getActiveContractsForOrders(String taskGenerationCutoffDate) {
     LOGGER.info("Retrieving all active contracts that need orders to be generated...");
     String query = this.lifecycleQueryFactory.getLatestOrderQuery(taskGenerationCutoffDate);
     Queue<SparqlBinding> results = this.getService.getInstances(query);
+    Map<String, String> contractStartDates = new LinkedHashMap<>();
     while (!results.isEmpty()) {
       SparqlBinding resultRow = results.poll();
       String currentContract = resultRow.getFieldValue(QueryResource.ID_KEY);
       // Latest task date for the contract
       String latestTaskDate = resultRow.getFieldValue(QueryResource.LATEST_DATE_VAR.getVarName());
-      String nextTaskStartDate = this.dateTimeService.getFutureDate(latestTaskDate, 1);
-      LOGGER.info("Generating orders for contract {}, starting from {}", currentContract, nextTaskStartDate);
-      this.genOrderReceivedOccurrences(currentContract, nextTaskStartDate);
+      contractStartDates.put(currentContract, this.dateTimeService.getFutureDate(latestTaskDate, 1));
     }
+    return contractStartDates;
   }
 
   /**
@@ -958,23 +976,37 @@ public class LifecycleTaskService {
     params.put(LifecycleResource.REMARKS_KEY, ORDER_INITIALISE_MESSAGE);
     this.lifecycleQueryService.addOccurrenceParams(params, LifecycleEventType.SERVICE_ORDER_RECEIVED);
     String orderPrefix = StringResource.getPrefix(params.get(LifecycleResource.STAGE_KEY).toString());
-    // Instantiate each occurrence
-    boolean hasError = false;
+    // Generate the parameters of each occurrence
+    List<Map<String, Object>> occurrenceParams = new ArrayList<>();
+    Map<String, String> occurrenceDates = new HashMap<>();
     while (!occurrences.isEmpty()) {
       // Retrieve and update the date of occurrence
       String occurrenceDate = occurrences.poll();
+      Map<String, Object> currentParams = new HashMap<>(params);
       // set new id each time
-      params.remove(QueryResource.ID_KEY);
-      LifecycleResource.genIdAndInstanceParameters(orderPrefix, LifecycleEventType.SERVICE_ORDER_RECEIVED, params);
-      params.put(LifecycleResource.DATE_TIME_KEY, occurrenceDate);
-      try {
-        this.addService.instantiate(LifecycleResource.OCCURRENCE_INSTANT_RESOURCE, params, TrackActionType.CREATION);
-        // Error logs for any specified occurrence
-      } catch (IllegalStateException _) {
-        LOGGER.error("Error encountered while creating order for {} on {}! Read error logs for more details",
-            contract, occurrenceDate);
-        hasError = true;
+      currentParams.remove(QueryResource.ID_KEY);
+      String occurrenceId = LifecycleResource.genIdAndInstanceParameters(orderPrefix,
+          LifecycleEventType.SERVICE_ORDER_RECEIVED, currentParams);
+      currentParams.put(LifecycleResource.DATE_TIME_KEY, occurrenceDate);
+      occurrenceParams.add(currentParams);
+      occurrenceDates.put(occurrenceId, occurrenceDate);
+    }
+    // Instantiate all occurrences together
+    boolean hasError = false;
+    try {
+      Map<String, Boolean> results = this.addService.instantiateAll(LifecycleResource.OCCURRENCE_INSTANT_RESOURCE,
+          occurrenceParams, TrackActionType.CREATION);
+      // Error logs for any specified occurrence
+      for (Map.Entry<String, Boolean> result : results.entrySet()) {
+        if (!result.getValue()) {
+          LOGGER.error("Error encountered while creating order for {} on {}! Read error logs for more details",
+              contract, occurrenceDates.get(result.getKey()));
+          hasError = true;
+        }
       }
+    } catch (IllegalStateException _) {
+      LOGGER.error("Error encountered while creating orders for {}! Read error logs for more details", contract);
+      hasError = true;
     }
     return hasError;
   }
@@ -1158,6 +1190,84 @@ public class LifecycleTaskService {
     return response;
   }
 
+  /**
+   * Generates the dispatch occurrences for multiple orders together. The order
+   * received events and contract stages of all orders are resolved in one query,
+   * and the occurrences are written in batched updates. Orders that cannot be
+   * resolved or written are reported as failed without affecting the others.
+   * 
+   * @param items       Parameters for each order, which must include the
+   *                    contract and order identifiers. Order identifiers must be
+   *                    unique.
+   * @param trackAction The action required for tracking.
+   * 
+   * @return the success status of each order, in input order.
+   */
+  public List<Boolean> genDispatchOccurrences(List<Map<String, Object>> items,
+      TrackActionType trackAction) {
+    LifecycleEventType eventType = LifecycleEventType.SERVICE_ORDER_DISPATCHED;
+    // Orders are only reported as successful once written
+    List<Boolean> results = new ArrayList<>(Collections.nCopies(items.size(), false));
+    Map<String, Map<String, Object>> validItems = new LinkedHashMap<>();
+    Map<String, Integer> itemIndexes = new HashMap<>();
+    for (int i = 0; i < items.size(); i++) {
+      Map<String, Object> item = items.get(i);
+      Object orderId = item.get(QueryResource.ID_KEY);
+      if (orderId == null || item.get(LifecycleResource.CONTRACT_KEY) == null) {
+        LOGGER.error("Skipping dispatch item {} without a contract or order identifier: {}", i, item);
+      } else if (itemIndexes.putIfAbsent(orderId.toString(), i) != null) {
+        LOGGER.error("Duplicate order identifier {} in dispatch items!", orderId);
+        throw new IllegalArgumentException(
+            LocalisationTranslator.getMessage(LocalisationResource.ERROR_DUPLICATE_ID_KEY, orderId.toString()));
+      } else {
+        validItems.put(orderId.toString(), item);
+      }
+    }
+    if (validItems.isEmpty()) {
+      return results;
+    }
+    String values = validItems.entrySet().stream()
+        .map(entry -> "(" + Rdf.literalOf(entry.getKey()).getQueryString() + " "
+            + Rdf.literalOf(entry.getValue().get(LifecycleResource.CONTRACT_KEY).toString()).getQueryString() + ")")
+        .collect(Collectors.joining(" "));
+    Map<String, SparqlBinding> orderEvents = new HashMap<>();
+    this.lifecycleQueryService.getInstances(FileService.ORDER_DISPATCH_QUERY_RESOURCE, values,
+        LifecycleEventType.SERVICE_ORDER_RECEIVED.getEvent(), eventType.getStage())
+        .forEach(binding -> orderEvents.putIfAbsent(binding.getFieldValue(QueryResource.ID_KEY), binding));
+
+    String currentDateTime = this.dateTimeService.getCurrentDateTime();
+    List<Map<String, Object>> occurrenceParams = new ArrayList<>();
+    Map<String, String> orderEventIris = new HashMap<>();
+    validItems.forEach((orderId, item) -> {
+      SparqlBinding orderEvent = orderEvents.get(orderId);
+      if (orderEvent == null) {
+        LOGGER.error("Unable to find the order received event or contract stage for order {}!", orderId);
+        return;
+      }
+      Map<String, Object> params = new HashMap<>(item);
+      String orderEventIri = orderEvent.getFieldValue(QueryResource.IRI_KEY);
+      params.put(LifecycleResource.DATE_TIME_KEY, currentDateTime);
+      params.put(LifecycleResource.STAGE_KEY, orderEvent.getFieldValue(LifecycleResource.STAGE_KEY));
+      params.put(LifecycleResource.REMARKS_KEY, ORDER_DISPATCH_MESSAGE);
+      // The order received event is the only previous occurrence of a dispatch
+      params.put(LifecycleResource.ORDER_KEY, orderEventIri);
+      occurrenceParams.add(params);
+      orderEventIris.put(orderId, orderEventIri);
+    });
+    if (occurrenceParams.isEmpty()) {
+      return results;
+    }
+
+    this.updateService.updateAll(eventType.getId(), occurrenceParams, TrackActionType.IGNORED)
+        .forEach((orderId, isSuccessful) -> {
+          results.set(itemIndexes.get(orderId), isSuccessful);
+          if (isSuccessful) {
+            this.addService.logActivity(orderEventIris.get(orderId), trackAction);
+          }
+        });
+    return results;
+  }
+
   /**
    * Gets the previous occurence iri based on the possible events.
    * 
@@ -5,6 +5,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -72,6 +73,19 @@ public class AuthenticationService {
     return userRoles;
   }
 
+  /**
+   * Generates a fingerprint of the user roles that is independent of their
+   * order, so that users with the same roles can share the structures filtered
+   * by their roles. Returns an empty string if authentication is disabled, as no
+   * fields are hidden.
+   */
+  public String getRoleFingerprint() {
+    if (!this.isAuthenticationEnabled()) {
+      return "";
+    }
+    return String.join(";", new TreeSet<>(this.getUserRoles()));
+  }
+
   /**
    * Retrieves the user profile associated with the credentials.
    */
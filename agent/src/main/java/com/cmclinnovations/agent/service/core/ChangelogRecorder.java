@@ -0,0 +1,157 @@
+package com.cmclinnovations.agent.service.core;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Writes changelog records to the knowledge graph behind the request thread.
+ * Records are held in a bounded queue, and a background virtual thread
+ * coalesces them into batched inserts. Identical triples across records, such
+ * as the same agent profile, are only written once per batch. Pending records
+ * are flushed when the application context is closed.
+ */
+@Service
+public class ChangelogRecorder implements DisposableBean {
+  private final KGService kgService;
+  private final ChangelogService changelogService;
+  private final BlockingQueue<Model> pendingRecords;
+  private final long flushIntervalMillis;
+  private final Thread worker;
+  private volatile boolean running;
+
+  private static final int MAX_TRIPLES_PER_BATCH = 5000;
+  private static final long SHUTDOWN_TIMEOUT_MILLIS = 30000;
+  private static final Logger LOGGER = LogManager.getLogger(ChangelogRecorder.class);
+
+  /**
+   * Constructs a new recorder and starts its background writer.
+   *
+   * @param kgService           KG service for writing the records.
+   * @param changelogService    Changelog service to evict agents whose profiles
+   *                            failed to be written.
+   * @param queueCapacity       The maximum number of records waiting to be
+   *                            written. Records are written on the calling
+   *                            thread once the queue is full.
+   * @param flushIntervalMillis The maximum time a record waits before it is
+   *                            written.
+   */
+  public ChangelogRecorder(KGService kgService, ChangelogService changelogService,
+      @Value("${CHANGELOG_QUEUE_CAPACITY:10000}") int queueCapacity,
+      @Value("${CHANGELOG_FLUSH_INTERVAL_MILLIS:500}") long flushIntervalMillis) {
+    this.kgService = kgService;
+    this.changelogService = changelogService;
+    this.pendingRecords = new LinkedBlockingQueue<>(queueCapacity);
+    this.flushIntervalMillis = flushIntervalMillis;
+    this.running = true;
+    this.worker = Thread.ofVirtual().name("changelog-recorder").start(this::processRecords);
+  }
+
+  /**
+   * Queues a changelog record for writing.
+   *
+   * @param changelogRecord The triples of the changelog record.
+   */
+  public void record(Model changelogRecord) {
+    if (this.running && this.pendingRecords.offer(changelogRecord)) {
+      // The shutdown only drains the queue after closing, so a record queued while
+      // still open is always flushed. If the recorder closed during the offer, the
+      // record may have missed the final drain, and is written directly unless it
+      // has already been taken from the queue
+      if (this.running || !this.pendingRecords.remove(changelogRecord)) {
+        return;
+      }
+    }
+    LOGGER.warn("Changelog queue is full or closed! Writing the record directly...");
+    this.write(changelogRecord, 1);
+  }
+
+  /**
+   * Stops the background writer and flushes all pending records.
+   */
+  @Override
+  public void destroy() throws InterruptedException {
+    LOGGER.info("Flushing pending changelog records...");
+    this.running = false;
+    this.worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+    // Write any records left if the worker has not completed in time
+    this.flush();
+  }
+
+  /**
+   * Writes queued records in batches until the recorder is stopped and the queue
+   * is empty.
+   */
+  private void processRecords() {
+    while (this.running || !this.pendingRecords.isEmpty()) {
+      try {
+        Model firstRecord = this.pendingRecords.poll(this.flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (firstRecord != null) {
+          this.writeBatch(firstRecord);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        LOGGER.error("Failed to write changelog records!", e);
+      }
+    }
+  }
+
+  /**
+   * Writes all queued records immediately.
+   */
+  private void flush() {
+    Model firstRecord;
+    while ((firstRecord = this.pendingRecords.poll()) != null) {
+      this.writeBatch(firstRecord);
+    }
+  }
+
+  /**
+   * Writes the first record together with any other queued records, up to the
+   * batch size.
+   *
+   * @param firstRecord The first record in the batch.
+   */
+  private void writeBatch(Model firstRecord) {
+    Model batch = ModelFactory.createDefaultModel().add(firstRecord);
+    int recordCount = 1;
+    Model nextRecord;
+    while (batch.size() < MAX_TRIPLES_PER_BATCH && (nextRecord = this.pendingRecords.poll()) != null) {
+      batch.add(nextRecord);
+      recordCount++;
+    }
+    this.write(batch, recordCount);
+  }
+
+  /**
+   * Inserts the records into the knowledge graph. Agents whose profiles are in
+   * failed records are evicted, so that their profiles are written again.
+   *
+   * @param records     The triples of the records.
+   * @param recordCount The number of records.
+   */
+  private void write(Model records, int recordCount) {
+    LOGGER.debug("Writing {} changelog records...", recordCount);
+    int statusCode;
+    try {
+      statusCode = this.kgService.insert(records);
+    } catch (RuntimeException e) {
+      this.changelogService.evictAgents(records);
+      throw e;
+    }
+    if (statusCode != 200) {
+      LOGGER.error("Failed to write {} changelog records with status code: {}", recordCount, statusCode);
+      this.changelogService.evictAgents(records);
+    }
+  }
+}
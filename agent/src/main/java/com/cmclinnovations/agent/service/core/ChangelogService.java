@@ -1,11 +1,20 @@
 package com.cmclinnovations.agent.service.core;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.sparql.vocabulary.FOAF;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.rdf4j.sparqlbuilder.rdf.Rdf;
 import org.springframework.stereotype.Service;
 
+import com.cmclinnovations.agent.component.cache.LocalCache;
 import com.cmclinnovations.agent.model.response.UserProfile;
+import com.cmclinnovations.agent.model.type.SparqlEndpointType;
 import com.cmclinnovations.agent.model.type.TrackActionType;
 import com.cmclinnovations.agent.utils.LifecycleResource;
 import com.cmclinnovations.agent.utils.QueryResource;
@@ -15,6 +24,16 @@ import com.cmclinnovations.agent.utils.ShaclResource;
 public class ChangelogService {
   private final AuthenticationService authenticationService;
   private final DateTimeService dateTimeService;
+  private final KGService kgService;
+  private final LocalCache<String, Boolean> persistedAgents;
+
+  // Expire known agents so that an agent lost from an unnoticed failed write is
+  // rewritten
+  private static final int AGENT_CACHE_SIZE = 1000;
+  private static final Duration AGENT_CACHE_TTL = Duration.ofHours(1);
+  private static final String AGENT_EXISTS_QUERY_TEMPLATE = "SELECT ?agent WHERE {?agent a <http://xmlns.com/foaf/0.1/Agent>."
+      + "FILTER(?agent=" + FileService.REPLACEMENT_TARGET + ")} LIMIT 1";
+  private static final Logger LOGGER = LogManager.getLogger(ChangelogService.class);
   private static final String UPDATED_SINCE_QUERY_TEMPLATE = "?changelog <https://theworldavatar.io/kg/ontochangelog/affected> ?iri;\r\n"
       + "<https://theworldavatar.io/kg/ontochangelog/timestamp> ?timestamp.\r\n" +
       "FILTER(?timestamp > \"" + FileService.REPLACEMENT_TARGET + "\"^^xsd:dateTime)";
@@ -22,9 +41,12 @@ public class ChangelogService {
   /**
    * Constructs a new service with the following dependencies.
    */
-  public ChangelogService(AuthenticationService authenticationService, DateTimeService dateTimeService) {
+  public ChangelogService(AuthenticationService authenticationService, DateTimeService dateTimeService,
+      KGService kgService) {
     this.authenticationService = authenticationService;
     this.dateTimeService = dateTimeService;
+    this.kgService = kgService;
+    this.persistedAgents = new LocalCache<>(AGENT_CACHE_SIZE, AGENT_CACHE_TTL);
   }
 
   /**
@@ -60,6 +82,43 @@ public class ChangelogService {
     return new HashMap<>();
   }
 
+  /**
+   * Registers the agent as persisted, and indicates if its profile must be
+   * written by the caller. Agents are only written once, and known agents are
+   * cached after the first lookup in the knowledge graph. Callers must evict the
+   * agent with {@link #evictAgents} if the write of its profile fails.
+   * 
+   * @param agentIri The agent IRI.
+   * @return true if the agent profile is not in the knowledge graph yet.
+   */
+  public boolean registerAgent(String agentIri) {
+    if (this.persistedAgents.get(agentIri) != null) {
+      return false;
+    }
+    String query = AGENT_EXISTS_QUERY_TEMPLATE.replace(FileService.REPLACEMENT_TARGET,
+        Rdf.iri(agentIri).getQueryString());
+    boolean requiresWrite = this.kgService.query(query, SparqlEndpointType.BLAZEGRAPH).isEmpty();
+    if (requiresWrite) {
+      LOGGER.debug("Agent {} is not in the knowledge graph yet", agentIri);
+    }
+    // Concurrent first writes may both write the profile, which is idempotent
+    this.persistedAgents.put(agentIri, true);
+    return requiresWrite;
+  }
+
+  /**
+   * Evicts the agents whose profiles are in the failed write, so that later
+   * activities check and write their profiles again.
+   * 
+   * @param failedRecords The triples that could not be written.
+   */
+  public void evictAgents(Model failedRecords) {
+    failedRecords.listSubjectsWithProperty(RDF.type, FOAF.Agent).forEachRemaining(agent -> {
+      LOGGER.debug("Evicting agent {} after its profile failed to be written", agent.getURI());
+      this.persistedAgents.remove(agent.getURI());
+    });
+  }
+
   /**
    * Builds a filter query for changes since a specific point in time.
    * 
@@ -11,13 +11,18 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class ConcurrencyService {
+  private final CountCacheService countCacheService;
+
   private static final ConcurrentMap<String, StampedLock> LOCK_MAP = new ConcurrentHashMap<>();
   private static final Logger LOGGER = LogManager.getLogger(ConcurrencyService.class);
 
   /**
    * Constructs a new service with the following dependencies.
+   * 
+   * @param countCacheService Service caching the total instance counts.
    */
-  public ConcurrencyService() {
+  public ConcurrencyService(CountCacheService countCacheService) {
+    this.countCacheService = countCacheService;
   }
 
   /**
@@ -37,6 +42,8 @@ public class ConcurrencyService {
       return writer.get();
 
     } finally {
+      // Counts are invalidated before readers can resume
+      this.countCacheService.invalidate(resource);
       lock.unlockWrite(stamp);
       LOGGER.info("WRITE lock for {} released...", resource);
     }
@@ -0,0 +1,88 @@
+package com.cmclinnovations.agent.service.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class CountCacheService {
+  private final ConcurrentMap<String, CachedCount> countCache;
+  private final AtomicLong generation;
+  private final long ttlMillis;
+
+  private static final Logger LOGGER = LogManager.getLogger(CountCacheService.class);
+
+  /**
+   * Constructs a new service.
+   *
+   * @param ttlSeconds Number of seconds before a cached count expires. This
+   *                   bounds the staleness from writes made outside the agent.
+   */
+  public CountCacheService(@Value("${COUNT_CACHE_TTL_SECONDS:300}") long ttlSeconds) {
+    this.countCache = new ConcurrentHashMap<>();
+    this.generation = new AtomicLong();
+    this.ttlMillis = ttlSeconds * 1000;
+  }
+
+  /**
+   * Retrieves the cached total count for the resource and scope, or computes and
+   * caches it if it is missing or expired.
+   *
+   * @param resourceId The target resource identifier.
+   * @param scope      The lifecycle scope of the count, such as the event type and
+   *                   date range. Use an empty string if there is none.
+   * @param counter    Computes the count on a cache miss.
+   */
+  public int getCount(String resourceId, String scope, IntSupplier counter) {
+    String key = resourceId + "-" + scope;
+    CachedCount cached = this.countCache.get(key);
+    // Counts from before the latest write are stale, even if they were cached
+    // after the cache was cleared
+    if (cached != null && cached.expiry() > System.currentTimeMillis()
+        && cached.generation() == this.generation.get()) {
+      LOGGER.debug("Cache Hit: total count for {}", key);
+      return cached.count();
+    }
+    long currentGeneration = this.generation.get();
+    int count = counter.getAsInt();
+    // Only cache the count if no write has invalidated the cache while counting
+    if (this.generation.get() == currentGeneration) {
+      this.countCache.put(key,
+          new CachedCount(count, System.currentTimeMillis() + this.ttlMillis, currentGeneration));
+    }
+    return count;
+  }
+
+  /**
+   * Invalidates the cached counts after a write to the resource. All counts are
+   * cleared, as an instantiation may create nested instances of other resources,
+   * and lifecycle occurrences change the counts of their contracts and tasks.
+   *
+   * @param resourceId The resource that has been written to.
+   */
+  public void invalidate(String resourceId) {
+    LOGGER.debug("Invalidating cached counts after write to {}", resourceId);
+    this.invalidateAll();
+  }
+
+  /**
+   * Invalidates all cached counts.
+   */
+  public void invalidateAll() {
+    this.generation.incrementAndGet();
+    this.countCache.clear();
+  }
+
+  /**
+   * A cached count with its expiry time in milliseconds, and the generation of
+   * writes it was counted in.
+   */
+  private record CachedCount(int count, long expiry, long generation) {
+  }
+}
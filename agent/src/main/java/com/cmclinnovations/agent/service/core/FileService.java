@@ -8,6 +8,11 @@ import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystemNotFoundException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
@@ -20,6 +25,7 @@ import org.springframework.stereotype.Service;
 
 import com.cmclinnovations.agent.component.LocalisationTranslator;
 import com.cmclinnovations.agent.exception.InvalidRouteException;
+import com.cmclinnovations.agent.model.util.SparqlTemplate;
 import com.cmclinnovations.agent.utils.BillingResource;
 import com.cmclinnovations.agent.utils.LifecycleResource;
 import com.cmclinnovations.agent.utils.LocalisationResource;
@@ -31,6 +37,9 @@ import tools.jackson.databind.ObjectMapper;
 public class FileService {
   private final ObjectMapper objectMapper;
   private final ResourceLoader resourceLoader;
+  private final ConcurrentMap<String, CachedResource<SparqlTemplate>> sparqlTemplates;
+  private final ConcurrentMap<String, CachedResource<Map<String, JsonNode>>> resourceIndexes;
+  private final ConcurrentMap<String, CachedResource<JsonNode>> jsonContents;
 
   public static final String SPRING_FILE_PATH_PREFIX = "file:/";
   private static final String RESOURCE_DIR = "usr/local/tomcat/resources/";
@@ -97,6 +106,7 @@ public class FileService {
   public static final String CONTRACT_PREV_EVENT_QUERY_RESOURCE = QUERY_GET_LIFECYCLE_DIR
       + "contract_prev_event.sparql";
   public static final String TERMINAL_EVENT_QUERY_RESOURCE = QUERY_GET_LIFECYCLE_DIR + "terminal_event.sparql";
+  public static final String ORDER_DISPATCH_QUERY_RESOURCE = QUERY_GET_LIFECYCLE_DIR + "order_dispatch.sparql";
   public static final String CONTRACT_SCHEDULE_QUERY_RESOURCE = QUERY_GET_LIFECYCLE_DIR + "schedule.sparql";
   public static final String FIXED_DATE_CONTRACT_SCHEDULE_QUERY_RESOURCE = QUERY_GET_LIFECYCLE_DIR
       + "fixed_date_schedule.sparql";
@@ -110,6 +120,19 @@ public class FileService {
   public static final String REPLACEMENT_SHAPE = "[shape]";
   public static final String REPLACEMENT_PATH = "[path]";
   public static final String REPLACEMENT_FILTER = "[filter]";
+  private static final String TARGET_PLACEHOLDER = "[target]";
+
+  // Bundled templates that are compiled once at startup
+  private static final List<String> CLASSPATH_SPARQL_TEMPLATES = List.of(FORM_QUERY_RESOURCE,
+      SHACL_RULE_QUERY_RESOURCE, ENDPOINT_QUERY_RESOURCE, INSTANCE_QUERY_RESOURCE, SHACL_PATH_QUERY_RESOURCE,
+      SHACL_PATH_LABEL_QUERY_RESOURCE, SHACL_PATH_GROUP_QUERY_RESOURCE, SHACL_PROPERTY_OPTIONAL_RESOURCE,
+      CHANGELOG_RESOURCE, CHANGELOG_TASK_RESOURCE, ACCOUNT_AGREEMENT_QUERY_RESOURCE,
+      ACCOUNT_FINANCIAL_RECORD_QUERY_RESOURCE, ACCOUNT_FLAG_QUERY_RESOURCE, ACCOUNT_BILL_QUERY_RESOURCE,
+      CONTRACT_PRICING_QUERY_RESOURCE, TASK_INVOICE_QUERY_RESOURCE, VERIFY_PRICING_QUERY_RESOURCE,
+      CONTRACT_QUERY_RESOURCE, CONTRACT_STATUS_QUERY_RESOURCE, CONTRACT_STAGE_QUERY_RESOURCE,
+      CONTRACT_EVENT_QUERY_RESOURCE, CONTRACT_PREV_EVENT_QUERY_RESOURCE, TERMINAL_EVENT_QUERY_RESOURCE,
+      CONTRACT_SCHEDULE_QUERY_RESOURCE, FIXED_DATE_CONTRACT_SCHEDULE_QUERY_RESOURCE, TASK_QUERY_RESOURCE,
+      TASK_ACCRUAL_QUERY_RESOURCE, RESCHEDULE_QUERY_RESOURCE, ORDER_DISPATCH_QUERY_RESOURCE);
 
   private static final Logger LOGGER = LogManager.getLogger(FileService.class);
 
@@ -122,30 +145,25 @@ public class FileService {
   public FileService(ResourceLoader resourceLoader, ObjectMapper objectMapper) {
     this.resourceLoader = resourceLoader;
     this.objectMapper = objectMapper;
+    this.sparqlTemplates = new ConcurrentHashMap<>();
+    this.resourceIndexes = new ConcurrentHashMap<>();
+    this.jsonContents = new ConcurrentHashMap<>();
+    CLASSPATH_SPARQL_TEMPLATES.forEach(this::getSparqlTemplate);
+    LOGGER.info("Compiled {} SPARQL templates", CLASSPATH_SPARQL_TEMPLATES.size());
   }
 
   /**
-   * Retrieve the target file contents with replacement for [target].
+   * Retrieve the target file contents with replacement for [target]. The
+   * contents are compiled into a template on first use, and recompiled only if a
+   * file on disk has since been modified.
    * 
    * @param resourceFilePath File path to resource.
-   * @param replacements     A variable list values to replace [target] with.
+   * @param replacements     A variable list values to replace [target] with in
+   *                         order.
    */
   public String getContentsWithReplacement(String resourceFilePath, String... replacements) {
     LOGGER.debug("Retrieving the contents at {}...", resourceFilePath);
-    String contents = "";
-    try (InputStream inputStream = this.resourceLoader.getResource(resourceFilePath).getInputStream()) {
-      contents = this.parseSparqlFile(inputStream);
-      for (String replacement : replacements) {
-        contents = contents.replaceFirst(REPLACEMENT_TARGET, replacement);
-      }
-    } catch (FileNotFoundException _) {
-      throw new FileSystemNotFoundException(
-          LocalisationTranslator.getMessage(LocalisationResource.ERROR_MISSING_FILE_KEY, resourceFilePath));
-    } catch (IOException e) {
-      LOGGER.error(e);
-      throw new UncheckedIOException(e);
-    }
-    return contents;
+    return this.getSparqlTemplate(resourceFilePath).fill(replacements);
   }
 
   /**
@@ -158,23 +176,15 @@ public class FileService {
   }
 
   /**
-   * Retrieve the target file contents as a JSON object.
+   * Retrieve the target file contents as a JSON object. The file is parsed once
+   * and parsed again only if it has since been modified, so that callers receive
+   * a deep copy of the parsed contents which they are free to modify.
    * 
    * @param resourceFilePath File path to resource.
    */
   public JsonNode getJsonContents(String resourceFilePath) {
     LOGGER.debug("Retrieving the JSON contents at {}...", resourceFilePath);
-    JsonNode resourceNode;
-    try (InputStream inputStream = this.resourceLoader.getResource(resourceFilePath).getInputStream()) {
-      resourceNode = this.objectMapper.readTree(inputStream);
-    } catch (FileNotFoundException _) {
-      throw new FileSystemNotFoundException(
-          LocalisationTranslator.getMessage(LocalisationResource.ERROR_MISSING_FILE_KEY, resourceFilePath));
-    } catch (IOException e) {
-      LOGGER.error(e);
-      throw new UncheckedIOException(e);
-    }
-    return resourceNode;
+    return this.getCachedResource(resourceFilePath, this.jsonContents, this.objectMapper::readTree).deepCopy();
   }
 
   /**
@@ -230,20 +240,45 @@ public class FileService {
    */
   public String getResourceTarget(String target, String resourceFilePath) {
     LOGGER.debug("Finding the target class for the identifier {}...", target);
-    Resource resource = this.resourceLoader.getResource(resourceFilePath);
-    try (InputStream inputStream = resource.getInputStream()) {
-      JsonNode resourceNode = this.objectMapper.readTree(inputStream).findValue(target);
-      if (resourceNode == null) {
-        LOGGER.error("No valid identifier found for {}!", target);
-        return "";
+    JsonNode resourceNode = this.getCachedResource(resourceFilePath, this.resourceIndexes, this::indexJsonResource)
+        .get(target);
+    if (resourceNode == null) {
+      LOGGER.error("No valid identifier found for {}!", target);
+      return "";
+    }
+    return this.objectMapper.treeToValue(resourceNode, String.class);
+  }
+
+  /**
+   * Indexes every field in the JSON resource by its name. If a name occurs more
+   * than once, the occurrence found by {@link JsonNode#findValue(String)} is
+   * retained, which checks the fields of an object before its children.
+   * 
+   * @param inputStream File contents as an input stream.
+   */
+  private Map<String, JsonNode> indexJsonResource(InputStream inputStream) {
+    Map<String, JsonNode> index = new HashMap<>();
+    this.indexJsonNode(this.objectMapper.readTree(inputStream), index);
+    return Map.copyOf(index);
+  }
+
+  /**
+   * Recursively indexes the fields of the current node.
+   * 
+   * @param currentNode The current node to index.
+   * @param index       Stores the first value for each field name.
+   */
+  private void indexJsonNode(JsonNode currentNode, Map<String, JsonNode> index) {
+    if (currentNode.isObject()) {
+      // Own fields take precedence over the fields of any child
+      for (Map.Entry<String, JsonNode> field : currentNode.properties()) {
+        index.putIfAbsent(field.getKey(), field.getValue());
       }
-      return this.objectMapper.treeToValue(resourceNode, String.class);
-    } catch (FileNotFoundException _) {
-      throw new FileSystemNotFoundException(
-          LocalisationTranslator.getMessage(LocalisationResource.ERROR_MISSING_FILE_KEY, resourceFilePath));
-    } catch (IOException e) {
-      LOGGER.info(e.getMessage());
-      throw new UncheckedIOException(e);
+      for (Map.Entry<String, JsonNode> field : currentNode.properties()) {
+        this.indexJsonNode(field.getValue(), index);
+      }
+    } else if (currentNode.isArray()) {
+      currentNode.forEach(childNode -> this.indexJsonNode(childNode, index));
     }
   }
 
@@ -259,4 +294,66 @@ public class FileService {
           .collect(Collectors.joining("\n")); // Append each line with a newline character
     }
   }
+
+  /**
+   * Retrieves the compiled SPARQL template at the file path.
+   * 
+   * @param resourceFilePath File path to resource.
+   */
+  private SparqlTemplate getSparqlTemplate(String resourceFilePath) {
+    return this.getCachedResource(resourceFilePath, this.sparqlTemplates,
+        inputStream -> SparqlTemplate.compile(this.parseSparqlFile(inputStream), TARGET_PLACEHOLDER));
+  }
+
+  /**
+   * Retrieves the parsed resource at the file path from the cache, or parses and
+   * caches it if it is missing. Bundled classpath resources never change once
+   * parsed, whereas other files are parsed again when their last modified time
+   * changes, and the new value swapped in for subsequent requests.
+   * 
+   * @param resourceFilePath File path to resource.
+   * @param cache            The cache of parsed resources.
+   * @param parser           Parses the resource contents.
+   */
+  private <T> T getCachedResource(String resourceFilePath, ConcurrentMap<String, CachedResource<T>> cache,
+      ResourceParser<T> parser) {
+    CachedResource<T> cached = cache.get(resourceFilePath);
+    if (cached != null && resourceFilePath.startsWith(CLASS_PATH_DIR)) {
+      return cached.value();
+    }
+    Resource resource = this.resourceLoader.getResource(resourceFilePath);
+    try {
+      long lastModified = resource.lastModified();
+      if (cached != null && cached.lastModified() == lastModified) {
+        return cached.value();
+      }
+      try (InputStream inputStream = resource.getInputStream()) {
+        LOGGER.debug("Parsing the resource at {}...", resourceFilePath);
+        T value = parser.parse(inputStream);
+        cache.put(resourceFilePath, new CachedResource<>(value, lastModified));
+        return value;
+      }
+    } catch (FileNotFoundException _) {
+      cache.remove(resourceFilePath);
+      throw new FileSystemNotFoundException(
+          LocalisationTranslator.getMessage(LocalisationResource.ERROR_MISSING_FILE_KEY, resourceFilePath));
+    } catch (IOException e) {
+      LOGGER.error(e);
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Parses the contents of a resource.
+   */
+  @FunctionalInterface
+  private interface ResourceParser<T> {
+    T parse(InputStream inputStream) throws IOException;
+  }
+
+  /**
+   * A parsed resource with the last modified time of its source file.
+   */
+  private record CachedResource<T>(T value, long lastModified) {
+  }
 }
@@ -1,17 +1,20 @@
 package com.cmclinnovations.agent.service.core;
 
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
@@ -24,10 +27,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
 
 import com.cmclinnovations.agent.component.LocalisationTranslator;
 import com.cmclinnovations.agent.component.ResponseEntityBuilder;
 import com.cmclinnovations.agent.component.ShaclRuleProcesser;
+import com.cmclinnovations.agent.component.cache.LocalCache;
 import com.cmclinnovations.agent.component.repository.KGRepository;
 import com.cmclinnovations.agent.exception.InvalidRouteException;
 import com.cmclinnovations.agent.model.SparqlBinding;
@@ -35,6 +41,8 @@ import com.cmclinnovations.agent.model.response.StandardApiResponse;
 import com.cmclinnovations.agent.model.type.LifecycleEventType;
 import com.cmclinnovations.agent.model.type.ShaclRuleType;
 import com.cmclinnovations.agent.model.type.SparqlEndpointType;
+import com.cmclinnovations.agent.model.util.ShaclRuleSet;
+import com.cmclinnovations.agent.model.util.ShaclRuleSet.ConstructRule;
 import com.cmclinnovations.agent.utils.LifecycleResource;
 import com.cmclinnovations.agent.utils.LocalisationResource;
 import com.cmclinnovations.agent.utils.QueryResource;
@@ -58,7 +66,13 @@ public class KGService {
   private final LoggingService loggingService;
   private final ResponseEntityBuilder responseEntityBuilder;
   private final ShaclRuleProcesser shaclRuleProcesser;
+  private final LocalCache<String, ShaclRuleSet> shaclRuleCache;
 
+  private static final int SHACL_RULE_CACHE_SIZE = 256;
+  // Caps the size of the queries and updates when executing SHACL rules in bulk
+  private static final int MAX_SHACL_RULE_TARGETS_PER_QUERY = 500;
+  private static final int MAX_SHACL_RULE_RESULTS_PER_UPDATE = 2000;
+  private static final Duration SHACL_RULE_CACHE_TTL = Duration.ofMinutes(10);
   private static final Logger LOGGER = LogManager.getLogger(KGService.class);
 
   /**
@@ -66,33 +80,85 @@ public class KGService {
    * 
    * @param fileService           File service for accessing file resources.
    * @param loggingService        Service for logging statements.
+   * @param client                The shared client for knowledge graph requests.
    * @param responseEntityBuilder A component to build the response entity.
    * @param shaclRuleProcesser    A component to process SHACL rules.
    */
   public KGService(FileService fileService, LoggingService loggingService, KGRepository kgRepository,
-      ResponseEntityBuilder responseEntityBuilder, ShaclRuleProcesser shaclRuleProcesser) {
-    this.client = RestClient.create();
+      RestClient client, ResponseEntityBuilder responseEntityBuilder, ShaclRuleProcesser shaclRuleProcesser) {
+    this.client = client;
     this.objectMapper = new ObjectMapper();
     this.fileService = fileService;
     this.loggingService = loggingService;
     this.kgRepository = kgRepository;
     this.responseEntityBuilder = responseEntityBuilder;
     this.shaclRuleProcesser = shaclRuleProcesser;
+    this.shaclRuleCache = new LocalCache<>(SHACL_RULE_CACHE_SIZE, SHACL_RULE_CACHE_TTL);
   }
 
   /**
-   * Add the target triples in JSON-LD format into the KG.
+   * Inserts all triples of the model into the KG in a single SPARQL update.
    * 
-   * @param contents the contents to add
+   * @param model The triples to insert.
+   * 
+   * @return the status code.
    */
-  public ResponseEntity<String> add(String contents) {
-    return this.client.post()
-        .uri(BlazegraphClient.getInstance().getRemoteStoreClient(this.namespace).getQueryEndpoint())
-        .accept(QueryResource.LD_JSON_MEDIA_TYPE)
-        .contentType(QueryResource.LD_JSON_MEDIA_TYPE)
-        .body(contents)
+  public int insert(Model model) {
+    return this.insert(model, null);
+  }
+
+  /**
+   * Inserts all triples of the model into the KG after a preceding update
+   * operation, such as a DELETE, in a single SPARQL update request. Both
+   * operations are applied together, so readers never see the state in between.
+   * 
+   * @param model           The triples to insert.
+   * @param precedingUpdate The update operation to execute first. Ignored if
+   *                        null.
+   * 
+   * @return the status code.
+   */
+  public int insert(Model model, String precedingUpdate) {
+    String insertDataQuery = "INSERT DATA {\n" + this.writeTriples(model) + "}";
+    return this.executeUpdate(precedingUpdate == null ? insertDataQuery : precedingUpdate + ";\n" + insertDataQuery);
+  }
+
+  /**
+   * Removes and adds the specified triples in the KG in a single SPARQL update.
+   * The triples must not contain blank nodes.
+   * 
+   * @param deletions The triples to remove.
+   * @param additions The triples to add.
+   * 
+   * @return the status code.
+   */
+  public int update(Model deletions, Model additions) {
+    return this.executeUpdate("DELETE DATA {\n" + this.writeTriples(deletions) + "};\n"
+        + "INSERT DATA {\n" + this.writeTriples(additions) + "}");
+  }
+
+  /**
+   * Executes the CONSTRUCT query on the namespace storing the instances to
+   * retrieve the matching triples.
+   * 
+   * @param query The CONSTRUCT query for execution.
+   */
+  public Model construct(String query) {
+    this.loggingService.logQuery(query, LOGGER);
+    RemoteStoreClient kgClient = BlazegraphClient.getInstance().getRemoteStoreClient(this.namespace);
+    String results = this.client.post()
+        .uri(kgClient.getQueryEndpoint())
+        .headers(headers -> {
+          if (kgClient.getUser() != null) {
+            headers.setBasicAuth(kgClient.getUser(), kgClient.getPassword());
+          }
+        })
+        .accept(QueryResource.TTL_MEDIA_TYPE)
+        .contentType(QueryResource.SPARQL_MEDIA_TYPE)
+        .body(query)
         .retrieve()
-        .toEntity(String.class);
+        .body(String.class);
+    return results == null ? ModelFactory.createDefaultModel() : this.readStringModel(results, Lang.TURTLE);
   }
 
   /**
@@ -123,8 +189,9 @@ public class KGService {
    * @return the query results.
    */
   public Queue<SparqlBinding> query(String query, String endpoint) {
-    List<SparqlBinding> results = this.kgRepository.query(query, endpoint);
-    return TypeCastUtils.castListToQueue(results);
+    Queue<SparqlBinding> results = new ArrayDeque<>();
+    this.kgRepository.query(query, endpoint, results::offer);
+    return results;
   }
 
   /**
@@ -140,10 +207,46 @@ public class KGService {
    */
   public Queue<SparqlBinding> query(String query, SparqlEndpointType endpointType) {
     List<String> endpoints = this.getEndpoints(endpointType);
-    List<SparqlBinding> results = this.kgRepository.query(query, endpoints);
+    List<SparqlBinding> results = this.kgRepository.query(query, endpointType, endpoints);
     return TypeCastUtils.castListToQueue(results);
   }
 
+  /**
+   * A method that executes a federated query across available endpoints, and
+   * passes each row of the SPARQL results to the consumer as it is read. This
+   * avoids materialising the results when the caller only requires a projection
+   * of each row.
+   * 
+   * @param query        the query for execution.
+   * @param endpointType the type of endpoint. Options include Mixed, Blazegraph,
+   *                     and Ontop.
+   * @param rowConsumer  callback executed for each row in the results.
+   * 
+   * @return the number of rows read.
+   */
+  public int query(String query, SparqlEndpointType endpointType, Consumer<SparqlBinding> rowConsumer) {
+    List<String> endpoints = this.getEndpoints(endpointType);
+    return this.kgRepository.query(query, endpointType, endpoints, rowConsumer);
+  }
+
+  /**
+   * A method that executes a federated query across available endpoints, and
+   * combines the array values of each row as it is read, without first
+   * collecting the raw results.
+   * 
+   * @param query        the query for execution.
+   * @param endpointType the type of endpoint. Options include Mixed, Blazegraph,
+   *                     and Ontop.
+   * @param arrayVars    Mappings between each array group and their individual
+   *                     fields.
+   */
+  public Queue<SparqlBinding> queryAndCombine(String query, SparqlEndpointType endpointType,
+      Map<String, Set<String>> arrayVars) {
+    Map<String, List<SparqlBinding>> groupedBindings = new LinkedHashMap<>();
+    this.query(query, endpointType, binding -> this.groupBinding(groupedBindings, binding));
+    return this.combineGroupedBindings(groupedBindings, arrayVars);
+  }
+
   /**
    * Gets all available SPARQL endpoints (of the specified type) containing data.
    * 
@@ -239,17 +342,19 @@ public class KGService {
   }
 
   /**
-   * Retrieves the SHACL rules associated with the target resource.
+   * Retrieves the compiled SHACL rules associated with the target resource. The
+   * rules are kept in a local cache in front of the shared cache, so that they
+   * are only fetched and parsed again after they expire locally.
    * 
    * @param resourceID    The target resource identifier for the instance.
    * @param shaclRuleType The specific shacl rule type.
    */
-  public Model getShaclRules(String resourceId, ShaclRuleType shaclRuleType) {
-    String results = this.kgRepository.getShaclRules(resourceId, shaclRuleType);
-    if (results.isEmpty()) {
-      return ModelFactory.createDefaultModel();
-    }
-    return this.readStringModel(results, Lang.TURTLE);
+  public ShaclRuleSet getShaclRules(String resourceId, ShaclRuleType shaclRuleType) {
+    return this.shaclRuleCache.get(resourceId + "-" + shaclRuleType.getIri(), key -> {
+      String results = this.kgRepository.getShaclRules(resourceId, shaclRuleType);
+      Model rules = results.isEmpty() ? ModelFactory.createDefaultModel() : this.readStringModel(results, Lang.TURTLE);
+      return this.shaclRuleProcesser.compile(rules);
+    });
   }
 
   /**
@@ -258,27 +363,75 @@ public class KGService {
    * @param rules       The target SHACL rules.
    * @param instanceIri The instance IRI string.
    */
-  public void execShaclRules(Model rules, String instanceIri) {
-    LOGGER.info("Executing SHACL SPARQL construct rules directly in the knowledge graph...");
-    Queue<String> constructQueries = this.shaclRuleProcesser.getConstructQueries(rules);
-    while (!constructQueries.isEmpty()) {
-      String currentQuery = constructQueries.poll();
+  public void execShaclRules(ShaclRuleSet rules, String instanceIri) {
+    this.execShaclRules(rules, List.of(instanceIri));
+  }
+
+  /**
+   * Executes the SHACL SPARQL construct rules on all available endpoints for a
+   * batch of instances. Each rule is evaluated with a SELECT query per group of
+   * instances, binding all their IRIs in a VALUES clause, and its results are
+   * written in grouped DELETE and INSERT updates without splitting any instance
+   * across updates. Rules are executed in order, so that a rule may query the
+   * triples inferred by a previous rule.
+   * 
+   * @param rules        The target SHACL rules.
+   * @param instanceIris The instance IRI strings.
+   */
+  public void execShaclRules(ShaclRuleSet rules, List<String> instanceIris) {
+    LOGGER.info("Executing SHACL SPARQL construct rules directly in the knowledge graph for {} instances...",
+        instanceIris.size());
+    for (ConstructRule rule : rules.constructRules()) {
       // Execute a SELECT query to retrieve all possible variables and their values in
       // the WHERE clause
-      String queryForExecution = this.shaclRuleProcesser.genSelectQuery(currentQuery, instanceIri);
-      List<SparqlBinding> results = this.query(queryForExecution, SparqlEndpointType.MIXED).stream()
-          .collect(Collectors.toList());
-      if (!results.isEmpty()) {
-        List<Triple> tripleList = this.shaclRuleProcesser.genConstructTriples(currentQuery);
-        // Generate the delete where query templates
-        String deleteWhereQuery = this.shaclRuleProcesser.genDeleteWhereQuery(tripleList, results);
-        // Using the results of the SELECT query as replacements to the CONSTRUCT
-        // clause, generate the INSERT DATA query
-        String insertDataQuery = this.shaclRuleProcesser.genInsertDataQuery(tripleList, results);
-        // Execute updates after the queries are generated to prevent incomplete query
-        this.executeUpdate(deleteWhereQuery);
-        this.executeUpdate(insertDataQuery);
+      List<SparqlBinding> results = new ArrayList<>();
+      for (int i = 0; i < instanceIris.size(); i += MAX_SHACL_RULE_TARGETS_PER_QUERY) {
+        List<String> targetIris = instanceIris.subList(i,
+            Math.min(i + MAX_SHACL_RULE_TARGETS_PER_QUERY, instanceIris.size()));
+        String queryForExecution = this.shaclRuleProcesser.genSelectQuery(rule, targetIris);
+        results.addAll(this.query(queryForExecution, SparqlEndpointType.MIXED));
+      }
+      // Group the results by target instance, so that a target's results are never
+      // split across updates; the DELETE of a later update would otherwise remove
+      // the triples that were just inserted for the same target
+      Map<String, List<SparqlBinding>> resultsByTarget = new LinkedHashMap<>();
+      results.forEach(result -> resultsByTarget
+          .computeIfAbsent(result.getFieldValue(QueryResource.THIS_KEY), k -> new ArrayList<>()).add(result));
+      List<SparqlBinding> batchResults = new ArrayList<>();
+      for (List<SparqlBinding> targetResults : resultsByTarget.values()) {
+        if (!batchResults.isEmpty()
+            && batchResults.size() + targetResults.size() > MAX_SHACL_RULE_RESULTS_PER_UPDATE) {
+          this.writeShaclRuleResults(rule.triples(), batchResults);
+          batchResults = new ArrayList<>();
+        }
+        batchResults.addAll(targetResults);
       }
+      if (!batchResults.isEmpty()) {
+        this.writeShaclRuleResults(rule.triples(), batchResults);
+      }
+    }
+  }
+
+  /**
+   * Replaces the triples inferred by a SHACL construct rule for the results in a
+   * single update request. The results must contain every result of their target
+   * instances.
+   * 
+   * @param tripleList   The list of triples in the CONSTRUCT template.
+   * @param batchResults The SELECT query results of the rule.
+   */
+  private void writeShaclRuleResults(List<Triple> tripleList, List<SparqlBinding> batchResults) {
+    // Generate the delete where query templates
+    String deleteWhereQuery = this.shaclRuleProcesser.genDeleteWhereQuery(tripleList, batchResults);
+    // Using the results of the SELECT query as replacements to the CONSTRUCT
+    // clause, generate the INSERT DATA query
+    String insertDataQuery = this.shaclRuleProcesser.genInsertDataQuery(tripleList, batchResults);
+    // Execute both updates in one request after the queries are generated to
+    // prevent incomplete query
+    int statusCode = this.executeUpdate(deleteWhereQuery + ";\n" + insertDataQuery);
+    if (statusCode != 200) {
+      LOGGER.warn("Failed to write the inferred triples of {} results with status code: {}",
+          batchResults.size(), statusCode);
     }
   }
 
@@ -291,7 +444,7 @@ public class KGService {
    * @param virtualFields Stores the fields that are in virtual queries.
    */
   public String getVirtualQueryStatements(String resourceID, Set<String> fields, Set<String> virtualFields) {
-    Model virtualRules = this.getShaclRules(resourceID, ShaclRuleType.SPARQL_VIRTUAL_RULE);
+    ShaclRuleSet virtualRules = this.getShaclRules(resourceID, ShaclRuleType.SPARQL_VIRTUAL_RULE);
     if (virtualRules.isEmpty()) {
       return "";
     }
@@ -311,7 +464,7 @@ public class KGService {
    * @param ids        List of ids that are relevant to the query.
    */
   public Map<String, SparqlBinding> execVirtualShaclRules(String resourceID, Queue<List<String>> ids) {
-    Model virtualRules = this.getShaclRules(resourceID, ShaclRuleType.SPARQL_VIRTUAL_RULE);
+    ShaclRuleSet virtualRules = this.getShaclRules(resourceID, ShaclRuleType.SPARQL_VIRTUAL_RULE);
     if (virtualRules.isEmpty()) {
       return new HashMap<>();
     }
@@ -360,19 +513,39 @@ public class KGService {
     if (firstQueue.isEmpty()) {
       return firstQueue;
     }
-    Queue<SparqlBinding> result = new ArrayDeque<>();
     // Group them by the IRI key
-    Map<String, List<SparqlBinding>> groupedBindings = firstQueue.stream()
-        .collect(Collectors.groupingBy(binding -> {
-          // If this is a lifecycle event occurrence, group them by event id
-          String id = binding.containsField(QueryResource.EVENT_ID_VAR.getVarName())
-              ? binding.getFieldValue(QueryResource.EVENT_ID_VAR.getVarName())
-              // Else group them by IRI if available or else id
-              : binding.containsField(QueryResource.IRI_KEY)
-                  ? binding.getFieldValue(QueryResource.IRI_KEY)
-                  : binding.getFieldValue(QueryResource.ID_KEY);
-          return id;
-        }));
+    Map<String, List<SparqlBinding>> groupedBindings = new LinkedHashMap<>();
+    firstQueue.forEach(binding -> this.groupBinding(groupedBindings, binding));
+    return this.combineGroupedBindings(groupedBindings, arrayVars);
+  }
+
+  /**
+   * Adds the binding to its group.
+   * 
+   * @param groupedBindings Mappings between each group key and their bindings.
+   * @param binding         The target binding.
+   */
+  private void groupBinding(Map<String, List<SparqlBinding>> groupedBindings, SparqlBinding binding) {
+    // If this is a lifecycle event occurrence, group them by event id
+    String id = binding.containsField(QueryResource.EVENT_ID_VAR.getVarName())
+        ? binding.getFieldValue(QueryResource.EVENT_ID_VAR.getVarName())
+        // Else group them by IRI if available or else id
+        : binding.containsField(QueryResource.IRI_KEY)
+            ? binding.getFieldValue(QueryResource.IRI_KEY)
+            : binding.getFieldValue(QueryResource.ID_KEY);
+    groupedBindings.computeIfAbsent(id, k -> new ArrayList<>()).add(binding);
+  }
+
+  /**
+   * Combines each group of bindings into one binding with array fields.
+   * 
+   * @param groupedBindings Mappings between each group key and their bindings.
+   * @param arrayVars       Mappings between each array group and their
+   *                        individual fields.
+   */
+  private Queue<SparqlBinding> combineGroupedBindings(Map<String, List<SparqlBinding>> groupedBindings,
+      Map<String, Set<String>> arrayVars) {
+    Queue<SparqlBinding> result = new ArrayDeque<>();
     // For the same IRI, combine them using the add field array method
     groupedBindings.values().forEach(groupedBinding -> {
       if (groupedBinding.isEmpty()) {
@@ -390,6 +563,17 @@ public class KGService {
     return result;
   }
 
+  /**
+   * Serialises the triples of the model as N-Triples for SPARQL data blocks.
+   * 
+   * @param model The target model.
+   */
+  private String writeTriples(Model model) {
+    StringWriter triples = new StringWriter();
+    RDFDataMgr.write(triples, model, Lang.NTRIPLES);
+    return triples.toString();
+  }
+
   /**
    * Executes the update query at the target endpoint.
    * 
@@ -400,10 +584,28 @@ public class KGService {
   public int executeUpdate(String query) {
     this.loggingService.logQuery(query, LOGGER);
     RemoteStoreClient kgClient = BlazegraphClient.getInstance().getRemoteStoreClient(this.namespace);
-    // Execute the request
-    try (CloseableHttpResponse response = kgClient.executeUpdateByPost(query)) {
-      return response.getStatusLine().getStatusCode();
-    } catch (IOException e) {
+    // Execute the request over the pooled client
+    try {
+      int statusCode = this.client.post()
+          .uri(kgClient.getUpdateEndpoint())
+          .headers(headers -> {
+            if (kgClient.getUser() != null) {
+              headers.setBasicAuth(kgClient.getUser(), kgClient.getPassword());
+            }
+          })
+          .contentType(QueryResource.SPARQL_UPDATE_MEDIA_TYPE)
+          .body(query)
+          .retrieve()
+          .toBodilessEntity()
+          .getStatusCode()
+          .value();
+      // Federated queries must not rely on source selection made before this update
+      this.kgRepository.invalidateFederations();
+      return statusCode;
+    } catch (RestClientResponseException e) {
+      LOGGER.error(e);
+      return e.getStatusCode().value();
+    } catch (RestClientException e) {
       LOGGER.error(e);
     }
     return 500;
@@ -0,0 +1,137 @@
+package com.cmclinnovations.agent.service.core;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.cmclinnovations.agent.component.cache.LocalCache;
+import com.cmclinnovations.agent.model.pagination.SortDirective;
+import com.cmclinnovations.agent.model.response.ColumnMetaPayload;
+import com.cmclinnovations.agent.model.util.QueryPlan;
+
+/**
+ * Caches the queries compiled from the SHACL shapes of a resource, so that
+ * repeated requests for the same resource only fill in their IDs, filter values
+ * and pagination. Compiled queries depend on the roles of the user, as fields
+ * are hidden from unauthorised users, and are keyed by their role set.
+ */
+@Service
+public class QueryPlanCacheService {
+  private final AuthenticationService authenticationService;
+  private final LocalCache<String, QueryPlan> queryPlans;
+  private final LocalCache<String, Map<String, String>> fieldStatements;
+
+  private static final String INSTANCE_PLAN_PREFIX = "instance";
+  private static final String ID_PLAN_PREFIX = "id";
+  private static final String KEY_SEPARATOR = "\n";
+
+  private static final Logger LOGGER = LogManager.getLogger(QueryPlanCacheService.class);
+
+  /**
+   * Constructs a new service.
+   *
+   * @param authenticationService Service to retrieve user roles and
+   *                              authentication information.
+   * @param maxSize               The maximum number of compiled queries to
+   *                              retain in each cache.
+   * @param ttlSeconds            Number of seconds before a compiled query
+   *                              expires. This bounds the staleness from changes
+   *                              to the SHACL shapes.
+   */
+  public QueryPlanCacheService(AuthenticationService authenticationService,
+      @Value("${QUERY_PLAN_CACHE_MAX_SIZE:500}") int maxSize,
+      @Value("${QUERY_PLAN_CACHE_TTL_SECONDS:300}") long ttlSeconds) {
+    this.authenticationService = authenticationService;
+    this.queryPlans = new LocalCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+    this.fieldStatements = new LocalCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+  }
+
+  /**
+   * Retrieves the cached plan of the query for instances of the resource, or
+   * compiles and caches it if it is missing or expired.
+   *
+   * @param shaclReplacement The replacement value of the SHACL query target.
+   * @param requireLabel     Indicates if labels should be returned for all the
+   *                         fields that are IRIs.
+   * @param addColumns       Additional columns to be included in the results.
+   * @param compiler         Compiles the plan on a cache miss.
+   */
+  public QueryPlan getInstanceQueryPlan(String shaclReplacement, boolean requireLabel,
+      List<ColumnMetaPayload> addColumns, Supplier<QueryPlan> compiler) {
+    String key = genKey(INSTANCE_PLAN_PREFIX, shaclReplacement, String.valueOf(requireLabel),
+        this.authenticationService.getRoleFingerprint(), addColumns.toString());
+    return this.queryPlans.get(key, cacheKey -> {
+      LOGGER.debug("Cache Miss: compiling the instance query plan for {}", shaclReplacement);
+      return compiler.get();
+    });
+  }
+
+  /**
+   * Retrieves the cached plan of the query for a page of IDs of the resource, or
+   * compiles and caches it if it is missing or expired. The query only targets
+   * the node shape, and does not depend on the user roles.
+   *
+   * @param shaclReplacement The replacement value of the SHACL query target.
+   * @param sortDirectives   The sort directives of the page.
+   * @param compiler         Compiles the plan on a cache miss.
+   */
+  public QueryPlan getIdQueryPlan(String shaclReplacement, List<SortDirective> sortDirectives,
+      Supplier<QueryPlan> compiler) {
+    String key = genKey(ID_PLAN_PREFIX, shaclReplacement, sortDirectives.stream()
+        .map(directive -> directive.order().getQueryString())
+        .collect(Collectors.joining(",")));
+    return this.queryPlans.get(key, cacheKey -> {
+      LOGGER.debug("Cache Miss: compiling the ID query plan for {}", shaclReplacement);
+      return compiler.get();
+    });
+  }
+
+  /**
+   * Retrieves the cached statements of the sort and filter fields of the
+   * resource, or generates and caches them if they are missing or expired. The
+   * statements are independent of the filter values, which are filled in by the
+   * caller.
+   *
+   * @param shaclReplacement The replacement value of the SHACL query target.
+   * @param sortedFields     The fields for sorting.
+   * @param filterFields     The fields for filtering.
+   * @param generator        Generates the statements on a cache miss.
+   */
+  public Map<String, String> getFieldStatements(String shaclReplacement, Set<String> sortedFields,
+      Set<String> filterFields, Supplier<Map<String, String>> generator) {
+    String key = genKey(shaclReplacement, this.authenticationService.getRoleFingerprint(), genSetKey(sortedFields),
+        genSetKey(filterFields));
+    return this.fieldStatements.get(key, cacheKey -> {
+      LOGGER.debug("Cache Miss: generating the field statements for {}", shaclReplacement);
+      return generator.get();
+    });
+  }
+
+  /**
+   * Generates a key for the set that is independent of its iteration order.
+   *
+   * @param values The target set.
+   */
+  private static String genSetKey(Collection<String> values) {
+    return String.join(",", new TreeSet<>(values));
+  }
+
+  /**
+   * Generates the cache key from its parts.
+   *
+   * @param parts The parts of the key.
+   */
+  private static String genKey(String... parts) {
+    return String.join(KEY_SEPARATOR, parts);
+  }
+}
@@ -3,23 +3,41 @@ package com.cmclinnovations.agent.service.core;
 import java.nio.file.FileSystemNotFoundException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.function.Supplier;
 
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.core.BasicPattern;
+import org.apache.jena.sparql.modify.request.UpdateModify;
+import org.apache.jena.sparql.syntax.Template;
+import org.apache.jena.update.UpdateFactory;
+import org.apache.jena.update.UpdateRequest;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.eclipse.rdf4j.sparqlbuilder.constraint.Expressions;
+import org.eclipse.rdf4j.sparqlbuilder.core.OrderCondition;
+import org.eclipse.rdf4j.sparqlbuilder.core.SparqlBuilder;
+import org.eclipse.rdf4j.sparqlbuilder.core.Variable;
 import org.eclipse.rdf4j.sparqlbuilder.core.query.SelectQuery;
+import org.eclipse.rdf4j.sparqlbuilder.graphpattern.GraphPatterns;
+import org.eclipse.rdf4j.sparqlbuilder.graphpattern.SubSelect;
+import org.eclipse.rdf4j.sparqlbuilder.graphpattern.TriplePattern;
 import org.eclipse.rdf4j.sparqlbuilder.rdf.Rdf;
 import org.springframework.stereotype.Service;
 
 import com.cmclinnovations.agent.model.QueryTemplateFactoryParameters;
 import com.cmclinnovations.agent.model.SparqlBinding;
+import com.cmclinnovations.agent.model.pagination.PageCursor;
 import com.cmclinnovations.agent.model.pagination.PaginationState;
 import com.cmclinnovations.agent.model.pagination.SortDirective;
 import com.cmclinnovations.agent.model.response.ColumnMetaPayload;
 import com.cmclinnovations.agent.model.util.DataManifest;
+import com.cmclinnovations.agent.model.util.QueryPlan;
 import com.cmclinnovations.agent.template.FormTemplateFactory;
 import com.cmclinnovations.agent.template.query.DeleteQueryTemplateFactory;
 import com.cmclinnovations.agent.template.query.GetQueryTemplateFactory;
@@ -69,7 +87,7 @@ public class QueryTemplateService {
    */
   public ObjectNode getJsonLdTemplate(String resourceID) {
     LOGGER.debug("Retrieving the JSON-LD template...");
-    return this.getJsonLDResource(resourceID).deepCopy();
+    return this.getJsonLDResource(resourceID);
   }
 
   /**
@@ -83,12 +101,34 @@ public class QueryTemplateService {
   public String genDeleteQuery(String resourceID, String targetId, String branchName, Set<String> optVarNames) {
     LOGGER.debug("Generating the DELETE query with branchName = {}", branchName);
     // Retrieve the instantiation JSON schema
-    ObjectNode addJsonSchema = this.getJsonLDResource(resourceID).deepCopy();
+    ObjectNode addJsonSchema = this.getJsonLDResource(resourceID);
     return this.deleteQueryTemplateFactory
         .write(new QueryTemplateFactoryParameters(addJsonSchema, targetId, branchName, optVarNames))
         .data();
   }
 
+  /**
+   * Generates a CONSTRUCT SPARQL query that retrieves the triples that would be
+   * removed by the DELETE query, using the same template and WHERE clause.
+   * 
+   * @param deleteQuery The DELETE query.
+   */
+  public String genConstructQuery(String deleteQuery) {
+    UpdateRequest request = UpdateFactory.create(deleteQuery);
+    if (request.getOperations().size() != 1
+        || !(request.getOperations().get(0) instanceof UpdateModify deleteOperation)) {
+      throw new IllegalArgumentException("The provided query is not a single DELETE query: " + deleteQuery);
+    }
+    BasicPattern constructTemplate = new BasicPattern();
+    deleteOperation.getDeleteQuads().forEach(quad -> constructTemplate.add(quad.asTriple()));
+    Query query = QueryFactory.make();
+    query.setPrefixMapping(request.getPrefixMapping());
+    query.setQueryConstructType();
+    query.setConstructTemplate(new Template(constructTemplate));
+    query.setQueryPattern(deleteOperation.getWherePattern());
+    return query.serialize();
+  }
+
   /**
    * Generates a DELETE SPARQL query for a lifecycle occurrence constrained by its
    * event type.
@@ -102,7 +142,7 @@ public class QueryTemplateService {
   public String genDeleteLifecycleOccurrenceQuery(String resourceID, String targetId, String branchName,
       Set<String> optVarNames, String eventType) {
     LOGGER.debug("Generating the lifecycle occurrence DELETE query with branchName = {}", branchName);
-    ObjectNode addJsonSchema = this.getJsonLDResource(resourceID).deepCopy();
+    ObjectNode addJsonSchema = this.getJsonLDResource(resourceID);
     JsonNode eventNode = addJsonSchema.path(LifecycleResource.EXEMPLIFIES_RELATIONS);
     if (!eventNode.isObject()) {
       throw new IllegalArgumentException("Lifecycle occurrence JSON-LD must define an exemplifies relation!");
@@ -135,18 +175,48 @@ public class QueryTemplateService {
   public SelectQuery getAllInstancesQueryTemplate(String nodeShapeReplacement, PaginationState pagination, boolean requireId,
       boolean requireIri) {
     // If pagination is not given, no limits and offset should be set
-    SelectQuery query = QueryResource.getSelectQuery(true, pagination.getLimit())
-        .where(QueryResource.IRI_VAR.isA(Rdf.iri(
-            nodeShapeReplacement.substring(1, nodeShapeReplacement.length() - 1)))
-            .andHas(QueryResource.DC_TERM_ID, QueryResource.ID_VAR))
+    SelectQuery query = this.genAllInstancesQuery(nodeShapeReplacement, pagination.getSortDirectives(), requireId,
+        requireIri)
         .offset(pagination.getOffset());
+    if (pagination.getLimit() != null) {
+      query.limit(pagination.getLimit());
+    }
+    return query;
+  }
+
+  /**
+   * Compiles the query to get the IDs of all instances in their sort order into
+   * a plan, with a slot for additional statements. The LIMIT and OFFSET
+   * modifiers are appended when the plan is filled.
+   * 
+   * @param nodeShapeReplacement The statement to target the node shape.
+   * @param sortDirectives       The sort directives of the query.
+   */
+  public QueryPlan compileAllIdsQuery(String nodeShapeReplacement, List<SortDirective> sortDirectives) {
+    SelectQuery query = this.genAllInstancesQuery(nodeShapeReplacement, new ArrayDeque<>(sortDirectives), true,
+        false);
+    return QueryPlan.of(this.addStringStatements(query, QueryPlan.SLOT));
+  }
+
+  /**
+   * Generates the query to get all instances in their sort order without any
+   * LIMIT or OFFSET modifiers.
+   * 
+   * @param nodeShapeReplacement The statement to target the node shape.
+   * @param sortDirectives       The sort directives, which are consumed.
+   * @param requireId            If the results should include ID.
+   * @param requireIri           If the results should include IRI variable.
+   */
+  private SelectQuery genAllInstancesQuery(String nodeShapeReplacement, Queue<SortDirective> sortDirectives,
+      boolean requireId, boolean requireIri) {
+    SelectQuery query = QueryResource.getSelectQuery(true, null)
+        .where(this.genInstancePattern(nodeShapeReplacement));
     if (requireId) {
       query.select(QueryResource.ID_VAR);
     }
     if (requireIri) {
       query.select(QueryResource.IRI_VAR);
     }
-    Queue<SortDirective> sortDirectives = pagination.getSortDirectives();
     boolean hasNoIdToSort = sortDirectives.stream()
         .allMatch(directive -> !directive.field().getVarName().equals(QueryResource.ID_KEY));
     while (!sortDirectives.isEmpty()) {
@@ -163,6 +233,185 @@ public class QueryTemplateService {
     return query;
   }
 
+  /**
+   * Retrieves the query template to count all instances, which returns a single
+   * row with the count bound to the `count` variable. Instances are counted by
+   * their distinct ID, or by the distinct combination of ID and any additional
+   * sorted fields such as event IDs, in the same manner as the ids retrieved by
+   * `getAllInstancesQueryTemplate`. Limits, offsets and ordering are ignored.
+   * 
+   * @param nodeShapeReplacement The statement to target the node shape.
+   * @param pagination           State containing the sort fields and filters.
+   */
+  public SelectQuery getCountInstancesQueryTemplate(String nodeShapeReplacement, PaginationState pagination) {
+    Set<Variable> distinctVars = new LinkedHashSet<>();
+    distinctVars.add(QueryResource.ID_VAR);
+    pagination.getSortDirectives().forEach(directive -> distinctVars.add(directive.field()));
+    if (distinctVars.size() == 1) {
+      return QueryResource.getSelectQuery(false, null)
+          .select(Expressions.count(QueryResource.ID_VAR).distinct().as(QueryResource.COUNT_VAR))
+          .where(this.genInstancePattern(nodeShapeReplacement));
+    }
+    // COUNT(DISTINCT) only accepts one expression, so distinct rows are counted in a
+    // sub-query instead
+    SubSelect distinctInstances = GraphPatterns.select(distinctVars.toArray(new Variable[0]))
+        .distinct()
+        .where(this.genInstancePattern(nodeShapeReplacement));
+    return QueryResource.getSelectQuery(false, null)
+        .select(Expressions.countAll().as(QueryResource.COUNT_VAR))
+        .where(distinctInstances);
+  }
+
+  /**
+   * Wraps the query retrieving a page of IDs as a sub-query, so that the page and
+   * its instances can be retrieved in a single query. The sort fields of the page
+   * are renamed to prevent them from joining with instance fields of the same
+   * name, and the outer query must be ordered with `genPageOrderBy`.
+   * 
+   * @param idQuery        The query retrieving the page of IDs.
+   * @param sortDirectives The sort directives of the page.
+   */
+  public String genPageSubQuery(String idQuery, List<SortDirective> sortDirectives) {
+    StringBuilder projection = new StringBuilder(QueryResource.ID_VAR.getQueryString());
+    sortDirectives.stream()
+        .filter(directive -> !directive.field().getVarName().equals(QueryResource.ID_KEY))
+        .forEach(directive -> projection.append(" (")
+            .append(directive.field().getQueryString())
+            .append(" AS ")
+            .append(this.genPageSortVariable(directive.field()).getQueryString())
+            .append(")"));
+    // Prefixes are declared by the outer query and cannot be repeated in a
+    // sub-query
+    String idSubQuery = idQuery.substring(idQuery.indexOf("SELECT"));
+    return "{SELECT " + projection + " WHERE {\n" + idSubQuery + "}}\n";
+  }
+
+  /**
+   * Generates the ORDER BY clause to retrieve the instances of a page in the same
+   * order as the IDs of the page sub-query generated by `genPageSubQuery`.
+   * 
+   * @param sortDirectives The sort directives of the page.
+   */
+  public String genPageOrderBy(List<SortDirective> sortDirectives) {
+    List<OrderCondition> orderConditions = new ArrayList<>();
+    boolean hasNoIdToSort = true;
+    for (SortDirective directive : sortDirectives) {
+      Variable sortVar = QueryResource.ID_VAR;
+      if (directive.field().getVarName().equals(QueryResource.ID_KEY)) {
+        hasNoIdToSort = false;
+      } else {
+        sortVar = this.genPageSortVariable(directive.field());
+      }
+      orderConditions.add(isDescending(directive) ? SparqlBuilder.desc(sortVar) : SparqlBuilder.asc(sortVar));
+    }
+    // ID is an index and has to be included even if not specified by the user
+    if (hasNoIdToSort) {
+      orderConditions.add(SparqlBuilder.asc(QueryResource.ID_VAR));
+    }
+    return SparqlBuilder.orderBy(orderConditions.toArray(new OrderCondition[0])).getQueryString();
+  }
+
+  /**
+   * Generates the FILTER clause for keyset pagination, which only retains the
+   * rows sorted after the cursor of the previous page. Unbound sort fields are
+   * ordered first in ascending order and last in descending order, following the
+   * ORDER BY clause. Terms are compared with the same precedence as ORDER BY,
+   * where blank nodes are sorted before IRIs and IRIs before literals, so that
+   * rows that cannot be compared with the cursor value are not dropped by a type
+   * error. Returns an empty string if there is no cursor.
+   * 
+   * @param pagination The pagination state containing the cursor.
+   */
+  public String genKeysetFilter(PaginationState pagination) {
+    PageCursor cursor = pagination.getCursor();
+    if (cursor == null) {
+      return "";
+    }
+    List<SortDirective> directives = pagination.getKeysetDirectives();
+    List<String> afterCursorConditions = new ArrayList<>();
+    StringBuilder equalConditions = new StringBuilder();
+    for (int i = 0; i < directives.size(); i++) {
+      SortDirective directive = directives.get(i);
+      String sortVar = directive.field().getQueryString();
+      String value = cursor.values().get(i);
+      String afterCondition;
+      String equalCondition;
+      if (value == null) {
+        afterCondition = isDescending(directive) ? null : "BOUND(" + sortVar + ")";
+        equalCondition = "!BOUND(" + sortVar + ")";
+      } else {
+        afterCondition = genKeysetAfterCondition(sortVar, value, isDescending(directive));
+        // Incomparable terms are not equal instead of raising a type error
+        equalCondition = "(BOUND(" + sortVar + ") && COALESCE(" + sortVar + " = " + value + ", false))";
+      }
+      if (afterCondition != null) {
+        afterCursorConditions.add("(" + equalConditions + afterCondition + ")");
+      }
+      equalConditions.append(equalCondition).append(" && ");
+    }
+    if (afterCursorConditions.isEmpty()) {
+      // Nothing is sorted after the cursor
+      return "FILTER(false)";
+    }
+    return "FILTER(" + String.join(" || ", afterCursorConditions) + ")";
+  }
+
+  /**
+   * Generates the condition for the bound values of a sort field that are sorted
+   * after the cursor value. IRIs are compared by their string form, as in ORDER
+   * BY. Literals are compared by their string form if their datatypes cannot be
+   * compared.
+   * 
+   * @param sortVar    The sort variable.
+   * @param value      The cursor value, which is either an IRI or a literal.
+   * @param descending Indicates if the field is sorted in descending order.
+   */
+  private static String genKeysetAfterCondition(String sortVar, String value, boolean descending) {
+    String operator = descending ? " < " : " > ";
+    if (value.startsWith("<")) {
+      String iriCondition = "(isIRI(" + sortVar + ") && STR(" + sortVar + ")" + operator + "STR(" + value + "))";
+      return descending
+          ? "(!BOUND(" + sortVar + ") || isBlank(" + sortVar + ") || " + iriCondition + ")"
+          : "(BOUND(" + sortVar + ") && (isLiteral(" + sortVar + ") || " + iriCondition + "))";
+    }
+    String literalCondition = "COALESCE(" + sortVar + operator + value + ", STR(" + sortVar + ")" + operator
+        + "STR(" + value + "))";
+    return descending
+        ? "(!BOUND(" + sortVar + ") || !isLiteral(" + sortVar + ") || " + literalCondition + ")"
+        : "(BOUND(" + sortVar + ") && isLiteral(" + sortVar + ") && " + literalCondition + ")";
+  }
+
+  /**
+   * Indicates if the sort directive is in descending order.
+   * 
+   * @param directive The sort directive.
+   */
+  private static boolean isDescending(SortDirective directive) {
+    return directive.order().getQueryString().startsWith("DESC");
+  }
+
+  /**
+   * Generates the variable holding the value of a sort field in the page
+   * sub-query.
+   * 
+   * @param field The sort field.
+   */
+  private Variable genPageSortVariable(Variable field) {
+    return SparqlBuilder.var("page_sort_" + field.getVarName());
+  }
+
+  /**
+   * Generates the triple pattern to target all instances of the node shape with
+   * their ID.
+   * 
+   * @param nodeShapeReplacement The statement to target the node shape.
+   */
+  private TriplePattern genInstancePattern(String nodeShapeReplacement) {
+    return QueryResource.IRI_VAR.isA(Rdf.iri(
+        nodeShapeReplacement.substring(1, nodeShapeReplacement.length() - 1)))
+        .andHas(QueryResource.DC_TERM_ID, QueryResource.ID_VAR);
+  }
+
   /**
    * Adds additional query statements constructed as strings.
    * 
@@ -254,15 +503,20 @@ public class QueryTemplateService {
   }
 
   /**
-   * Generates the form template as a JSON object.
+   * Generates the form template as a JSON object. The form inputs are only
+   * queried if the shapes authorised for the user roles are not cached for the
+   * form query.
    * 
-   * @param shaclFormInputs the form inputs queried from the SHACL restrictions.
+   * @param formQuery       the query for the form inputs, which identifies the
+   *                        form.
+   * @param shaclFormInputs supplies the form inputs queried from the SHACL
+   *                        restrictions.
    * @param defaultVals     the default values for the form.
    */
-  public Map<String, Object> genFormTemplate(ArrayNode shaclFormInputs,
+  public Map<String, Object> genFormTemplate(String formQuery, Supplier<ArrayNode> shaclFormInputs,
       Map<String, Object> defaultVals) {
     LOGGER.debug("Generating the form template from the found SHACL restrictions...");
-    return this.formTemplateFactory.genTemplate(shaclFormInputs, defaultVals);
+    return this.formTemplateFactory.genTemplate(formQuery, shaclFormInputs, defaultVals);
   }
 
   /**
@@ -275,7 +529,8 @@ public class QueryTemplateService {
   }
 
   /**
-   * Generates a SELECT SPARQL query to retrieve instances from the inputs.
+   * Generates a SELECT SPARQL query to retrieve instances from the inputs. The
+   * manifest holds the array variables of the query to combine its results.
    * 
    * @param queryVarsAndPaths  The query construction requirements.
    * @param targetIds          An optional field with the specific IDs to target.
@@ -291,6 +546,35 @@ public class QueryTemplateService {
             new QueryTemplateFactoryParameters(queryVarsAndPaths, targetIds, addQueryStatements, addColumns));
   }
 
+  /**
+   * Compiles the SELECT SPARQL query to retrieve instances into a plan, with a
+   * slot for additional statements and the IDs to target.
+   * 
+   * @param shaclReplacement  The replacement value of the SHACL query target.
+   * @param requireLabel      Indicates if labels should be returned for all the
+   *                          fields that are IRIs.
+   * @param queryVarsAndPaths The query construction requirements.
+   * @param addColumns        Optional additional columns to be included in the
+   *                          results.
+   */
+  public QueryPlan compileGetQuery(String shaclReplacement, boolean requireLabel,
+      Queue<Queue<SparqlBinding>> queryVarsAndPaths, List<ColumnMetaPayload> addColumns) {
+    LOGGER.debug("Compiling the SELECT query plan to get instances...");
+    return QueryPlan.of(this.getQueryTemplateFactory.write(new QueryTemplateFactoryParameters(
+        genShapeKey(shaclReplacement, requireLabel), queryVarsAndPaths, new ArrayDeque<>(), QueryPlan.SLOT,
+        addColumns)));
+  }
+
+  /**
+   * Generates the VALUES clause targeting the IDs, and their event IDs if
+   * available. Returns an empty string if there are no IDs.
+   * 
+   * @param targetIds The IDs to target.
+   */
+  public String genIdValuesClause(Queue<List<String>> targetIds) {
+    return this.getQueryTemplateFactory.genIdValuesClause(targetIds);
+  }
+
   /**
    * Generates a WHERE SPARQL query to retrieve instances from the inputs.
    * 
@@ -302,27 +586,37 @@ public class QueryTemplateService {
   }
 
   /**
-   * Generates a SELECT SPARQL query for searching instances from the inputs.
+   * Generates a SELECT SPARQL query for searching instances from the inputs,
+   * reusing the shapes authorised for the user roles if they have been parsed
+   * for the SHACL query target.
    * 
+   * @param shaclReplacement  The replacement value of the SHACL query target.
    * @param queryVarsAndPaths The query construction requirements.
    * @param criterias         All the available search criteria inputs.
    */
-  public String genSearchQuery(Queue<Queue<SparqlBinding>> queryVarsAndPaths, Map<String, String> criterias) {
+  public String genSearchQuery(String shaclReplacement, Queue<Queue<SparqlBinding>> queryVarsAndPaths,
+      Map<String, String> criterias) {
     LOGGER.debug("Generating the SELECT query to search for specific instances...");
     return this.searchQueryTemplateFactory
-        .write(new QueryTemplateFactoryParameters(queryVarsAndPaths, criterias))
+        .write(new QueryTemplateFactoryParameters(genShapeKey(shaclReplacement, false), queryVarsAndPaths,
+            criterias))
         .data();
   }
 
   /**
-   * Retrieve the mappings of array variables grouped by groups.
+   * Generates the key identifying the node shapes of the SHACL query target,
+   * which matches the key of the cached SHACL query results.
+   * 
+   * @param shaclReplacement The replacement value of the SHACL query target.
+   * @param requireLabel     Indicates if labels are returned for all the fields
+   *                         that are IRIs.
    */
-  public Map<String, Set<String>> getArrayVariables() {
-    return this.getQueryTemplateFactory.getArrayVariables();
+  private static String genShapeKey(String shaclReplacement, boolean requireLabel) {
+    return shaclReplacement + "-" + requireLabel;
   }
 
   /**
-   * Retrieve the JSON LD resource based on the resource ID.
+   * Retrieve a copy of the JSON LD resource based on the resource ID.
    * 
    * @param resourceID The target resource identifier for the instance.
    */
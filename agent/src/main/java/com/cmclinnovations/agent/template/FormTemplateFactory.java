@@ -1,20 +1,22 @@
 package com.cmclinnovations.agent.template;
 
-import java.util.ArrayDeque;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.cmclinnovations.agent.component.cache.LocalCache;
 import com.cmclinnovations.agent.model.SparqlResponseField;
 import com.cmclinnovations.agent.service.core.AuthenticationService;
 import com.cmclinnovations.agent.service.core.JsonLdService;
@@ -29,15 +31,12 @@ import tools.jackson.databind.node.ObjectNode;
 public class FormTemplateFactory {
   private final AuthenticationService authenticationService;
   private final JsonLdService jsonLdService;
-
-  // Data stores
-  private Queue<JsonNode> properties;
-  private Map<String, Object> form;
-  private Map<String, JsonNode> groups;
-  private Map<String, JsonNode> nodes;
-
   private final Map<String, String> context;
   private final Map<String, Object> idPropertyShape;
+  private final LocalCache<String, ShapeStore> shapeCache;
+
+  private static final int SHAPE_CACHE_SIZE = 256;
+  private static final Duration SHAPE_CACHE_TTL = Duration.ofMinutes(5);
   private static final Logger LOGGER = LogManager.getLogger(FormTemplateFactory.class);
 
   /**
@@ -51,6 +50,7 @@ public class FormTemplateFactory {
     this.jsonLdService = jsonLdService;
     this.context = this.setupContext();
     this.idPropertyShape = this.setupIdPropertyShape();
+    this.shapeCache = new LocalCache<>(SHAPE_CACHE_SIZE, SHAPE_CACHE_TTL);
   }
 
   /**
@@ -61,29 +61,52 @@ public class FormTemplateFactory {
    *                    existing entity.
    */
   public Map<String, Object> genTemplate(ArrayNode data, Map<String, Object> defaultVals) {
-    this.reset(); // Reset each time method is called to prevent any data storage
     LOGGER.debug("Generating template from query results...");
-    this.sortData(data);
-
-    // No template should be generated if there are no properties
-    if (this.properties.isEmpty()) {
-      return new HashMap<>();
-    } else {
-      this.form.put(ShaclResource.CONTEXT_KEY, this.context);
-      this.parseInputs(defaultVals);
-    }
+    // Shapes are held per call, so that templates can be generated concurrently
+    return this.genTemplate(this.sortData(data), defaultVals);
+  }
 
-    return this.form;
+  /**
+   * Generate form template in JSON object format. The shapes authorised for the
+   * user roles are cached for the form and role set, so that the data is only
+   * supplied if they are missing or expired. Returns null if there are no
+   * shapes for the form.
+   * 
+   * @param formKey     Identifies the form, such as the query for its data.
+   * @param data        Supplies the data to be parsed for form template.
+   * @param defaultVals Default values for the form template if there is an
+   *                    existing entity.
+   */
+  public Map<String, Object> genTemplate(String formKey, Supplier<ArrayNode> data, Map<String, Object> defaultVals) {
+    LOGGER.debug("Generating template from cached shapes...");
+    ShapeStore shapes = this.shapeCache.get(formKey + "-" + this.authenticationService.getRoleFingerprint(), key -> {
+      LOGGER.debug("Cache Miss: sorting the shapes of the form...");
+      ArrayNode fields = data.get();
+      // Empty results are not cached
+      return fields.isEmpty() ? null : this.sortData(fields);
+    });
+    return shapes == null ? null : this.genTemplate(shapes, defaultVals);
   }
 
   /**
-   * Resets the factory.
+   * Generate form template in JSON object format from the sorted shapes.
+   * 
+   * @param shapes      The sorted shapes of the form.
+   * @param defaultVals Default values for the form template if there is an
+   *                    existing entity.
    */
-  private void reset() {
-    this.form = new HashMap<>();
-    this.groups = new HashMap<>();
-    this.nodes = new HashMap<>();
-    this.properties = new ArrayDeque<>();
+  private Map<String, Object> genTemplate(ShapeStore shapes, Map<String, Object> defaultVals) {
+    Map<String, Object> form = new HashMap<>();
+
+    // No template should be generated if there are no properties
+    if (!shapes.hasProperties()) {
+      return form;
+    } else {
+      form.put(ShaclResource.CONTEXT_KEY, this.context);
+      this.parseInputs(shapes, defaultVals, form);
+    }
+
+    return form;
   }
 
   /**
@@ -130,22 +153,40 @@ public class FormTemplateFactory {
   }
 
   /**
-   * Sorts the data fields into property or property group.
+   * Sorts the data fields into property or property group. Property shapes that
+   * the user is not authorised to view are excluded.
    * 
    * @param fields Fields to category.
    */
-  private void sortData(ArrayNode fields) {
+  private ShapeStore sortData(ArrayNode fields) {
+    boolean hasProperties = false;
+    List<JsonNode> properties = new ArrayList<>();
+    Map<String, JsonNode> groups = new HashMap<>();
+    Map<String, JsonNode> nodes = new HashMap<>();
+    boolean isAuthenticationEnabled = this.authenticationService.isAuthenticationEnabled();
+    Set<String> userRoles = isAuthenticationEnabled ? this.authenticationService.getUserRoles() : Set.of();
     // All array nodes will be followed up with a get(index) if they are arrays,
     // else, path are used for object nodes
     for (JsonNode field : fields) {
       if (field.has(ShaclResource.TYPE_KEY)) {
         String type = field.path(ShaclResource.TYPE_KEY).get(0).asString();
         if (type.equals(ShaclResource.SHACL_PREFIX + ShaclResource.PROPERTY_SHAPE)) {
-          this.properties.offer(field);
+          hasProperties = true;
+          // If authorisation is enabled, and there are roles associated to the
+          // property, only show the form field IF the user has the authority to do so
+          if (isAuthenticationEnabled && field.has(ShaclResource.TWA_FORM_PREFIX + ShaclResource.ROLE_PROPERTY)) {
+            String unmappedPropertyRoles = field.path(ShaclResource.TWA_FORM_PREFIX + ShaclResource.ROLE_PROPERTY)
+                .get(0).path(ShaclResource.VAL_KEY).asString();
+            // Skip this field if permission is not given
+            if (this.authenticationService.isUnauthorised(userRoles, unmappedPropertyRoles)) {
+              continue;
+            }
+          }
+          properties.add(field);
         } else if (type.equals(ShaclResource.SHACL_PREFIX + ShaclResource.PROPERTY_GROUP)) {
-          this.groups.put(field.path(ShaclResource.ID_KEY).asString(), field);
+          groups.put(field.path(ShaclResource.ID_KEY).asString(), field);
         } else if (type.equals(ShaclResource.SHACL_PREFIX + ShaclResource.NODE_SHAPE)) {
-          this.nodes.put(field.path(ShaclResource.ID_KEY).asString(), field);
+          nodes.put(field.path(ShaclResource.ID_KEY).asString(), field);
         } else {
           LOGGER.error("Invalid input node! Only property shape, property group, and node shape is allowed.");
           throw new IllegalArgumentException(
@@ -153,32 +194,23 @@ public class FormTemplateFactory {
         }
       }
     }
+    return new ShapeStore(hasProperties, List.copyOf(properties), Collections.unmodifiableMap(groups),
+        Collections.unmodifiableMap(nodes));
   }
 
   /**
    * Parse the property inputs into Spring Boot compliant JSON response format.
    * 
+   * @param shapes      The sorted shapes of the form.
    * @param defaultVals Default values for the form template if there is an
    *                    existing entity.
+   * @param form        The form template to store the outputs.
    */
-  private void parseInputs(Map<String, Object> defaultVals) {
+  private void parseInputs(ShapeStore shapes, Map<String, Object> defaultVals, Map<String, Object> form) {
     Map<String, Map<String, Map<String, Object>>> altProperties = new HashMap<>();
     Map<String, Map<String, Object>> defaultProperties = new HashMap<>();
-    Set<String> userRoles = this.authenticationService.getUserRoles();
-    while (!this.properties.isEmpty()) {
-      JsonNode currentProperty = this.properties.poll();
-      // If authorisation is enabled, and there are roles associated to the property,
-      // only show the form field IF the user has the authority to do so
-      if (this.authenticationService.isAuthenticationEnabled()
-          && currentProperty.has(ShaclResource.TWA_FORM_PREFIX + ShaclResource.ROLE_PROPERTY)) {
-        String unmappedPropertyRoles = currentProperty.path(ShaclResource.TWA_FORM_PREFIX + ShaclResource.ROLE_PROPERTY)
-            .get(0).path(ShaclResource.VAL_KEY).asString();
-        // Skip this iteration if permission is not given
-        if (this.authenticationService.isUnauthorised(userRoles, unmappedPropertyRoles)) {
-          continue;
-        }
-      }
-
+    // Unauthorised properties have been excluded when sorting the shapes
+    for (JsonNode currentProperty : shapes.properties()) {
       // If the property belongs to a node shape, extract the properties into another
       // set of mapping
       if (currentProperty.has(ShaclResource.TWA_FORM_PREFIX + ShaclResource.BELONGS_TO_PROPERTY)) {
@@ -194,12 +226,12 @@ public class FormTemplateFactory {
         for (JsonNode nodePropertyNode : typedTargetNode) {
           String nodeId = nodePropertyNode.path(ShaclResource.ID_KEY).asString();
           Map<String, Map<String, Object>> nodeProperties = altProperties.getOrDefault(nodeId, new HashMap<>());
-          this.parseProperty(currentProperty, defaultVals, nodeProperties);
+          this.parseProperty(shapes.groups(), currentProperty, defaultVals, nodeProperties);
           altProperties.put(nodeId, nodeProperties);
         }
       } else {
         // Else simply generate the property
-        this.parseProperty(currentProperty, defaultVals, defaultProperties);
+        this.parseProperty(shapes.groups(), currentProperty, defaultVals, defaultProperties);
       }
     }
     List<Map<String, Object>> outputDefaultProperties = this.genOutputs(defaultProperties);
@@ -208,13 +240,13 @@ public class FormTemplateFactory {
       idShapeMappings.put(ShaclResource.DEFAULT_VAL_PROPERTY, defaultVals.get(QueryResource.ID_KEY));
     }
     outputDefaultProperties.add(0, idShapeMappings);
-    this.form.put(ShaclResource.PROPERTY_PROPERTY, outputDefaultProperties);
+    form.put(ShaclResource.PROPERTY_PROPERTY, outputDefaultProperties);
 
     // Branches
     List<Map<String, Object>> nodeShape = new ArrayList<>();
-    boolean hasOrderProperty = this.nodes.values().stream()
+    boolean hasOrderProperty = shapes.nodes().values().stream()
         .anyMatch(node -> node.has(ShaclResource.SHACL_ORDER_PROPERTY));
-    this.nodes.forEach((key, node) -> {
+    shapes.nodes().forEach((key, node) -> {
       Map<String, Object> output = new HashMap<>();
       if (node.has(ShaclResource.SHACL_ORDER_PROPERTY)) {
         output.put(ShaclResource.SHACL_ORDER_PROPERTY,
@@ -233,18 +265,19 @@ public class FormTemplateFactory {
     if (hasOrderProperty) {
       nodeShape.sort(Comparator.comparingInt(map -> (int) map.get(ShaclResource.SHACL_ORDER_PROPERTY)));
     }
-    this.form.put(ShaclResource.NODE_PROPERTY, nodeShape);
+    form.put(ShaclResource.NODE_PROPERTY, nodeShape);
   }
 
   /**
    * Parses and stores the properties and groups into the result mappings.
    * 
+   * @param groups         Mappings between group IDs and their shapes.
    * @param property       Target property.
    * @param defaultVals    Default values for the form template if there is an
    *                       existing entity.
    * @param resultMappings Mappings to store the parsed property.
    */
-  private void parseProperty(JsonNode property, Map<String, Object> defaultVals,
+  private void parseProperty(Map<String, JsonNode> groups, JsonNode property, Map<String, Object> defaultVals,
       Map<String, Map<String, Object>> resultMappings) {
     // When there is a group
     if (property.has(ShaclResource.SHACL_PREFIX + ShaclResource.GROUP_PROPERTY)) {
@@ -253,31 +286,33 @@ public class FormTemplateFactory {
       // Retrieve existing group in parsed model if available, or else, generate one
       // from the associated group
       Map<String, Object> group = resultMappings.getOrDefault(groupId,
-          this.parseInputModel(this.groups.get(groupId), defaultVals));
+          this.parseInputModel(groups, groups.get(groupId), defaultVals));
       // Retrieve existing group properties in parsed model if available, or else,
       // generate one; Type cast is definitely accurate
       List<Map<String, Object>> groupProperties = (List<Map<String, Object>>) group
           .getOrDefault(ShaclResource.PROPERTY_PROPERTY, new ArrayList<>());
       // Add new property
-      groupProperties.add(this.parseInputModel(property, defaultVals));
+      groupProperties.add(this.parseInputModel(groups, property, defaultVals));
       // Update the results
       group.put(ShaclResource.PROPERTY_PROPERTY, groupProperties);
       resultMappings.put(groupId, group);
     } else {
       // Without a group, simply use the ID as hash key
       resultMappings.put(property.path(ShaclResource.ID_KEY).asString(),
-          this.parseInputModel(property, defaultVals));
+          this.parseInputModel(groups, property, defaultVals));
     }
   }
 
   /**
    * Parse the input into a suitable JSON model.
    * 
+   * @param groups      Mappings between group IDs and their shapes.
    * @param input       Input of interest.
    * @param defaultVals Default values for the form template if there is an
    *                    existing entity.
    */
-  private Map<String, Object> parseInputModel(JsonNode input, Map<String, Object> defaultVals) {
+  private Map<String, Object> parseInputModel(Map<String, JsonNode> groups, JsonNode input,
+      Map<String, Object> defaultVals) {
     Map<String, Object> inputModel = new HashMap<>();
     // Transform each field into a suitable JSON format
     for (Map.Entry<String, JsonNode> shapeFieldEntry : input.properties()) {
@@ -306,7 +341,7 @@ public class FormTemplateFactory {
               // Retrieve field from array group if not found
             } else if (input.has(ShaclResource.SHACL_GROUP_PROPERTY)) {
               String groupId = input.get(ShaclResource.SHACL_GROUP_PROPERTY).get(0).get(ShaclResource.ID_KEY).asString();
-              String groupName = this.groups.get(groupId).get(ShaclResource.RDFS_PREFIX + ShaclResource.LABEL_PROPERTY)
+              String groupName = groups.get(groupId).get(ShaclResource.RDFS_PREFIX + ShaclResource.LABEL_PROPERTY)
                   .get(0)
                   .get(ShaclResource.VAL_KEY).asString()
                   .replace(ShaclResource.WHITE_SPACE, "_");
@@ -362,7 +397,8 @@ public class FormTemplateFactory {
               StringResource.getLocalName(dataType.get(ShaclResource.ID_KEY).toString()));
           break;
         case ShaclResource.SHACL_IN_PROPERTY:
-          ArrayNode inArray = (ArrayNode) shapeFieldNode;
+          // Copied, as the shapes are shared across requests
+          ArrayNode inArray = ((ArrayNode) shapeFieldNode).deepCopy();
           // Iterate and remove any blank node values
           Iterator<JsonNode> elements = inArray.iterator();
           while (elements.hasNext()) {
@@ -412,4 +448,19 @@ public class FormTemplateFactory {
     }).sorted(Comparator.comparingInt(map -> (int) map.get(ShaclResource.ORDER_PROPERTY))) // Sort results by order
         .collect(Collectors.toList());
   }
+
+  /**
+   * Stores the shapes of a form template by their type. The shapes are
+   * immutable, so that they can be shared across requests.
+   * 
+   * @param hasProperties Indicates if the form has any property shapes, even if
+   *                      the user is not authorised to view them.
+   * @param properties    The property shapes that the user is authorised to
+   *                      view.
+   * @param groups        Mappings between group IDs and their property groups.
+   * @param nodes         Mappings between node IDs and their node shapes.
+   */
+  private record ShapeStore(boolean hasProperties, List<JsonNode> properties, Map<String, JsonNode> groups,
+      Map<String, JsonNode> nodes) {
+  }
 }
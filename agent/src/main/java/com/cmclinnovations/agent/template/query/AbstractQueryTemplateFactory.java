@@ -5,6 +5,4 @@ import com.cmclinnovations.agent.model.util.DataManifest;
 
 public abstract class AbstractQueryTemplateFactory {
     public abstract DataManifest<String> write(QueryTemplateFactoryParameters params);
-
-    protected abstract void reset();
 }
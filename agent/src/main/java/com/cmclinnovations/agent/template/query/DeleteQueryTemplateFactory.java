@@ -32,8 +32,6 @@ import tools.jackson.databind.node.ObjectNode;
 import tools.jackson.databind.node.StringNode;
 
 public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
-  private Map<String, String> anonymousVariableMappings;
-  private Map<String, Queue<GraphPattern>> arrayPatternsMap;
   private final JsonLdService jsonLdService;
   private static final Logger LOGGER = LogManager.getLogger(DeleteQueryTemplateFactory.class);
 
@@ -54,20 +52,16 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
    *               targetId - The target instance IRI.
    */
   public DataManifest<String> write(QueryTemplateFactoryParameters params) {
-    this.reset();
-
+    // State is held per call, so that queries can be generated concurrently
+    WriteState state = new WriteState(new HashMap<>(), new HashMap<>());
     ModifyQuery deleteTemplate = this.genDeleteTemplate(params.targetIds().poll().get(0),
-        this.parseVariable((ObjectNode) params.rootNode().path(ShaclResource.ID_KEY)));
-    this.recursiveParseNode(deleteTemplate, null, params.rootNode(), params.branchName(), params.optVarNames());
-    String query = this.appendArrayStatements(deleteTemplate.getQueryString(), params.optVarNames());
+        this.parseVariable(state, (ObjectNode) params.rootNode().path(ShaclResource.ID_KEY)));
+    this.recursiveParseNode(state, deleteTemplate, null, params.rootNode(), params.branchName(),
+        params.optVarNames());
+    String query = this.appendArrayStatements(state, deleteTemplate.getQueryString(), params.optVarNames());
     return new DataManifest<>(query, new ArrayList<>());
   }
 
-  protected void reset() {
-    this.anonymousVariableMappings = new HashMap<>();
-    this.arrayPatternsMap = new HashMap<>();
-  }
-
   /**
    * Initialise a delete template.
    * 
@@ -83,9 +77,10 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
   /**
    * Retrieves the variable from the replacement object node as a query variable.
    * 
+   * @param state           The state of the query being written.
    * @param replacementNode Target for retrieval. Node must be an Object Node.
    */
-  private Variable parseVariable(ObjectNode replacementNode) {
+  private Variable parseVariable(WriteState state, ObjectNode replacementNode) {
     // If it is an object, it is definitely a replacement object, and retrieving the
     // @replace key is sufficient;
     String replacementId = replacementNode.path(ShaclResource.REPLACE_KEY).asString();
@@ -97,8 +92,8 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
     if (replacementType.equals(QueryResource.IRI_KEY) && replacementNode.has("prefix")) {
       // Generates a mapping key based on the replacement name and its prefix
       String mappingKey = replacementId + replacementNode.path("prefix").asString();
-      String idVar = this.anonymousVariableMappings.computeIfAbsent(mappingKey,
-          k -> replacementId + this.anonymousVariableMappings.size());
+      String idVar = state.anonymousVariableMappings().computeIfAbsent(mappingKey,
+          k -> replacementId + state.anonymousVariableMappings().size());
       return QueryResource.genVariable(idVar);
     }
     return QueryResource.genVariable(replacementId);
@@ -127,6 +122,7 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
   /**
    * Recursively parses the node to generate the DELETE query contents.
    * 
+   * @param state               The state of the query being written.
    * @param deleteTemplate      The query object holding the delete query.
    * @param whereBranchPatterns An optional collection to store the graph patterns
    *                            for a WHERE clause if it belongs to a branch. If
@@ -136,15 +132,15 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
    * @param branch              Name of branch for deletion.
    * @param optVarNames         Set of names of optional variables.
    */
-  private void recursiveParseNode(ModifyQuery deleteTemplate, Queue<GraphPattern> whereBranchPatterns,
+  private void recursiveParseNode(WriteState state, ModifyQuery deleteTemplate, Queue<GraphPattern> whereBranchPatterns,
       ObjectNode currentNode, String branch, Set<String> optVarNames) {
     // First retrieve the ID value as a subject of the triple if required, else
     // default to target it
     JsonNode idNode = currentNode.path(ShaclResource.ID_KEY);
     if (idNode.isMissingNode()) {
-      idNode = genBlankNode();
+      idNode = this.genBlankNode(state);
     }
-    RdfSubject idTripleSubject = idNode.isObject() ? this.parseVariable((ObjectNode) idNode)
+    RdfSubject idTripleSubject = idNode.isObject() ? this.parseVariable(state, (ObjectNode) idNode)
         : Rdf.iri(((StringNode) idNode).stringValue());
 
     for (Map.Entry<String, JsonNode> field : currentNode.properties()) {
@@ -153,7 +149,7 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
       switch (predicate) {
         case ShaclResource.TYPE_KEY:
           // Create the following query line for all @type fields
-          RdfObject typeTripleObject = objectNode.isObject() ? this.parseVariable((ObjectNode) objectNode)
+          RdfObject typeTripleObject = objectNode.isObject() ? this.parseVariable(state, (ObjectNode) objectNode)
               : Rdf.iri(((StringNode) objectNode).stringValue());
           TriplePattern triplePattern = idTripleSubject.isA(typeTripleObject);
           deleteTemplate.delete(triplePattern);
@@ -183,7 +179,7 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
           Queue<GraphPattern> branchPatterns = new ArrayDeque<>();
           // Parse branch contents directly into delete template
           matchingBranch.set(ShaclResource.ID_KEY, currentNode.path(ShaclResource.ID_KEY));
-          this.recursiveParseNode(deleteTemplate, branchPatterns, matchingBranch, branch, optVarNames);
+          this.recursiveParseNode(state, deleteTemplate, branchPatterns, matchingBranch, branch, optVarNames);
           deleteTemplate.where(branchPatterns.toArray(new GraphPattern[0]));
           break;
         case ShaclResource.REVERSE_KEY:
@@ -196,7 +192,7 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
           } else if (objectNode.isObject()) {
             // Reverse fields must be an object that may contain one or multiple fields
             for (String reversePredicate : objectNode.propertyNames()) {
-              this.parseNestedNode(currentNode.path(ShaclResource.ID_KEY), objectNode.path(reversePredicate),
+              this.parseNestedNode(state, currentNode.path(ShaclResource.ID_KEY), objectNode.path(reversePredicate),
                   Rdf.iri(reversePredicate), deleteTemplate, whereBranchPatterns, branch, true, optVarNames);
             }
           }
@@ -205,8 +201,8 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
           // Ignore @id and @context fields
           break;
         default:
-          this.parseFieldNode(currentNode.path(ShaclResource.ID_KEY), objectNode, idTripleSubject, Rdf.iri(predicate),
-              deleteTemplate, whereBranchPatterns, branch, optVarNames);
+          this.parseFieldNode(state, currentNode.path(ShaclResource.ID_KEY), objectNode, idTripleSubject,
+              Rdf.iri(predicate), deleteTemplate, whereBranchPatterns, branch, optVarNames);
           break;
       }
     }
@@ -215,6 +211,7 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
   /**
    * Parses any field node.
    * 
+   * @param state               The state of the query being written.
    * @param idNode              The ID node of the current node.
    * @param objectNode          The node that is the target/ object of the triple
    *                            statement.
@@ -228,8 +225,9 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
    * @param branch              Name of branch for deletion.
    * @param optVarNames         Set of names of optional variables.
    */
-  private void parseFieldNode(JsonNode idNode, JsonNode objectNode, RdfSubject subject, Iri predicate,
-      ModifyQuery deleteTemplate, Queue<GraphPattern> whereBranchPatterns, String branch, Set<String> optVarNames) {
+  private void parseFieldNode(WriteState state, JsonNode idNode, JsonNode objectNode, RdfSubject subject,
+      Iri predicate, ModifyQuery deleteTemplate, Queue<GraphPattern> whereBranchPatterns, String branch,
+      Set<String> optVarNames) {
     // For object field node
     if (objectNode.isObject()) {
       JsonNode targetTripleObjectNode = objectNode.has(ShaclResource.REPLACE_KEY)
@@ -238,10 +236,10 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
 
       // IF the object does not contain a @id or @replace key, it is a blank node
       if (targetTripleObjectNode.isMissingNode()) {
-        targetTripleObjectNode = genBlankNode();
+        targetTripleObjectNode = this.genBlankNode(state);
       }
       RdfObject sparqlObject = targetTripleObjectNode.isObject()
-          ? this.parseVariable((ObjectNode) targetTripleObjectNode)
+          ? this.parseVariable(state, (ObjectNode) targetTripleObjectNode)
           : Rdf.iri(((StringNode) targetTripleObjectNode).stringValue());
 
       // Add the triple statement directly to DELETE clause
@@ -263,12 +261,12 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
         ObjectNode arrayContents = this.getArrayReplacementContents(
             this.jsonLdService.getObjectNode(objectNode.path(ShaclResource.CONTENTS_KEY)),
             objectNode.path(ShaclResource.REPLACE_KEY).asString());
-        Queue<GraphPattern> arrayGraphPatterns = this.arrayPatternsMap.computeIfAbsent(
+        Queue<GraphPattern> arrayGraphPatterns = state.arrayPatternsMap().computeIfAbsent(
             objectNode.path(ShaclResource.REPLACE_KEY).asString(),
             v -> new ArrayDeque<>());
         // Add where pattern grouped within array statements
         arrayGraphPatterns.offer(wherePattern);
-        this.recursiveParseNode(deleteTemplate, arrayGraphPatterns, arrayContents, branch, optVarNames);
+        this.recursiveParseNode(state, deleteTemplate, arrayGraphPatterns, arrayContents, branch, optVarNames);
       } else {
         this.updateWherePatterns(wherePattern, deleteTemplate, whereBranchPatterns);
       }
@@ -278,15 +276,16 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
       // or a one line instance link to a StringNode eg: "@id" : "instanceIri"
           !(objectNode.has(ShaclResource.ID_KEY) && objectNode.size() == 1
               && objectNode.path(ShaclResource.ID_KEY).isString())) {
-        this.recursiveParseNode(deleteTemplate, whereBranchPatterns, (ObjectNode) objectNode, branch, optVarNames);
+        this.recursiveParseNode(state, deleteTemplate, whereBranchPatterns, (ObjectNode) objectNode, branch,
+            optVarNames);
       }
       // For json arrays ie different objects with the same predicate, iterate through
       // each object and parse the nested node
     } else if (objectNode.isArray()) {
       ArrayNode fieldArray = (ArrayNode) objectNode;
       for (JsonNode tripleObjNode : fieldArray) {
-        this.parseNestedNode(idNode, tripleObjNode, predicate, deleteTemplate, whereBranchPatterns, branch, false,
-            optVarNames);
+        this.parseNestedNode(state, idNode, tripleObjNode, predicate, deleteTemplate, whereBranchPatterns, branch,
+            false, optVarNames);
       }
     } else {
       TriplePattern triplePattern;
@@ -305,6 +304,7 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
   /**
    * Parses a nested node (two layers down) with the required parameters.
    * 
+   * @param state               The state of the query being written.
    * @param idNode              The ID node of the current top level node.
    * @param objectNode          The node acting as the object of the triple.
    * @param predicatePath       The predicate path of the triple.
@@ -318,7 +318,7 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
    *                            not.
    * @param optVarNames         Set of names of optional variables.
    */
-  private void parseNestedNode(JsonNode idNode, JsonNode objectNode, Iri predicatePath,
+  private void parseNestedNode(WriteState state, JsonNode idNode, JsonNode objectNode, Iri predicatePath,
       ModifyQuery deleteTemplate, Queue<GraphPattern> whereBranchPatterns, String branch, boolean isReverse,
       Set<String> optVarNames) {
     if (isReverse) {
@@ -327,27 +327,27 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
           && objectNode.path(ShaclResource.TYPE_KEY).asString().equals(ShaclResource.ARRAY_KEY)
           && objectNode.has(ShaclResource.CONTENTS_KEY)) {
         // First add the subject to array group statement
-        RdfSubject reversedObjVar = this.parseVariable((ObjectNode) objectNode);
+        RdfSubject reversedObjVar = this.parseVariable(state, (ObjectNode) objectNode);
         // Apply array generation directly, as parse field node will skip this out due
         // to reversal
         ObjectNode arrayContents = this.getArrayReplacementContents(
             this.jsonLdService.getObjectNode(objectNode.path(ShaclResource.CONTENTS_KEY)),
             objectNode.path(ShaclResource.REPLACE_KEY).asString());
-        Queue<GraphPattern> arrayGraphPatterns = this.arrayPatternsMap.computeIfAbsent(
+        Queue<GraphPattern> arrayGraphPatterns = state.arrayPatternsMap().computeIfAbsent(
             objectNode.path(ShaclResource.REPLACE_KEY).asString(),
             v -> new ArrayDeque<>());
         // Explicitly only using the current subject as the reversed object, and the
         // current array ID as the reversed subject
-        this.parseFieldNode(null, idNode, reversedObjVar, predicatePath, deleteTemplate, arrayGraphPatterns, branch,
-            optVarNames);
+        this.parseFieldNode(state, null, idNode, reversedObjVar, predicatePath, deleteTemplate, arrayGraphPatterns,
+            branch, optVarNames);
         // Add array contents
-        this.recursiveParseNode(deleteTemplate, arrayGraphPatterns, arrayContents, branch, optVarNames);
+        this.recursiveParseNode(state, deleteTemplate, arrayGraphPatterns, arrayContents, branch, optVarNames);
       } else if (objectNode.isObject()) {
         // A reverse node indicates that the replacement object should now be the
         // subject and the Id Node should become the object
         if (objectNode.has(ShaclResource.REPLACE_KEY)) {
-          RdfSubject replacementVar = this.parseVariable((ObjectNode) objectNode);
-          this.parseFieldNode(null, idNode, replacementVar, predicatePath,
+          RdfSubject replacementVar = this.parseVariable(state, (ObjectNode) objectNode);
+          this.parseFieldNode(state, null, idNode, replacementVar, predicatePath,
               deleteTemplate, whereBranchPatterns, branch, optVarNames);
         } else {
           // A reverse node indicates that the original object should now be the subject
@@ -356,15 +356,15 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
           // Ensure the predicate path excludes the enclosing <>
           String predicate = predicatePath.getQueryString();
           nestedReverseNode.set(predicate.substring(1, predicate.length() - 1), idNode);
-          this.recursiveParseNode(deleteTemplate, whereBranchPatterns, nestedReverseNode, branch, optVarNames);
+          this.recursiveParseNode(state, deleteTemplate, whereBranchPatterns, nestedReverseNode, branch, optVarNames);
         }
       } else if (objectNode.isArray()) {
         // For reverse arrays, iterate and recursively parse each object as a reverse
         // node
         ArrayNode objArray = (ArrayNode) objectNode;
         for (JsonNode nestedReverseObjNode : objArray) {
-          this.parseNestedNode(idNode, nestedReverseObjNode, predicatePath, deleteTemplate, whereBranchPatterns, branch,
-              true, optVarNames);
+          this.parseNestedNode(state, idNode, nestedReverseObjNode, predicatePath, deleteTemplate,
+              whereBranchPatterns, branch, true, optVarNames);
         }
       }
     } else {
@@ -375,7 +375,7 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
       // Ensure the predicate path excludes the enclosing <>
       String predicate = predicatePath.getQueryString();
       nestedNode.set(predicate.substring(1, predicate.length() - 1), objectNode);
-      this.recursiveParseNode(deleteTemplate, whereBranchPatterns, nestedNode, branch, optVarNames);
+      this.recursiveParseNode(state, deleteTemplate, whereBranchPatterns, nestedNode, branch, optVarNames);
     }
   }
 
@@ -394,10 +394,12 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
 
   /**
    * Generates a blank node based on the mapping size.
+   * 
+   * @param state The state of the query being written.
    */
-  private ObjectNode genBlankNode() {
+  private ObjectNode genBlankNode(WriteState state) {
     ObjectNode blankNode = this.jsonLdService.genObjectNode();
-    blankNode.put(ShaclResource.REPLACE_KEY, String.valueOf(this.anonymousVariableMappings.size()));
+    blankNode.put(ShaclResource.REPLACE_KEY, String.valueOf(state.anonymousVariableMappings().size()));
     blankNode.put(ShaclResource.TYPE_KEY, QueryResource.IRI_KEY);
     return blankNode;
   }
@@ -405,14 +407,15 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
   /**
    * Appends array statements if available.
    * 
+   * @param state       The state of the query being written.
    * @param deleteQuery The target DELETE query.
    * @param optFields   A set of optional fields.
    */
-  private String appendArrayStatements(String deleteQuery, Set<String> optFields) {
-    if (!this.arrayPatternsMap.isEmpty()) {
+  private String appendArrayStatements(WriteState state, String deleteQuery, Set<String> optFields) {
+    if (!state.arrayPatternsMap().isEmpty()) {
       Boolean isAllArraysOptional = null;
       List<String> arrayStatements = new ArrayList<>();
-      for (Map.Entry<String, Queue<GraphPattern>> entry : this.arrayPatternsMap.entrySet()) {
+      for (Map.Entry<String, Queue<GraphPattern>> entry : state.arrayPatternsMap().entrySet()) {
         String arrayGroup = entry.getKey();
         Queue<GraphPattern> patterns = entry.getValue();
         StringBuilder currentArrayGroupStatements = new StringBuilder();
@@ -443,4 +446,16 @@ public class DeleteQueryTemplateFactory extends AbstractQueryTemplateFactory {
     }
     return deleteQuery;
   }
+
+  /**
+   * Stores the state of a DELETE query while it is being written.
+   * 
+   * @param anonymousVariableMappings Mappings between replacement IRIs with
+   *                                  prefixes and their generated variables.
+   * @param arrayPatternsMap          Mappings between array fields and their
+   *                                  graph patterns.
+   */
+  private record WriteState(Map<String, String> anonymousVariableMappings,
+      Map<String, Queue<GraphPattern>> arrayPatternsMap) {
+  }
 }
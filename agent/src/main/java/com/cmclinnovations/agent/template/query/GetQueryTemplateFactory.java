@@ -56,16 +56,17 @@ public class GetQueryTemplateFactory extends QueryTemplateFactory {
     // Extract the first binding class but it should not be removed from the queue
     String targetClass = params.bindings().peek().peek().getFieldValue(StringResource.CLAZZ_VAR);
 
+    QueryVariables queryVariables = new QueryVariables();
     DataManifest<SelectQuery> selectTemplateManifest = super.genWhereClauseContent(targetClass, params.addColumns(),
-        params.bindings());
+        params.bindings(), params.shapeKey(), queryVariables);
     SelectQuery selectTemplate = selectTemplateManifest.data();
     // Retrieve only the property fields if no sequence of variable is present
     selectTemplate.select(QueryResource.IRI_VAR)
         .select(QueryResource.ID_VAR);
-    super.variables.forEach(selectTemplate::select);
+    queryVariables.variables().forEach(selectTemplate::select);
     String valuesClause = this.appendOptionalIdFilters(selectTemplate, params.targetIds());
     String query = super.appendAdditionalPatterns(selectTemplate, params.addQueryStatements() + valuesClause);
-    return new DataManifest<>(query, selectTemplateManifest.columns());
+    return new DataManifest<>(query, selectTemplateManifest.columns(), selectTemplateManifest.arrayVariables());
   }
 
   /**
@@ -75,11 +76,10 @@ public class GetQueryTemplateFactory extends QueryTemplateFactory {
    */
   public DataManifest<String> genWhereClause(Queue<Queue<SparqlBinding>> queryVarsAndPaths) {
     LOGGER.info("Generating the WHERE clause...");
-    super.reset();
     // Extract out select and where, test what we get
     Map<String, Map<String, ShaclPropertyBinding>> propertyBindingMap = super.parseNodeShapes(queryVarsAndPaths);
     DataManifest<SelectQuery> selectTemplateManifest = super.write(Queries.SELECT(), propertyBindingMap,
-        new ArrayList<>());
+        new ArrayList<>(), new QueryVariables());
     String query = selectTemplateManifest.data()
         .getQueryString()
         // SparqlBuilder concats OPTIONAL and UNION instead of wrapping them as nested,
@@ -87,7 +87,7 @@ public class GetQueryTemplateFactory extends QueryTemplateFactory {
         .replaceAll("OPTIONAL\\s*(\\{.*})\\s*UNION\\s*OPTIONAL\\s*(\\{.*\\})", "$1 UNION $2")
         // Extract only the WHERE clause content
         .replaceAll("(?s)SELECT\\s*\\*\\s*\\nWHERE\\s*\\{(.*)\\}\\n$", "$1");
-    return new DataManifest<>(query, selectTemplateManifest.columns());
+    return new DataManifest<>(query, selectTemplateManifest.columns(), selectTemplateManifest.arrayVariables());
   }
 
   /**
@@ -110,26 +110,38 @@ public class GetQueryTemplateFactory extends QueryTemplateFactory {
             QueryResource.EVENT_ID_VAR.getVarName());
       }
     } else if (filterIds.size() > 1) {
-      List<String> idValues = new ArrayList<>();
-      List<String> idAndEventIdValues = new ArrayList<>();
-      while (!filterIds.isEmpty()) {
-        List<String> currentIds = filterIds.poll();
-        String currentId = Rdf.literalOf(currentIds.get(0)).getQueryString();
-        if (currentIds.size() > 1) {
-          idAndEventIdValues
-              .add("(" + currentId + ShaclResource.WHITE_SPACE + Rdf.iri(currentIds.get(1)).getQueryString() + ")");
-        } else {
-          idValues.add(currentId);
-        }
-      }
-      if (!idAndEventIdValues.isEmpty()) {
-        valuesClause += QueryResource.values(idAndEventIdValues, QueryResource.ID_KEY,
-            QueryResource.EVENT_ID_VAR.getVarName());
-      } else {
-        valuesClause += QueryResource.values(idValues, QueryResource.ID_KEY);
-      }
+      valuesClause += this.genIdValuesClause(filterIds);
     }
     selectTemplate.where(QueryResource.IRI_VAR.has(QueryResource.DC_TERM_ID, object));
     return valuesClause;
   }
+
+  /**
+   * Generates the VALUES clause targeting the IDs, and their event IDs if
+   * available. Returns an empty string if there are no IDs.
+   * 
+   * @param filterIds The IDs to target, which are consumed.
+   */
+  public String genIdValuesClause(Queue<List<String>> filterIds) {
+    if (filterIds.isEmpty()) {
+      return "";
+    }
+    List<String> idValues = new ArrayList<>();
+    List<String> idAndEventIdValues = new ArrayList<>();
+    while (!filterIds.isEmpty()) {
+      List<String> currentIds = filterIds.poll();
+      String currentId = Rdf.literalOf(currentIds.get(0)).getQueryString();
+      if (currentIds.size() > 1) {
+        idAndEventIdValues
+            .add("(" + currentId + ShaclResource.WHITE_SPACE + Rdf.iri(currentIds.get(1)).getQueryString() + ")");
+      } else {
+        idValues.add(currentId);
+      }
+    }
+    if (!idAndEventIdValues.isEmpty()) {
+      return QueryResource.values(idAndEventIdValues, QueryResource.ID_KEY,
+          QueryResource.EVENT_ID_VAR.getVarName());
+    }
+    return QueryResource.values(idValues, QueryResource.ID_KEY);
+  }
 }
@@ -1,8 +1,11 @@
 package com.cmclinnovations.agent.template.query;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -18,6 +21,7 @@ import org.eclipse.rdf4j.sparqlbuilder.graphpattern.GraphPatternNotTriples;
 import org.eclipse.rdf4j.sparqlbuilder.graphpattern.GraphPatterns;
 import org.eclipse.rdf4j.sparqlbuilder.rdf.Rdf;
 
+import com.cmclinnovations.agent.component.cache.LocalCache;
 import com.cmclinnovations.agent.model.ShaclPropertyBinding;
 import com.cmclinnovations.agent.model.SparqlBinding;
 import com.cmclinnovations.agent.model.response.ColumnMetaPayload;
@@ -30,27 +34,29 @@ import com.cmclinnovations.agent.utils.ShaclResource;
 import com.cmclinnovations.agent.utils.StringResource;
 
 public abstract class QueryTemplateFactory extends AbstractQueryTemplateFactory {
-  protected Set<Variable> variables;
-  private Map<String, Set<String>> arrayVariables;
   private final AuthenticationService authenticationService;
+  private final LocalCache<String, List<List<SparqlBinding>>> authorisedBindingsCache;
+
+  private static final int AUTHORISED_BINDINGS_CACHE_SIZE = 256;
+  private static final Duration AUTHORISED_BINDINGS_CACHE_TTL = Duration.ofMinutes(5);
 
   protected QueryTemplateFactory(AuthenticationService authenticationService) {
     this.authenticationService = authenticationService;
+    this.authorisedBindingsCache = new LocalCache<>(AUTHORISED_BINDINGS_CACHE_SIZE, AUTHORISED_BINDINGS_CACHE_TTL);
   }
 
   /**
-   * Retrieve the mappings of array variables grouped by groups.
-   */
-  public Map<String, Set<String>> getArrayVariables() {
-    return this.arrayVariables;
-  }
-
-  /**
-   * Retrieve the sequence of the variables.
+   * Stores the variables of a query while it is being generated. A new instance
+   * is created for each query, so that the factory holds no state across calls
+   * and queries can be generated concurrently.
+   * 
+   * @param variables      The variables of the query.
+   * @param arrayVariables Mappings of array variables grouped by groups.
    */
-  protected void reset() {
-    this.variables = new HashSet<>();
-    this.arrayVariables = new HashMap<>();
+  protected record QueryVariables(Set<Variable> variables, Map<String, Set<String>> arrayVariables) {
+    protected QueryVariables() {
+      this(new HashSet<>(), new HashMap<>());
+    }
   }
 
   /**
@@ -74,38 +80,42 @@ public abstract class QueryTemplateFactory extends AbstractQueryTemplateFactory
    * @param targetClass            Target class.
    * @param shaclNodeShapeBindings The node shapes queried from SHACL
    *                               restrictions.
+   * @param shapeKey               Identifies the node shapes to cache their
+   *                               bindings authorised for the user roles, or
+   *                               null if they should not be cached.
    * @param addColumns             The additional columns metadata.
+   * @param queryVariables         Stores the variables of the query.
    */
   protected DataManifest<SelectQuery> genWhereClauseContent(String targetClass, List<ColumnMetaPayload> addColumns,
-      Queue<Queue<SparqlBinding>> shaclNodeShapeBindings) {
-    this.reset();
+      Queue<Queue<SparqlBinding>> shaclNodeShapeBindings, String shapeKey, QueryVariables queryVariables) {
     // Add variables here to prevent duplicates
     addColumns.forEach(col -> {
       if (col.value().equals(LifecycleResource.SCHEDULE_TYPE_KEY)) {
-        this.variables.add(QueryResource.SCHEDULE_RECURRENCE_VAR);
+        queryVariables.variables().add(QueryResource.SCHEDULE_RECURRENCE_VAR);
       } else if (col.value().equals(LifecycleResource.STATUS_KEY)
           && addColumns.contains(QueryResource.EVENT_ID_COL)) {
-        this.variables.add(QueryResource.EVENT_STATUS_VAR);
-        this.variables.add(QueryResource.genVariable(LifecycleResource.EVENT_KEY));
+        queryVariables.variables().add(QueryResource.EVENT_STATUS_VAR);
+        queryVariables.variables().add(QueryResource.genVariable(LifecycleResource.EVENT_KEY));
       } else if (col.type().equals(ShaclResource.ARRAY_KEY)) {
 
         Set<String> arrayFields = new HashSet<>();
         col.arrayFields().forEach(arrayField -> {
           Variable arrayVar = QueryResource.genVariable(arrayField.value());
-          this.variables.add(arrayVar);
+          queryVariables.variables().add(arrayVar);
           arrayFields.add(arrayVar.getVarName());
         });
-        this.arrayVariables.computeIfAbsent(col.value(), k -> new HashSet<>())
+        queryVariables.arrayVariables().computeIfAbsent(col.value(), k -> new HashSet<>())
             .addAll(arrayFields);
       } else {
-        this.variables.add(QueryResource.genVariable(col.value()));
+        queryVariables.variables().add(QueryResource.genVariable(col.value()));
       }
     });
 
-    Map<String, Map<String, ShaclPropertyBinding>> propertyBindingMap = this.parseNodeShapes(shaclNodeShapeBindings);
+    Map<String, Map<String, ShaclPropertyBinding>> propertyBindingMap = this.parseNodeShapes(shapeKey,
+        shaclNodeShapeBindings);
 
     SelectQuery selectTemplate = genSelectTemplate(targetClass);
-    return this.write(selectTemplate, propertyBindingMap, addColumns);
+    return this.write(selectTemplate, propertyBindingMap, addColumns, queryVariables);
   }
 
   /**
@@ -119,6 +129,27 @@ public abstract class QueryTemplateFactory extends AbstractQueryTemplateFactory
         .where(QueryResource.IRI_VAR.isA(Rdf.iri(targetClass)));
   }
 
+  /**
+   * Parse the node shape bindings into a mapping containing their property
+   * shapes. The bindings authorised for the user roles are cached for the node
+   * shapes and role set, so that users with the same roles share them, and
+   * unauthorised fields are not checked again.
+   * 
+   * @param shapeKey               Identifies the node shapes to cache their
+   *                               authorised bindings, or null if they should
+   *                               not be cached.
+   * @param shaclNodeShapeBindings Target node shape inputs.
+   */
+  protected Map<String, Map<String, ShaclPropertyBinding>> parseNodeShapes(String shapeKey,
+      Queue<Queue<SparqlBinding>> shaclNodeShapeBindings) {
+    if (shapeKey == null) {
+      return this.parseNodeShapes(shaclNodeShapeBindings);
+    }
+    return this.parseAuthorisedNodeShapes(this.authorisedBindingsCache.get(
+        shapeKey + "-" + this.authenticationService.getRoleFingerprint(),
+        key -> this.filterAuthorisedBindings(shaclNodeShapeBindings)));
+  }
+
   /**
    * Parse the node shape bindings into a mapping containing their property
    * shapes.
@@ -127,45 +158,89 @@ public abstract class QueryTemplateFactory extends AbstractQueryTemplateFactory
    */
   protected Map<String, Map<String, ShaclPropertyBinding>> parseNodeShapes(
       Queue<Queue<SparqlBinding>> shaclNodeShapeBindings) {
+    return this.parseAuthorisedNodeShapes(this.filterAuthorisedBindings(shaclNodeShapeBindings));
+  }
+
+  /**
+   * Retains only the node shape bindings that the user is authorised to view.
+   * If authentication is enabled and the user does not have any of the roles
+   * permitted for a property, all bindings of the property are removed. The
+   * outputs are immutable, so that they can be shared across requests.
+   * 
+   * @param shaclNodeShapeBindings Target node shape inputs.
+   */
+  private List<List<SparqlBinding>> filterAuthorisedBindings(Queue<Queue<SparqlBinding>> shaclNodeShapeBindings) {
+    boolean isAuthenticationEnabled = this.authenticationService.isAuthenticationEnabled();
+    Set<String> userRoles = isAuthenticationEnabled ? this.authenticationService.getUserRoles() : Set.of();
+    // Tracks the authorised bindings of each property, which are revoked if a
+    // later binding of the property is unauthorised
+    Map<ShaclPropertyId, List<SparqlBinding>> authorisedPropertyBindings = new HashMap<>();
+    Set<SparqlBinding> revokedBindings = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<List<SparqlBinding>> nodeShapeBindings = new ArrayList<>();
+    for (Queue<SparqlBinding> shaclPropertyShapeBindings : shaclNodeShapeBindings) {
+      List<SparqlBinding> propertyShapeBindings = new ArrayList<>();
+      for (SparqlBinding binding : shaclPropertyShapeBindings) {
+        String property = binding.getFieldValue(ShaclResource.NAME_PROPERTY);
+        String permittedRoles = binding.getFieldValue(ShaclResource.ROLE_PROPERTY);
+        // Empty branches are skipped when parsing, and are never restricted
+        if (property != null) {
+          ShaclPropertyId mappingKey = new ShaclPropertyId(property,
+              binding.getFieldValue(ShaclResource.NODE_GROUP_VAR), binding.getFieldValue(ShaclResource.BRANCH_VAR));
+          // If authentication is enabled along with associated roles BUT the user is
+          // unauthorised
+          if (isAuthenticationEnabled && permittedRoles != null
+              && this.authenticationService.isUnauthorised(userRoles, permittedRoles)) {
+            List<SparqlBinding> revokedPropertyBindings = authorisedPropertyBindings.remove(mappingKey);
+            if (revokedPropertyBindings != null) {
+              revokedBindings.addAll(revokedPropertyBindings);
+            }
+            continue;
+          }
+          authorisedPropertyBindings.computeIfAbsent(mappingKey, k -> new ArrayList<>()).add(binding);
+        }
+        propertyShapeBindings.add(binding);
+      }
+      nodeShapeBindings.add(propertyShapeBindings);
+    }
+    return nodeShapeBindings.stream()
+        .map(propertyShapeBindings -> propertyShapeBindings.stream()
+            .filter(binding -> !revokedBindings.contains(binding))
+            .toList())
+        .toList();
+  }
+
+  /**
+   * Parse the authorised node shape bindings into a mapping containing their
+   * property shapes.
+   * 
+   * @param shaclNodeShapeBindings Node shape inputs that the user is authorised
+   *                               to view.
+   */
+  private Map<String, Map<String, ShaclPropertyBinding>> parseAuthorisedNodeShapes(
+      List<List<SparqlBinding>> shaclNodeShapeBindings) {
     Map<String, Map<String, ShaclPropertyBinding>> shaclPropertyShapesMap = new HashMap<>();
     Set<ShaclPropertyId> groupFields = new HashSet<>();
     Map<String, Set<ShaclPropertyId>> branchMappings = new HashMap<>();
     Map<ShaclPropertyId, ShaclPropertyBinding> indivPropertyMap = new HashMap<>();
     Map<String, ShaclPropertyBinding> groupPropertyMap = new HashMap<>();
-    Set<String> userRoles = this.authenticationService.getUserRoles();
 
-    while (!shaclNodeShapeBindings.isEmpty()) {
-      Queue<SparqlBinding> shaclPropertyShapeBindings = shaclNodeShapeBindings.poll();
-      while (!shaclPropertyShapeBindings.isEmpty()) {
-        SparqlBinding binding = shaclPropertyShapeBindings.poll();
+    for (List<SparqlBinding> shaclPropertyShapeBindings : shaclNodeShapeBindings) {
+      for (SparqlBinding binding : shaclPropertyShapeBindings) {
         String property = binding.getFieldValue(ShaclResource.NAME_PROPERTY);
         String shGroup = binding.getFieldValue(ShaclResource.NODE_GROUP_VAR);
         String branch = binding.getFieldValue(ShaclResource.BRANCH_VAR);
-        String permittedRoles = binding.getFieldValue(ShaclResource.ROLE_PROPERTY);
-
-        // Any nested id properties in sh:node should be ignored
-        if (shGroup != null && property.equals(QueryResource.ID_KEY)) {
-          continue;
-        }
 
         // Skip this iteration if the results show an empty branch
         if (property == null) {
           continue;
         }
 
-        ShaclPropertyId mappingKey = new ShaclPropertyId(property, shGroup, branch);
-        // If authentication is enabled along with associated roles BUT the user is
-        // unauthorised
-        if (this.authenticationService.isAuthenticationEnabled() && permittedRoles != null
-            && this.authenticationService.isUnauthorised(userRoles, permittedRoles)) {
-          // Remove any existing bindings if they exist
-          if (indivPropertyMap.containsKey(mappingKey)) {
-            indivPropertyMap.remove(mappingKey);
-          }
-          // Skip this iteration if permission is not given
+        // Any nested id properties in sh:node should be ignored
+        if (shGroup != null && property.equals(QueryResource.ID_KEY)) {
           continue;
         }
 
+        ShaclPropertyId mappingKey = new ShaclPropertyId(property, shGroup, branch);
         ShaclPropertyBinding propertyBinding;
         // For existing bindings
         if (indivPropertyMap.containsKey(mappingKey)) {
@@ -251,10 +326,11 @@ public abstract class QueryTemplateFactory extends AbstractQueryTemplateFactory
    * @param selectTemplate   SELECT query template to build the query
    * @param propertyShapeMap The sorted mappings for the SHACL property shapes.
    * @param addColumns       The additional columns metadata.
+   * @param queryVariables   Stores the variables of the query.
    */
   protected DataManifest<SelectQuery> write(SelectQuery selectTemplate,
       Map<String, Map<String, ShaclPropertyBinding>> propertyShapeMap,
-      List<ColumnMetaPayload> addColumns) {
+      List<ColumnMetaPayload> addColumns, QueryVariables queryVariables) {
     Map<String, List<GraphPattern>> accumulatedStatementsByGroup = new HashMap<>();
     Map<String, List<GraphPattern>> branchStatementMap = new HashMap<>();
     Map<String, ColumnMetaPayload> columnMappings = new HashMap<>();
@@ -284,11 +360,11 @@ public abstract class QueryTemplateFactory extends AbstractQueryTemplateFactory
         }
         if (propBinding.isArray()) {
           // Store individual array variables as well
-          this.arrayVariables.computeIfAbsent(propBinding.getName().getVarName(), k -> new HashSet<>())
+          queryVariables.arrayVariables().computeIfAbsent(propBinding.getName().getVarName(), k -> new HashSet<>())
               .add(propBinding.getName().getVarName());
         }
       } else {
-        this.variables.remove(QueryResource.genVariable(group));
+        queryVariables.variables().remove(QueryResource.genVariable(group));
         // If there is an associated group, store the content to the associated group in
         // the temp mappings; Note that a group may have multiple fields, so each
         // content should be appended to the previous batch
@@ -296,11 +372,12 @@ public abstract class QueryTemplateFactory extends AbstractQueryTemplateFactory
         accumulatedStatementsByGroup.computeIfAbsent(mappingKey, k -> new ArrayList<>()).addAll(content);
         if (propBinding.isArray()) {
           // Store array variables in their groups
-          this.arrayVariables.computeIfAbsent(mappingKey, k -> new HashSet<>()).add(propBinding.getName().getVarName());
+          queryVariables.arrayVariables().computeIfAbsent(mappingKey, k -> new HashSet<>())
+              .add(propBinding.getName().getVarName());
         }
       }
       // Store the variable for individual properties only
-      this.variables.add(propBinding.getName());
+      queryVariables.variables().add(propBinding.getName());
       varSequence.put(propBinding.getName().getVarName(), propBinding.getSequence());
       ColumnMetaPayload columnMeta = propBinding.getColumnMeta();
       columnMappings.merge(columnMeta.value(), columnMeta, (current, incoming) -> {
@@ -394,6 +471,6 @@ public abstract class QueryTemplateFactory extends AbstractQueryTemplateFactory
         .values()
         .stream()
         .toList();
-    return new DataManifest<>(selectTemplate, columnList);
+    return new DataManifest<>(selectTemplate, columnList, queryVariables.arrayVariables());
   }
 }
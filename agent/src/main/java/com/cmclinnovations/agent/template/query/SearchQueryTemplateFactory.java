@@ -50,12 +50,13 @@ public class SearchQueryTemplateFactory extends QueryTemplateFactory {
     LOGGER.info("Generating a query template for getting the data that matches the search criteria...");
     // Extract the first binding class but it should not be removed from the queue
     String targetClass = params.bindings().peek().peek().getFieldValue(StringResource.CLAZZ_VAR);
+    QueryVariables queryVariables = new QueryVariables();
     DataManifest<SelectQuery> selectTemplateManifest = super.genWhereClauseContent(targetClass, new ArrayList<>(),
-        params.bindings());
+        params.bindings(), params.shapeKey(), queryVariables);
     SelectQuery selectTemplate = selectTemplateManifest.data();
     // Generating the search criteria as separate filter statements
     Queue<Expression<?>> filters = new ArrayDeque<>();
-    super.variables.forEach(variable -> {
+    queryVariables.variables().forEach(variable -> {
       String varName = variable.getVarName();
       // Do not generate or act on any id query lines
       // note that if no criteria or empty string is passed in the API, the filter
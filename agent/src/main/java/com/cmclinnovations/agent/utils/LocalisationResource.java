@@ -42,8 +42,10 @@ public class LocalisationResource {
   public static final String ERROR_APPROVE_PARTIAL_KEY = ERROR_PREFIX + "approve.partial";
   public static final String ERROR_COPY_DRAFT_PARTIAL_KEY = ERROR_PREFIX + "copy.partial";
   public static final String ERROR_DISPATCH_PARTIAL_KEY = ERROR_PREFIX + "dispatch.partial";
+  public static final String ERROR_DUPLICATE_ID_KEY = ERROR_PREFIX + "duplicate.id";
   public static final String ERROR_ORDERS_PARTIAL_KEY = ERROR_PREFIX + "orders.partial";
   public static final String ERROR_RESET_PARTIAL_KEY = ERROR_PREFIX + "reset.partial";
+  public static final String ERROR_INVALID_CURSOR_KEY = ERROR_PREFIX + "invalid.cursor";
   public static final String ERROR_INVALID_DATE_CHRONOLOGY_KEY = ERROR_PREFIX + "invalid.date.chronology";
   public static final String ERROR_INVALID_DATE_SCHEDULED_PRESENT_KEY = ERROR_PREFIX + "invalid.date.scheduledpresent";
   public static final String ERROR_INVALID_DATE_CANCEL_KEY = ERROR_PREFIX + "invalid.date.cancel";
@@ -40,6 +40,7 @@ public class QueryResource {
     public static final MediaType JSON_MEDIA_TYPE = MediaType.valueOf("application/json");
     public static final MediaType LD_JSON_MEDIA_TYPE = MediaType.valueOf("application/ld+json");
     public static final MediaType SPARQL_MEDIA_TYPE = MediaType.valueOf("application/sparql-query");
+    public static final MediaType SPARQL_UPDATE_MEDIA_TYPE = MediaType.valueOf("application/sparql-update");
     public static final MediaType TTL_MEDIA_TYPE = MediaType.valueOf("text/turtle");
 
     public static final Prefix CMNS_COL = genPrefix("cmns-col", "https://www.omg.org/spec/Commons/Collections/");
@@ -115,6 +116,8 @@ public class QueryResource {
     public static final Variable SCHEDULE_RECURRENCE_VAR = QueryResource
             .genVariable(LifecycleResource.SCHEDULE_RECURRENCE_KEY);
     public static final Variable LATEST_DATE_VAR = QueryResource.genVariable("latest_date");
+    public static final String COUNT_KEY = "count";
+    public static final Variable COUNT_VAR = SparqlBuilder.var(COUNT_KEY);
 
     public static final String ADD_BRANCH_KEY = "branch_add";
     public static final String BRANCH_NAME_KEY = "branch_name";
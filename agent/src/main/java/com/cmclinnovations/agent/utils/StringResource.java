@@ -14,6 +14,7 @@ import org.eclipse.rdf4j.sparqlbuilder.rdf.Rdf;
 import tools.jackson.databind.JsonNode;
 
 public class StringResource {
+  public static final String CURSOR_REQUEST_PARAM = "cursor";
   public static final String FIELD_REQUEST_PARAM = "field";
   public static final String LABEL_REQUEST_PARAM = "label";
   public static final String LIMIT_REQUEST_PARAM = "limit";
@@ -0,0 +1,80 @@
+package com.cmclinnovations.agent.component;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.cmclinnovations.agent.model.util.JobProgress;
+
+class ParallelTaskExecutorTest {
+  private static final String TEST_JOB = "test-job";
+  private static final String TEST_USER = "system";
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void testExecBoundedTasks_RespectsConcurrencyCap() {
+    List<Integer> items = IntStream.range(0, 50).boxed().toList();
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    JobProgress progress = new JobProgress(TEST_JOB, items.size());
+
+    ParallelTaskExecutor.execBoundedTasks(items, 4, item -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(5);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      running.decrementAndGet();
+      return true;
+    }, progress);
+
+    assertTrue(maxRunning.get() <= 4, "No more than the cap should run at once.");
+    Map<String, Object> snapshot = progress.toMap();
+    assertEquals(50, snapshot.get("completed"));
+    assertEquals(0, snapshot.get("failed"));
+  }
+
+  @Test
+  void testExecBoundedTasks_IsolatesFailures() {
+    List<Integer> items = IntStream.range(0, 10).boxed().toList();
+    JobProgress progress = new JobProgress(TEST_JOB, items.size());
+
+    ParallelTaskExecutor.execBoundedTasks(items, 3, item -> {
+      if (item == 3) {
+        throw new IllegalStateException("Failed item");
+      }
+      return item != 5;
+    }, progress);
+
+    Map<String, Object> snapshot = progress.toMap();
+    assertEquals(10, snapshot.get("completed"));
+    assertEquals(2, snapshot.get("failed"));
+  }
+
+  @Test
+  void testExecBoundedTasks_PropagatesSecurityContext() {
+    SecurityContextHolder.getContext()
+        .setAuthentication(new UsernamePasswordAuthenticationToken(TEST_USER, null, List.of()));
+    JobProgress progress = new JobProgress(TEST_JOB, 3);
+
+    ParallelTaskExecutor.execBoundedTasks(List.of(1, 2, 3), 2,
+        item -> TEST_USER.equals(SecurityContextHolder.getContext().getAuthentication().getPrincipal()),
+        progress);
+
+    assertEquals(0, progress.getFailed());
+  }
+}
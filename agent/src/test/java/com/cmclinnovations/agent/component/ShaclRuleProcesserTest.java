@@ -0,0 +1,112 @@
+package com.cmclinnovations.agent.component;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.cmclinnovations.agent.model.util.ShaclRuleSet;
+
+class ShaclRuleProcesserTest {
+  private ShaclRuleProcesser processer;
+
+  private static final String SAMPLE_RULES = """
+      @prefix sh: <http://www.w3.org/ns/shacl#> .
+      @prefix form: <https://theworldavatar.io/kg/form/> .
+      <http://example.org/rule/construct> a sh:SPARQLRule ;
+        sh:order 1 ;
+        sh:construct "CONSTRUCT { $this <http://example.org/label> ?label } WHERE { $this <http://example.org/name> ?label }" .
+      <http://example.org/rule/virtual> a form:SPARQLVirtualRule ;
+        sh:select "SELECT ?total WHERE { ?this <http://example.org/total> ?total }" .
+      """;
+
+  @BeforeEach
+  void setUp() {
+    this.processer = new ShaclRuleProcesser();
+  }
+
+  @Test
+  void testCompile() {
+    ShaclRuleSet rules = this.processer.compile(genModel(SAMPLE_RULES));
+    assertEquals(1, rules.constructRules().size());
+    assertEquals(1, rules.constructRules().get(0).triples().size());
+    assertEquals(1, rules.virtualRules().size());
+    assertEquals(Set.of("total"), rules.virtualRules().get(0).variables());
+  }
+
+  @Test
+  void testGenSelectQuery() {
+    ShaclRuleSet rules = this.processer.compile(genModel(SAMPLE_RULES));
+    String query = this.processer.genSelectQuery(rules.constructRules().get(0), List.of("<http://example.org/01>"));
+    assertTrue(query.startsWith("SELECT *"));
+    assertTrue(query.contains("<http://example.org/name>"));
+    assertTrue(query.contains("<http://example.org/01>"));
+  }
+
+  @Test
+  void testGetVirtualQueries_Fields() {
+    ShaclRuleSet rules = this.processer.compile(genModel(SAMPLE_RULES));
+    Set<String> virtualFields = new HashSet<>();
+    Queue<String> queries = this.processer.getVirtualQueries(rules, Set.of("name"), virtualFields);
+    assertTrue(queries.isEmpty(), "Rules without the requested fields should be skipped.");
+    queries = this.processer.getVirtualQueries(rules, Set.of("total"), virtualFields);
+    assertEquals(1, queries.size());
+    assertEquals(Set.of("total"), virtualFields);
+  }
+
+  @Test
+  void testGetVirtualQueries_Iris() {
+    ShaclRuleSet rules = this.processer.compile(genModel(SAMPLE_RULES));
+    Queue<String> queries = this.processer.getVirtualQueries(rules, List.of("\"01\""));
+    assertEquals(1, queries.size());
+    String query = queries.poll();
+    assertTrue(query.contains("?id WHERE{"));
+    assertTrue(query.contains("\"01\""));
+  }
+
+  @Test
+  void testHasConstructRuleFor() {
+    ShaclRuleSet rules = this.processer.compile(genModel("""
+        @prefix sh: <http://www.w3.org/ns/shacl#> .
+        <http://example.org/rule/construct> a sh:SPARQLRule ;
+          sh:order 1 ;
+          sh:construct "PREFIX ex: <http://example.org/> CONSTRUCT { $this ex:label ?label } WHERE { $this a ex:Concept ; ex:parent/^ex:child ?label . FILTER NOT EXISTS { $this ex:hidden true } }" .
+        """));
+    assertTrue(rules.hasConstructRuleFor(List.of(RDF.type.getURI())), "rdf:type written as `a` should be matched.");
+    assertTrue(rules.hasConstructRuleFor(List.of("http://example.org/child")),
+        "Predicates in property paths should be matched.");
+    assertTrue(rules.hasConstructRuleFor(List.of("http://example.org/hidden")),
+        "Predicates in EXISTS filters should be matched.");
+    assertFalse(rules.hasConstructRuleFor(List.of("http://example.org/label")),
+        "Predicates only in the CONSTRUCT template should not be matched.");
+  }
+
+  @Test
+  void testHasConstructRuleFor_VariablePredicate() {
+    ShaclRuleSet rules = this.processer.compile(genModel("""
+        @prefix sh: <http://www.w3.org/ns/shacl#> .
+        <http://example.org/rule/construct> a sh:SPARQLRule ;
+          sh:order 1 ;
+          sh:construct "CONSTRUCT { $this <http://example.org/copy> ?value } WHERE { $this ?predicate ?value }" .
+        """));
+    assertTrue(rules.hasConstructRuleFor(List.of("http://example.org/any")),
+        "Rules with variable predicates should match any predicate.");
+  }
+
+  private static Model genModel(String turtle) {
+    Model model = ModelFactory.createDefaultModel();
+    model.read(new StringReader(turtle), null, "TTL");
+    return model;
+  }
+}
@@ -0,0 +1,74 @@
+package com.cmclinnovations.agent.component.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class TwoTierCacheManagerTest {
+  private ConcurrentMapCacheManager remoteCacheManager;
+  private StringRedisTemplate redisTemplate;
+  private TwoTierCacheManager testManager;
+
+  private static final String TEST_CACHE = "endpoint";
+  private static final String TEST_KEY = "key";
+  private static final String TEST_VALUE = "value";
+
+  @BeforeEach
+  void setUp() {
+    this.remoteCacheManager = new ConcurrentMapCacheManager();
+    this.redisTemplate = mock(StringRedisTemplate.class);
+    this.testManager = new TwoTierCacheManager(this.remoteCacheManager, this.redisTemplate, 10,
+        Duration.ofMinutes(5));
+  }
+
+  @Test
+  void testGet_ServedLocallyAfterFirstRead() {
+    this.remoteCacheManager.getCache(TEST_CACHE).put(TEST_KEY, TEST_VALUE);
+    Cache cache = this.testManager.getCache(TEST_CACHE);
+    assertEquals(TEST_VALUE, cache.get(TEST_KEY).get());
+    // Remove the remote value to verify that the local tier serves the read
+    this.remoteCacheManager.getCache(TEST_CACHE).evict(TEST_KEY);
+    assertEquals(TEST_VALUE, cache.get(TEST_KEY).get());
+  }
+
+  @Test
+  void testPut_PublishesInvalidation() {
+    Cache cache = this.testManager.getCache(TEST_CACHE);
+    cache.put(TEST_KEY, TEST_VALUE);
+    assertEquals(TEST_VALUE, this.remoteCacheManager.getCache(TEST_CACHE).get(TEST_KEY).get());
+    verify(this.redisTemplate).convertAndSend(eq(TwoTierCacheManager.INVALIDATION_CHANNEL), anyString());
+  }
+
+  @Test
+  void testHandleInvalidation_EvictsLocalEntry() {
+    this.remoteCacheManager.getCache(TEST_CACHE).put(TEST_KEY, TEST_VALUE);
+    Cache cache = this.testManager.getCache(TEST_CACHE);
+    cache.get(TEST_KEY);
+    this.remoteCacheManager.getCache(TEST_CACHE).evict(TEST_KEY);
+
+    this.testManager.handleInvalidation("other-instance\n" + TEST_CACHE + "\n" + TEST_KEY);
+    assertNull(cache.get(TEST_KEY), "The local entry should be dropped after a remote change.");
+  }
+
+  @Test
+  void testHandleInvalidation_ClearsLocalCache() {
+    this.remoteCacheManager.getCache(TEST_CACHE).put(TEST_KEY, TEST_VALUE);
+    Cache cache = this.testManager.getCache(TEST_CACHE);
+    cache.get(TEST_KEY);
+    this.remoteCacheManager.getCache(TEST_CACHE).clear();
+
+    this.testManager.handleInvalidation("other-instance\n" + TEST_CACHE);
+    assertNull(cache.get(TEST_KEY), "The local cache should be cleared after a remote clear.");
+  }
+}
@@ -0,0 +1,68 @@
+package com.cmclinnovations.agent.component.checkpoint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class RedisJobCheckpointStoreTest {
+  private StringRedisTemplate redisTemplate;
+  private SetOperations<String, String> setOperations;
+  private RedisJobCheckpointStore testStore;
+
+  private static final String TEST_JOB = "order-generation";
+  private static final String TEST_RUN = "2026-01-31";
+  private static final String TEST_KEY = "vis-backend-agent:checkpoint:" + TEST_JOB + ":" + TEST_RUN;
+  private static final String TEST_CONTRACT = "contract-01";
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    this.redisTemplate = mock(StringRedisTemplate.class);
+    this.setOperations = mock(SetOperations.class);
+    when(this.redisTemplate.opsForSet()).thenReturn(this.setOperations);
+    this.testStore = new RedisJobCheckpointStore(this.redisTemplate, Duration.ofHours(1));
+  }
+
+  @Test
+  void testGetProcessed_ReadsRedis() {
+    when(this.setOperations.members(TEST_KEY)).thenReturn(Set.of(TEST_CONTRACT));
+    assertEquals(Set.of(TEST_CONTRACT), this.testStore.getProcessed(TEST_JOB, TEST_RUN));
+  }
+
+  @Test
+  void testMarkProcessed_WritesRedisWithExpiry() {
+    this.testStore.markProcessed(TEST_JOB, TEST_RUN, TEST_CONTRACT);
+    verify(this.setOperations).add(TEST_KEY, TEST_CONTRACT);
+    verify(this.redisTemplate).expire(TEST_KEY, Duration.ofHours(1));
+  }
+
+  @Test
+  void testRedisUnavailable_FallsBackToLocalCheckpoint() {
+    when(this.setOperations.add(TEST_KEY, TEST_CONTRACT))
+        .thenThrow(new RedisConnectionFailureException("unavailable"));
+    when(this.setOperations.members(TEST_KEY)).thenThrow(new RedisConnectionFailureException("unavailable"));
+
+    this.testStore.markProcessed(TEST_JOB, TEST_RUN, TEST_CONTRACT);
+    assertEquals(Set.of(TEST_CONTRACT), this.testStore.getProcessed(TEST_JOB, TEST_RUN));
+  }
+
+  @Test
+  void testInMemoryStore_OnlyKeepsLatestRun() {
+    InMemoryJobCheckpointStore store = new InMemoryJobCheckpointStore();
+    store.markProcessed(TEST_JOB, TEST_RUN, TEST_CONTRACT);
+    store.markProcessed(TEST_JOB, "2026-02-01", "contract-02");
+    assertTrue(store.getProcessed(TEST_JOB, TEST_RUN).isEmpty());
+    assertEquals(Set.of("contract-02"), store.getProcessed(TEST_JOB, "2026-02-01"));
+  }
+}
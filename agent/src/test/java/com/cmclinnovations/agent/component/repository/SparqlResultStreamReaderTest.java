@@ -0,0 +1,93 @@
+package com.cmclinnovations.agent.component.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.cmclinnovations.agent.model.SparqlBinding;
+import com.cmclinnovations.agent.model.SparqlResponseField;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class SparqlResultStreamReaderTest {
+  private SparqlResultStreamReader reader;
+
+  private static final String XSD_STRING = "http://www.w3.org/2001/XMLSchema#string";
+  private static final String XSD_INTEGER = "http://www.w3.org/2001/XMLSchema#integer";
+
+  private static final String SAMPLE_RESULTS = """
+      {"head":{"vars":["id","iri","count","label"]},
+       "results":{"bindings":[
+         {"id":{"type":"literal","value":"01"},
+          "iri":{"type":"uri","value":"http://example.org/01"},
+          "count":{"type":"literal","value":"5","datatype":"http://www.w3.org/2001/XMLSchema#integer"},
+          "label":{"type":"literal","value":"one","xml:lang":"en"}},
+         {"id":{"type":"literal","value":"02"}}
+       ]}}
+      """;
+
+  @BeforeEach
+  void setUp() {
+    this.reader = new SparqlResultStreamReader(new JsonMapper());
+  }
+
+  @Test
+  void testRead() {
+    List<SparqlBinding> results = new ArrayList<>();
+    int rowCount = this.reader.read(genInputStream(SAMPLE_RESULTS), results::add);
+    assertEquals(2, rowCount);
+    assertEquals(2, results.size());
+
+    SparqlBinding first = results.get(0);
+    assertEquals(new SparqlResponseField("literal", "01", XSD_STRING, ""), first.getFieldResponse("id"));
+    assertEquals(new SparqlResponseField("uri", "http://example.org/01", "", ""), first.getFieldResponse("iri"));
+    assertEquals(new SparqlResponseField("literal", "5", XSD_INTEGER, ""), first.getFieldResponse("count"));
+    assertEquals(new SparqlResponseField("literal", "one", XSD_STRING, "en"), first.getFieldResponse("label"));
+
+    SparqlBinding second = results.get(1);
+    assertEquals("02", second.getFieldValue("id"));
+    assertNull(second.getFieldResponse("iri"), "Unbound variables should be null.");
+    assertEquals(4, second.get().size(), "Unbound variables should still be present.");
+  }
+
+  @Test
+  void testRead_ResultsBeforeHead() {
+    String response = """
+        {"results":{"bindings":[{"id":{"type":"literal","value":"01"}}]},
+         "head":{"vars":["id","iri"]}}
+        """;
+    List<SparqlBinding> results = new ArrayList<>();
+    int rowCount = this.reader.read(genInputStream(response), results::add);
+    assertEquals(1, rowCount);
+    assertEquals("01", results.get(0).getFieldValue("id"));
+    assertEquals(2, results.get(0).get().size());
+  }
+
+  @Test
+  void testRead_EmptyResults() {
+    List<SparqlBinding> results = new ArrayList<>();
+    int rowCount = this.reader.read(genInputStream("{\"head\":{\"vars\":[\"id\"]},\"results\":{\"bindings\":[]}}"),
+        results::add);
+    assertEquals(0, rowCount);
+    assertEquals(0, results.size());
+  }
+
+  @Test
+  void testRead_InvalidResponse() {
+    assertThrows(IllegalArgumentException.class, () -> this.reader.read(genInputStream("[]"), binding -> {
+    }));
+  }
+
+  private static InputStream genInputStream(String contents) {
+    return new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8));
+  }
+}
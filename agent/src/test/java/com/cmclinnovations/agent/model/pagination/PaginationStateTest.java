@@ -4,7 +4,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -43,4 +45,35 @@ public class PaginationStateTest {
         assertEquals(sampleDirective.field().getVarName(), varName);
         assertEquals(sampleDirective.order().getQueryString(), "DESC( ?" + varName + " )");
     }
+
+    @Test
+    void testKeysetPaginationState() {
+        String cursor = new PageCursor(List.of("\"Alice\"", "\"001\"")).encode();
+        PaginationState sample = new PaginationState(3, 10, "-name", null, new HashMap<>(), cursor);
+        assertTrue(sample.isKeyset());
+        assertEquals(sample.getOffset(), 0);
+        assertEquals(sample.getKeysetDirectives().size(), 2);
+        assertEquals(sample.getKeysetDirectives().get(1).field().getVarName(), "id");
+        assertEquals(sample.getCursor().values(), List.of("\"Alice\"", "\"001\""));
+    }
+
+    @Test
+    void testKeysetPaginationState_FirstPage() {
+        PaginationState sample = new PaginationState(0, 10, "+name", null, new HashMap<>(), "");
+        assertTrue(sample.isKeyset());
+        assertNull(sample.getCursor());
+        assertNull(sample.getNextCursor());
+    }
+
+    @Test
+    void testPageCursorRoundTrip() {
+        List<String> values = new ArrayList<>();
+        values.add("<https://example.org/test>");
+        values.add(null);
+        values.add("\"5\"^^<http://www.w3.org/2001/XMLSchema#integer>");
+        PageCursor decoded = PageCursor.decode(new PageCursor(values).encode());
+        assertEquals(decoded.values().get(0), "<https://example.org/test>");
+        assertNull(decoded.values().get(1));
+        assertEquals(decoded.values().size(), 3);
+    }
 }
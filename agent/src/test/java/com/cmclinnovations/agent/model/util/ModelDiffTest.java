@@ -0,0 +1,76 @@
+package com.cmclinnovations.agent.model.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.Set;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.Test;
+
+class ModelDiffTest {
+  private static final String PREFIXES = """
+      @prefix ex: <http://example.org/> .
+      """;
+  private static final String CURRENT = PREFIXES + """
+      ex:instance ex:name "Old name" ;
+        ex:price ex:item-old1, ex:item-old2 .
+      ex:item-old1 ex:amount 10 .
+      ex:item-old2 ex:amount 20 .
+      """;
+
+  @Test
+  void testCompute_ChangedLiteral() {
+    Model target = genModel(PREFIXES + """
+        ex:instance ex:name "New name" ;
+          ex:price ex:item-new1, ex:item-new2 .
+        ex:item-new1 ex:amount 10 .
+        ex:item-new2 ex:amount 20 .
+        """);
+    ModelDiff diff = ModelDiff.compute(genModel(CURRENT), target);
+    assertEquals(1, diff.deletions().size());
+    assertEquals(1, diff.additions().size());
+    assertEquals(Set.of("http://example.org/name"), diff.getChangedPredicates());
+  }
+
+  @Test
+  void testCompute_ChangedArrayItem() {
+    Model target = genModel(PREFIXES + """
+        ex:instance ex:name "Old name" ;
+          ex:price ex:item-new1, ex:item-new2 .
+        ex:item-new1 ex:amount 10 .
+        ex:item-new2 ex:amount 30 .
+        """);
+    ModelDiff diff = ModelDiff.compute(genModel(CURRENT), target);
+    // Only the changed item is rewritten, while the unchanged item is aligned
+    assertEquals(2, diff.deletions().size());
+    assertEquals(2, diff.additions().size());
+    assertTrue(diff.deletions().containsResource(diff.deletions().createResource("http://example.org/item-old2")));
+  }
+
+  @Test
+  void testCompute_NoChanges() {
+    Model target = genModel(PREFIXES + """
+        ex:instance ex:name "Old name" ;
+          ex:price ex:item-new1, ex:item-new2 .
+        ex:item-new1 ex:amount 10 .
+        ex:item-new2 ex:amount 20 .
+        """);
+    assertTrue(ModelDiff.compute(genModel(CURRENT), target).isEmpty());
+  }
+
+  @Test
+  void testHasBlankNodes() {
+    assertFalse(ModelDiff.hasBlankNodes(genModel(CURRENT)));
+    assertTrue(ModelDiff.hasBlankNodes(genModel(PREFIXES + "ex:instance ex:price [ ex:amount 10 ] .")));
+  }
+
+  private static Model genModel(String turtle) {
+    Model model = ModelFactory.createDefaultModel();
+    model.read(new StringReader(turtle), null, "TTL");
+    return model;
+  }
+}
@@ -0,0 +1,74 @@
+package com.cmclinnovations.agent.service.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class ChangelogRecorderTest {
+  private KGService kgService;
+  private ChangelogService changelogService;
+
+  private static final String AGENT_IRI = "https://theworldavatar.io/kg/agent/01";
+  private static final String ACTIVITY_PREFIX = "https://theworldavatar.io/kg/activity/";
+
+  @BeforeEach
+  void setUp() {
+    this.kgService = mock(KGService.class);
+    this.changelogService = mock(ChangelogService.class);
+    when(this.kgService.insert(any())).thenReturn(200);
+  }
+
+  @Test
+  void testDestroy_FlushesAllRecordsWithSharedAgentOnce() throws InterruptedException {
+    ChangelogRecorder recorder = new ChangelogRecorder(this.kgService, this.changelogService, 100, 10);
+    for (int i = 0; i < 5; i++) {
+      recorder.record(genRecord(ACTIVITY_PREFIX + i));
+    }
+    recorder.destroy();
+
+    ArgumentCaptor<Model> captor = ArgumentCaptor.forClass(Model.class);
+    verify(this.kgService, atLeastOnce()).insert(captor.capture());
+    Model written = ModelFactory.createDefaultModel();
+    captor.getAllValues().forEach(written::add);
+    // Each record has an activity triple and the same agent triple
+    assertEquals(6, written.size());
+    assertTrue(written.contains(written.createResource(AGENT_IRI), RDFS.label, "Agent"));
+  }
+
+  @Test
+  void testRecord_WritesDirectlyOnceClosed() throws InterruptedException {
+    ChangelogRecorder recorder = new ChangelogRecorder(this.kgService, this.changelogService, 100, 10);
+    recorder.destroy();
+    recorder.record(genRecord(ACTIVITY_PREFIX + "late"));
+    verify(this.kgService).insert(any());
+  }
+
+  @Test
+  void testDestroy_EvictsAgentsOfFailedRecords() throws InterruptedException {
+    when(this.kgService.insert(any())).thenReturn(500);
+    ChangelogRecorder recorder = new ChangelogRecorder(this.kgService, this.changelogService, 100, 10);
+    recorder.record(genRecord(ACTIVITY_PREFIX + "failed"));
+    recorder.destroy();
+    verify(this.changelogService, atLeastOnce()).evictAgents(any());
+  }
+
+  private static Model genRecord(String activityIri) {
+    Model model = ModelFactory.createDefaultModel();
+    Resource agent = model.createResource(AGENT_IRI).addProperty(RDFS.label, "Agent");
+    model.createResource(activityIri)
+        .addProperty(model.createProperty("https://theworldavatar.io/kg/ontochangelog/wasPerformedBy"), agent);
+    return model;
+  }
+}
@@ -0,0 +1,64 @@
+package com.cmclinnovations.agent.service.core;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.sparql.vocabulary.FOAF;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.cmclinnovations.agent.model.SparqlBinding;
+import com.cmclinnovations.agent.model.type.SparqlEndpointType;
+
+class ChangelogServiceTest {
+  private KGService kgService;
+  private ChangelogService testService;
+
+  private static final String AGENT_IRI = "https://theworldavatar.io/kg/agent/01";
+
+  @BeforeEach
+  void setUp() {
+    this.kgService = mock(KGService.class);
+    this.testService = new ChangelogService(mock(AuthenticationService.class), mock(DateTimeService.class),
+        this.kgService);
+  }
+
+  @Test
+  void testRegisterAgent_NewAgentIsWrittenOnce() {
+    when(this.kgService.query(anyString(), eq(SparqlEndpointType.BLAZEGRAPH))).thenReturn(new ArrayDeque<>());
+    assertTrue(this.testService.registerAgent(AGENT_IRI), "A new agent should be written.");
+    assertFalse(this.testService.registerAgent(AGENT_IRI), "A registered agent should not be written again.");
+    verify(this.kgService, times(1)).query(anyString(), eq(SparqlEndpointType.BLAZEGRAPH));
+  }
+
+  @Test
+  void testRegisterAgent_ExistingAgentIsSkipped() {
+    Queue<SparqlBinding> results = new ArrayDeque<>();
+    results.offer(mock(SparqlBinding.class));
+    when(this.kgService.query(anyString(), eq(SparqlEndpointType.BLAZEGRAPH))).thenReturn(results);
+    assertFalse(this.testService.registerAgent(AGENT_IRI), "An agent in the knowledge graph should be skipped.");
+  }
+
+  @Test
+  void testRegisterAgent_AgentOfFailedWriteIsWrittenAgain() {
+    when(this.kgService.query(anyString(), eq(SparqlEndpointType.BLAZEGRAPH))).thenReturn(new ArrayDeque<>());
+    assertTrue(this.testService.registerAgent(AGENT_IRI), "A new agent should be written.");
+    Model failedRecords = ModelFactory.createDefaultModel();
+    failedRecords.createResource(AGENT_IRI).addProperty(RDF.type, FOAF.Agent);
+    this.testService.evictAgents(failedRecords);
+    assertTrue(this.testService.registerAgent(AGENT_IRI), "An agent from a failed write should be written again.");
+    verify(this.kgService, times(2)).query(anyString(), eq(SparqlEndpointType.BLAZEGRAPH));
+  }
+}
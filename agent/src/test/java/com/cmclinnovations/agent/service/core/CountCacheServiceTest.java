@@ -0,0 +1,63 @@
+package com.cmclinnovations.agent.service.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CountCacheServiceTest {
+    private CountCacheService testService;
+    private AtomicInteger counterCalls;
+
+    private static final String TEST_RESOURCE = "test";
+    private static final String TEST_SCOPE = "scope";
+
+    @BeforeEach
+    void setup() {
+        this.testService = new CountCacheService(300);
+        this.counterCalls = new AtomicInteger();
+    }
+
+    @Test
+    void testGetCount_CachedUntilInvalidated() {
+        assertEquals(5, this.testService.getCount(TEST_RESOURCE, "", this::countFive));
+        assertEquals(5, this.testService.getCount(TEST_RESOURCE, "", this::countFive));
+        assertEquals(1, this.counterCalls.get(), "Second call should be served from the cache.");
+
+        this.testService.invalidate(TEST_RESOURCE);
+        assertEquals(5, this.testService.getCount(TEST_RESOURCE, "", this::countFive));
+        assertEquals(2, this.counterCalls.get(), "Invalidation should force a recount.");
+    }
+
+    @Test
+    void testGetCount_KeyedByScope() {
+        this.testService.getCount(TEST_RESOURCE, "", this::countFive);
+        this.testService.getCount(TEST_RESOURCE, TEST_SCOPE, this::countFive);
+        assertEquals(2, this.counterCalls.get(), "Different scopes should be counted separately.");
+    }
+
+    @Test
+    void testGetCount_NotCachedIfInvalidatedWhileCounting() {
+        this.testService.getCount(TEST_RESOURCE, "", () -> {
+            this.testService.invalidate(TEST_RESOURCE);
+            return this.countFive();
+        });
+        this.testService.getCount(TEST_RESOURCE, "", this::countFive);
+        assertEquals(2, this.counterCalls.get(), "A count racing with a write should not be cached.");
+    }
+
+    @Test
+    void testGetCount_Expired() {
+        CountCacheService expiringService = new CountCacheService(0);
+        expiringService.getCount(TEST_RESOURCE, "", this::countFive);
+        expiringService.getCount(TEST_RESOURCE, "", this::countFive);
+        assertEquals(2, this.counterCalls.get(), "Expired counts should be recounted.");
+    }
+
+    private int countFive() {
+        this.counterCalls.incrementAndGet();
+        return 5;
+    }
+}
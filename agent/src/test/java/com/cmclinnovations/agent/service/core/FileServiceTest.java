@@ -17,9 +17,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ObjectNode;
 
 @SpringBootTest
 public class FileServiceTest {
@@ -65,6 +64,44 @@ public class FileServiceTest {
     }
   }
 
+  @Test
+  void testGetContentsWithReplacement_MultipleReplacements() throws IOException {
+    // Set up
+    String sampleFilePath = SAMPLE_RESOURCE_DIR_PATH + SAMPLE_RESOURCE_FILE;
+    File sampleFile = genSampleFile(sampleFilePath, "# comment\n[target] $ [target] [target]");
+    try {
+      // Execute
+      String result = new FileService(resourceLoader, objectMapper)
+          .getContentsWithReplacement(RESOURCE_DIR + sampleFilePath, IRI_TEST_CASE1, "$0");
+      // Assert
+      assertEquals(IRI_TEST_CASE1 + " $ $0 [target]", result.trim(),
+          "Replacements should be literal and positional, with unfilled placeholders retained!");
+    } finally {
+      sampleFile.delete();
+    }
+  }
+
+  @Test
+  void testGetContentsWithReplacement_ReloadModifiedFile() throws IOException {
+    // Set up
+    String sampleFilePath = SAMPLE_RESOURCE_DIR_PATH + SAMPLE_RESOURCE_FILE;
+    File sampleFile = genSampleFile(sampleFilePath, "[target]");
+    try {
+      FileService service = new FileService(resourceLoader, objectMapper);
+      assertEquals(IRI_TEST_CASE1, service.getContentsWithReplacement(RESOURCE_DIR + sampleFilePath,
+          IRI_TEST_CASE1).trim());
+      // Modify the file with a different modification time
+      long lastModified = sampleFile.lastModified();
+      genSampleFile(sampleFilePath, "<[target]>");
+      sampleFile.setLastModified(lastModified + 1000);
+      // Execute & Assert
+      assertEquals("<" + IRI_TEST_CASE1 + ">", service.getContentsWithReplacement(RESOURCE_DIR + sampleFilePath,
+          IRI_TEST_CASE1).trim());
+    } finally {
+      sampleFile.delete();
+    }
+  }
+
   @Test
   void testGetContentsWithReplacement_MissingFile() {
     FileService fileService = new FileService(resourceLoader, objectMapper);
@@ -127,6 +164,42 @@ public class FileServiceTest {
     }
   }
 
+  @Test
+  void testGetResourceTarget_NestedKeyDoesNotShadowOwnKey() throws IOException {
+    // Set up
+    String sampleFilePath = SAMPLE_RESOURCE_DIR_PATH + SAMPLE_RESOURCE_FILE;
+    // The nested key appears first, but the key of the outer object should win
+    File sampleFile = genSampleFile(sampleFilePath, "{\"nested\":{\"" + IRI_LOCAL_NAME_TEST_CASE1.toLowerCase()
+        + "\":\"" + IRI_TEST_CASE2 + "\"},\"" + IRI_LOCAL_NAME_TEST_CASE1.toLowerCase() + "\":\"" + IRI_TEST_CASE1
+        + "\"}");
+    try {
+      FileService service = new FileService(resourceLoader, objectMapper);
+      // Execute & Assert
+      assertEquals(IRI_TEST_CASE1,
+          service.getResourceTarget(IRI_LOCAL_NAME_TEST_CASE1.toLowerCase(), RESOURCE_DIR + sampleFilePath));
+    } finally {
+      sampleFile.delete();
+    }
+  }
+
+  @Test
+  void testGetJsonContents_ReturnsCopies() throws IOException {
+    // Set up
+    String sampleFilePath = SAMPLE_RESOURCE_DIR_PATH + SAMPLE_RESOURCE_FILE;
+    File sampleFile = genSampleFile(sampleFilePath, "{\"id\":\"" + IRI_TEST_CASE1 + "\"}");
+    try {
+      FileService service = new FileService(resourceLoader, objectMapper);
+      // Execute
+      ((ObjectNode) service.getJsonContents(RESOURCE_DIR + sampleFilePath))
+          .put("id", INVALID_TEST_CASE);
+      // Assert
+      assertEquals(IRI_TEST_CASE1, service.getJsonContents(RESOURCE_DIR + sampleFilePath).path("id").asString(),
+          "Modifying the returned contents should not affect the cached contents!");
+    } finally {
+      sampleFile.delete();
+    }
+  }
+
   @Test
   void testGetResourceTarget_MissingFile() {
     FileService fileService = new FileService(resourceLoader, objectMapper);
@@ -166,7 +239,7 @@ public class FileServiceTest {
    * @param values Values for the template at the nested level
    * @return The JSON template as string
    */
-  public static String genFormJsonTemplate(Queue<String> keys, Queue<String> values) throws JsonProcessingException {
+  public static String genFormJsonTemplate(Queue<String> keys, Queue<String> values) {
     ObjectNode resourceNode = objectMapper.createObjectNode();
     while (!keys.isEmpty()) {
       resourceNode.put(keys.poll(), values.poll());
@@ -0,0 +1,104 @@
+package com.cmclinnovations.agent.service.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.cmclinnovations.agent.model.util.QueryPlan;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class QueryPlanCacheServiceTest {
+    @Mock
+    private AuthenticationService authService;
+
+    private QueryPlanCacheService testService;
+    private AtomicInteger compilerCalls;
+
+    private static final String TEST_REPLACEMENT = "<http://example.org/Test>";
+    private static final String TEST_QUERY = "SELECT * WHERE {?iri ?p ?o." + QueryPlan.SLOT + "}";
+
+    @BeforeEach
+    void setup() {
+        this.testService = new QueryPlanCacheService(this.authService, 10, 300);
+        this.compilerCalls = new AtomicInteger();
+        when(this.authService.getRoleFingerprint()).thenReturn("admin;viewer");
+    }
+
+    @Test
+    void testGetInstanceQueryPlan_CompiledOnce() {
+        QueryPlan first = this.testService.getInstanceQueryPlan(TEST_REPLACEMENT, true, new ArrayList<>(),
+                this::compile);
+        QueryPlan second = this.testService.getInstanceQueryPlan(TEST_REPLACEMENT, true, new ArrayList<>(),
+                this::compile);
+        assertSame(first, second);
+        assertEquals(1, this.compilerCalls.get(), "Second call should be served from the cache.");
+        assertEquals("SELECT * WHERE {?iri ?p ?o.VALUES ?id {\"01\"}}",
+                second.fill("VALUES ?id {\"01\"}").data());
+    }
+
+    @Test
+    void testGetInstanceQueryPlan_KeyedByRoleSet() {
+        this.testService.getInstanceQueryPlan(TEST_REPLACEMENT, true, new ArrayList<>(), this::compile);
+        this.testService.getInstanceQueryPlan(TEST_REPLACEMENT, true, new ArrayList<>(), this::compile);
+        assertEquals(1, this.compilerCalls.get(), "Users with the same roles should share the plan.");
+
+        when(this.authService.getRoleFingerprint()).thenReturn("viewer");
+        this.testService.getInstanceQueryPlan(TEST_REPLACEMENT, true, new ArrayList<>(), this::compile);
+        assertEquals(2, this.compilerCalls.get(), "Users with other roles should be compiled separately.");
+    }
+
+    @Test
+    void testGetInstanceQueryPlan_KeyedByLabel() {
+        this.testService.getInstanceQueryPlan(TEST_REPLACEMENT, true, new ArrayList<>(), this::compile);
+        this.testService.getInstanceQueryPlan(TEST_REPLACEMENT, false, new ArrayList<>(), this::compile);
+        assertEquals(2, this.compilerCalls.get(), "Queries with and without labels should be compiled separately.");
+    }
+
+    @Test
+    void testGetFieldStatements_KeyedByFieldsOnly() {
+        Map<String, String> statements = Map.of("name", "?iri ?p ?name.");
+        this.testService.getFieldStatements(TEST_REPLACEMENT, Set.of("name"), Set.of("name"),
+                () -> this.generate(statements));
+        Map<String, String> results = this.testService.getFieldStatements(TEST_REPLACEMENT, Set.of("name"),
+                Set.of("name"), () -> this.generate(new HashMap<>()));
+        assertEquals(statements, results);
+        assertEquals(1, this.compilerCalls.get(), "Statements should be reused for other filter values.");
+
+        this.testService.getFieldStatements(TEST_REPLACEMENT, Set.of(), Set.of("name"),
+                () -> this.generate(statements));
+        assertEquals(2, this.compilerCalls.get(), "Other sort fields should be generated separately.");
+    }
+
+    @Test
+    void testGetInstanceQueryPlan_Expired() {
+        QueryPlanCacheService expiringService = new QueryPlanCacheService(this.authService, 10, 0);
+        expiringService.getInstanceQueryPlan(TEST_REPLACEMENT, true, new ArrayList<>(), this::compile);
+        expiringService.getInstanceQueryPlan(TEST_REPLACEMENT, true, new ArrayList<>(), this::compile);
+        assertEquals(2, this.compilerCalls.get(), "Expired plans should be compiled again.");
+    }
+
+    private QueryPlan compile() {
+        this.compilerCalls.incrementAndGet();
+        return QueryPlan.of(TEST_QUERY);
+    }
+
+    private Map<String, String> generate(Map<String, String> statements) {
+        this.compilerCalls.incrementAndGet();
+        return statements;
+    }
+}
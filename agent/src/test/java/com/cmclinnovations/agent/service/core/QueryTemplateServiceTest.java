@@ -1,10 +1,13 @@
 package com.cmclinnovations.agent.service.core;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -22,12 +25,16 @@ import org.mockito.quality.Strictness;
 
 import com.cmclinnovations.agent.TestUtils;
 import com.cmclinnovations.agent.model.SparqlBinding;
+import com.cmclinnovations.agent.model.pagination.PageCursor;
+import com.cmclinnovations.agent.model.pagination.PaginationState;
+import com.cmclinnovations.agent.model.pagination.SortDirective;
 import com.cmclinnovations.agent.template.FormTemplateFactoryTest;
 import com.cmclinnovations.agent.template.query.DeleteQueryTemplateFactoryTest;
 import com.cmclinnovations.agent.template.query.GetQueryTemplateFactoryTest;
 import com.cmclinnovations.agent.template.query.SearchQueryTemplateFactoryTest;
 import com.cmclinnovations.agent.utils.ShaclResource;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +47,7 @@ class QueryTemplateServiceTest {
 
     private static QueryTemplateService testService;
     private static final String TEST_RESOURCE = "test";
+    private static final String TEST_CLASS = "<http://example.org/Test>";
     public static final String TEST_JSONLD_FILE = "service/add/sample.jsonld";
 
     @BeforeEach
@@ -75,8 +83,8 @@ class QueryTemplateServiceTest {
 
     @Test
     void testGenFormTemplate() throws IOException {
-        Map<String, Object> result = testService
-                .genFormTemplate(TestUtils.getArrayJson(FormTemplateFactoryTest.TEST_SIMPLE_FILE), new HashMap<>());
+        ArrayNode formInputs = TestUtils.getArrayJson(FormTemplateFactoryTest.TEST_SIMPLE_FILE);
+        Map<String, Object> result = testService.genFormTemplate(TEST_RESOURCE, () -> formInputs, new HashMap<>());
         ((List<Map<String, Object>>) result.get("property")).get(0).put(ShaclResource.ID_KEY, "string_id");
         assertEquals(
                 TestUtils.getMapJson(FormTemplateFactoryTest.EXPECTED_SIMPLE_FILE),
@@ -102,8 +110,110 @@ class QueryTemplateServiceTest {
     @Test
     void testGenSearchQuery() throws IOException {
         Queue<Queue<SparqlBinding>> testBindings = SearchQueryTemplateFactoryTest.initTestBindings();
-        String results = testService.genSearchQuery(testBindings, SearchQueryTemplateFactoryTest.genCriterias(
+        String results = testService.genSearchQuery(TEST_CLASS, testBindings, SearchQueryTemplateFactoryTest.genCriterias(
                 SearchQueryTemplateFactoryTest.SAMPLE_FIELD, SearchQueryTemplateFactoryTest.SAMPLE_FILTER));
         TestUtils.validateGeneratedQueryOutput(SearchQueryTemplateFactoryTest.EXPECTED_SIMPLE_FILE, results);
     }
+
+    @Test
+    void testGetCountInstancesQueryTemplate() {
+        PaginationState pagination = new PaginationState(0, null, "-id", new HashMap<>());
+        String results = testService.getCountInstancesQueryTemplate(TEST_CLASS, pagination).getQueryString();
+        assertTrue(results.replaceAll("\\s+", "").contains("COUNT(DISTINCT?id)AS?count"), results);
+        assertTrue(results.contains("?id ."), "Additional statements must still be appendable: " + results);
+        assertFalse(results.contains("ORDER BY"), results);
+        assertFalse(results.contains("LIMIT"), results);
+    }
+
+    @Test
+    void testGetCountInstancesQueryTemplate_WithEventId() {
+        PaginationState pagination = new PaginationState(0, null, "-id,+event_id", false, new HashMap<>());
+        String results = testService.getCountInstancesQueryTemplate(TEST_CLASS, pagination).getQueryString();
+        String compactResults = results.replaceAll("\\s+", "");
+        assertTrue(compactResults.contains("COUNT(*)AS?count"), results);
+        assertTrue(compactResults.contains("SELECTDISTINCT?id?event_id"), results);
+        assertTrue(results.contains("?id ."), "Additional statements must still be appendable: " + results);
+        assertFalse(results.contains("ORDER BY"), results);
+    }
+
+    @Test
+    void testGenPageSubQuery() {
+        PaginationState pagination = new PaginationState(1, 10, "-name", new HashMap<>());
+        List<SortDirective> sortDirectives = new ArrayList<>(pagination.getSortDirectives());
+        String idQuery = testService.getAllInstancesQueryTemplate(TEST_CLASS, pagination, true, false)
+                .getQueryString();
+        String results = testService.genPageSubQuery(idQuery, sortDirectives);
+        String compactResults = results.replaceAll("\\s+", "");
+        assertTrue(compactResults.startsWith("{SELECT?id(?nameAS?page_sort_name)WHERE{SELECTDISTINCT"), results);
+        assertFalse(results.contains("PREFIX"), "Sub-queries cannot declare prefixes: " + results);
+        assertTrue(results.contains("LIMIT 10"), results);
+        assertTrue(results.contains("OFFSET 10"), results);
+    }
+
+    @Test
+    void testCompileAllIdsQuery() {
+        PaginationState pagination = new PaginationState(1, 10, "-name", new HashMap<>());
+        List<SortDirective> sortDirectives = new ArrayList<>(pagination.getSortDirectives());
+        int directiveCount = sortDirectives.size();
+        String expected = testService.addStringStatements(
+                testService.getAllInstancesQueryTemplate(TEST_CLASS, pagination, true, false), "?iri ?p ?name.");
+        String results = testService.compileAllIdsQuery(TEST_CLASS, sortDirectives)
+                .fill("?iri ?p ?name.", 10, 10);
+        assertEquals(expected.replaceAll("\\s+", ""), results.replaceAll("\\s+", ""));
+        assertEquals(directiveCount, sortDirectives.size(), "Sort directives of the caller must not be consumed.");
+    }
+
+    @Test
+    void testGenPageOrderBy() {
+        PaginationState pagination = new PaginationState(0, 10, "-name,+id", new HashMap<>());
+        String results = testService.genPageOrderBy(new ArrayList<>(pagination.getSortDirectives()));
+        assertEquals("ORDERBYDESC(?page_sort_name)ASC(?id)", results.replaceAll("\\s+", ""));
+    }
+
+    @Test
+    void testGenPageOrderBy_DefaultsToId() {
+        PaginationState pagination = new PaginationState(0, 10, "+name", new HashMap<>());
+        String results = testService.genPageOrderBy(new ArrayList<>(pagination.getSortDirectives()));
+        assertEquals("ORDERBYASC(?page_sort_name)ASC(?id)", results.replaceAll("\\s+", ""));
+    }
+
+    @Test
+    void testGenKeysetFilter() {
+        String cursor = new PageCursor(List.of("\"Alice\"", "\"001\"")).encode();
+        PaginationState pagination = new PaginationState(0, 10, "+name", null, new HashMap<>(), cursor);
+        String results = testService.genKeysetFilter(pagination);
+        assertEquals("FILTER(((BOUND(?name)&&isLiteral(?name)&&COALESCE(?name>\"Alice\",STR(?name)>STR(\"Alice\"))))"
+                + "||((BOUND(?name)&&COALESCE(?name=\"Alice\",false))"
+                + "&&(BOUND(?id)&&isLiteral(?id)&&COALESCE(?id>\"001\",STR(?id)>STR(\"001\")))))",
+                results.replaceAll("\\s+", ""));
+    }
+
+    @Test
+    void testGenKeysetFilter_IriCursor() {
+        String cursor = new PageCursor(List.of("<http://example.com/b>", "\"001\"")).encode();
+        PaginationState pagination = new PaginationState(0, 10, "+type", null, new HashMap<>(), cursor);
+        String results = testService.genKeysetFilter(pagination);
+        // IRIs are compared by their string form, and literals are sorted after IRIs
+        assertEquals("FILTER(((BOUND(?type)&&(isLiteral(?type)"
+                + "||(isIRI(?type)&&STR(?type)>STR(<http://example.com/b>)))))"
+                + "||((BOUND(?type)&&COALESCE(?type=<http://example.com/b>,false))"
+                + "&&(BOUND(?id)&&isLiteral(?id)&&COALESCE(?id>\"001\",STR(?id)>STR(\"001\")))))",
+                results.replaceAll("\\s+", ""));
+    }
+
+    @Test
+    void testGenKeysetFilter_IriCursorDescending() {
+        String cursor = new PageCursor(List.of("<http://example.com/b>", "\"001\"")).encode();
+        PaginationState pagination = new PaginationState(0, 10, "-type", null, new HashMap<>(), cursor);
+        String results = testService.genKeysetFilter(pagination);
+        assertTrue(results.replaceAll("\\s+", "").startsWith("FILTER(((!BOUND(?type)||isBlank(?type)"
+                + "||(isIRI(?type)&&STR(?type)<STR(<http://example.com/b>))))"),
+                "Unbound values, blank nodes and smaller IRIs should be sorted after the cursor in descending order.");
+    }
+
+    @Test
+    void testGenKeysetFilter_NoCursor() {
+        PaginationState pagination = new PaginationState(0, 10, "+name", null, new HashMap<>(), "");
+        assertEquals("", testService.genKeysetFilter(pagination));
+    }
 }
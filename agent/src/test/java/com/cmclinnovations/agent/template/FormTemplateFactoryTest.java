@@ -1,13 +1,16 @@
 package com.cmclinnovations.agent.template;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -90,6 +93,43 @@ public class FormTemplateFactoryTest {
                 assertEquals(TestUtils.getMapJson(EXPECTED_SIMPLE_FILE), objectMapper.writeValueAsString(result));
         }
 
+        @Test
+        void testGenTemplate_CachedShapes() throws IOException {
+                // Set up
+                ArrayNode sample = TestUtils.getArrayJson(TEST_SIMPLE_FILE);
+                AtomicInteger queryCount = new AtomicInteger();
+                when(authService.getRoleFingerprint()).thenReturn("admin");
+                // Execute
+                Map<String, Object> result = this.formTemplateFactory.genTemplate("form", () -> {
+                        queryCount.incrementAndGet();
+                        return sample;
+                }, new HashMap<>());
+                Map<String, Object> cachedResult = this.formTemplateFactory.genTemplate("form", () -> {
+                        queryCount.incrementAndGet();
+                        return sample;
+                }, new HashMap<>());
+                // Assert
+                assertEquals(1, queryCount.get(), "Shapes should only be queried once for the same role set");
+                assertEquals(objectMapper.writeValueAsString(result), objectMapper.writeValueAsString(cachedResult));
+                // Execute for a different role set
+                when(authService.getRoleFingerprint()).thenReturn("viewer");
+                this.formTemplateFactory.genTemplate("form", () -> {
+                        queryCount.incrementAndGet();
+                        return sample;
+                }, new HashMap<>());
+                // Assert
+                assertEquals(2, queryCount.get(), "Shapes should be queried again for a different role set");
+        }
+
+        @Test
+        void testGenTemplate_CachedShapesEmptyInput() {
+                // Execute
+                Map<String, Object> result = this.formTemplateFactory.genTemplate("form",
+                                () -> jsonLdService.genArrayNode(), new HashMap<>());
+                // Assert
+                assertNull(result, "Template should be null when there are no shapes for the form");
+        }
+
         /**
          * Generate a sample property shape.
          *
@@ -1,10 +1,19 @@
 package com.cmclinnovations.agent.template.query;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -26,8 +35,10 @@ import com.cmclinnovations.agent.model.QueryTemplateFactoryParameters;
 import com.cmclinnovations.agent.model.ShaclPropertyBindingTest;
 import com.cmclinnovations.agent.model.ShaclPropertyBindingTest.SparqlBindingTestParameters;
 import com.cmclinnovations.agent.model.SparqlBinding;
+import com.cmclinnovations.agent.model.util.DataManifest;
 import com.cmclinnovations.agent.service.core.AuthenticationService;
 import com.cmclinnovations.agent.utils.QueryResource;
+import com.cmclinnovations.agent.utils.ShaclResource;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -82,6 +93,44 @@ public class GetQueryTemplateFactoryTest {
     TestUtils.validateGeneratedQueryOutput(EXPECTED_SIMPLE_FILE, results);
   }
 
+  @Test
+  void testWrite_SimpleCachedShapes() throws IOException {
+    // Set up
+    when(authService.isAuthenticationEnabled()).thenReturn(true);
+    when(authService.getRoleFingerprint()).thenReturn("admin");
+    // Execute
+    String results = this.testFactory.write(new QueryTemplateFactoryParameters(SAMPLE_CONCEPT,
+        initTestBindings(), new ArrayDeque<>(), "", new ArrayList<>())).data();
+    String cachedResults = this.testFactory.write(new QueryTemplateFactoryParameters(SAMPLE_CONCEPT,
+        initTestBindings(), new ArrayDeque<>(), "", new ArrayList<>())).data();
+    // Assert
+    TestUtils.validateGeneratedQueryOutput(EXPECTED_SIMPLE_FILE, results);
+    assertEquals(results, cachedResults);
+    // User roles are only checked when the authorised shapes are not cached
+    verify(authService, times(1)).getUserRoles();
+  }
+
+  @Test
+  void testWrite_UnauthorisedFieldIsRevoked() {
+    // Set up
+    when(authService.isAuthenticationEnabled()).thenReturn(true);
+    when(authService.getRoleFingerprint()).thenReturn("viewer");
+    when(authService.getUserRoles()).thenReturn(Set.of("viewer"));
+    when(authService.isUnauthorised(any(), eq("admin"))).thenReturn(true);
+    // Execute
+    String results = this.testFactory.write(new QueryTemplateFactoryParameters(SAMPLE_CONCEPT,
+        initRestrictedTestBindings(), new ArrayDeque<>(), "", new ArrayList<>())).data();
+    String cachedResults = this.testFactory.write(new QueryTemplateFactoryParameters(SAMPLE_CONCEPT,
+        initRestrictedTestBindings(), new ArrayDeque<>(), "", new ArrayList<>())).data();
+    // Assert
+    assertFalse(results.contains(QueryResource.genVariable(SAMPLE_FIELD).getQueryString()),
+        "Fields restricted to other roles should be removed.");
+    assertTrue(results.contains(QueryResource.genVariable(SAMPLE_OPTIONAL_FIELD).getQueryString()),
+        "Unrestricted fields should be retained.");
+    assertEquals(results, cachedResults, "Authorised shapes should be reused for the same role set.");
+    verify(authService, times(1)).isUnauthorised(any(), eq("admin"));
+  }
+
   @Test
   void testWrite_SimpleWithFilter() throws IOException {
     // Set up
@@ -165,11 +214,11 @@ public class GetQueryTemplateFactoryTest {
     bindings.offer(binding);
     nestedBindings.offer(bindings);
     // Execute
-    String results = this.testFactory.write(
+    DataManifest<String> results = this.testFactory.write(
         new QueryTemplateFactoryParameters(nestedBindings, new ArrayDeque<>(), "", new HashMap<>()));
     // Assert
-    TestUtils.validateGeneratedQueryOutput(EXPECTED_SIMPLE_ARRAY_FILE, results);
-    Map<String, Set<String>> arrayVarsMapping = this.testFactory.getArrayVariables();
+    TestUtils.validateGeneratedQueryOutput(EXPECTED_SIMPLE_ARRAY_FILE, results.data());
+    Map<String, Set<String>> arrayVarsMapping = results.arrayVariables();
     assertEquals(1, arrayVarsMapping.size());
     arrayVarsMapping.forEach((key, arrayVars) -> {
       assertEquals(2, arrayVars.size());
@@ -206,11 +255,11 @@ public class GetQueryTemplateFactoryTest {
     bindings.offer(binding);
     nestedBindings.offer(bindings);
     // Execute
-    String results = this.testFactory.write(
+    DataManifest<String> results = this.testFactory.write(
         new QueryTemplateFactoryParameters(nestedBindings, new ArrayDeque<>(), "", new HashMap<>()));
     // Assert
-    TestUtils.validateGeneratedQueryOutput(EXPECTED_COMPLEX_ARRAY_FILE, results);
-    Map<String, Set<String>> arrayVarsMapping = this.testFactory.getArrayVariables();
+    TestUtils.validateGeneratedQueryOutput(EXPECTED_COMPLEX_ARRAY_FILE, results.data());
+    Map<String, Set<String>> arrayVarsMapping = results.arrayVariables();
     assertEquals(2, arrayVarsMapping.size());
     assertTrue(arrayVarsMapping.get(SAMPLE_GROUP.replaceAll("\\s+", "_")).contains(SAMPLE_FIELD));
     assertTrue(arrayVarsMapping.get(SAMPLE_ARRAY_GROUP.replaceAll("\\s+", "_"))
@@ -299,4 +348,23 @@ public class GetQueryTemplateFactoryTest {
     nestedBindings.offer(bindings);
     return nestedBindings;
   }
+
+  /**
+   * Initialise the test bindings, where a later binding of the sample field is
+   * restricted to the admin role.
+   */
+  private static Queue<Queue<SparqlBinding>> initRestrictedTestBindings() {
+    Queue<Queue<SparqlBinding>> nestedBindings = initTestBindings();
+    Queue<SparqlBinding> bindings = new ArrayDeque<>();
+    bindings.offer(ShaclPropertyBindingTest.genMockSparqlBinding(new SparqlBindingTestParameters(
+        SAMPLE_OPTIONAL_FIELD, SAMPLE_CONCEPT, null, null, SAMPLE_OPTIONAL_PATH, null, null, null, null, null,
+        false, false, false, false)));
+    SparqlBinding restrictedBinding = spy(ShaclPropertyBindingTest.genMockSparqlBinding(
+        new SparqlBindingTestParameters(SAMPLE_FIELD, SAMPLE_CONCEPT, null, null, SAMPLE_PRED_PATH, null, null,
+            null, null, null, false, false, false, false)));
+    doReturn("admin").when(restrictedBinding).getFieldValue(ShaclResource.ROLE_PROPERTY);
+    bindings.offer(restrictedBinding);
+    nestedBindings.offer(bindings);
+    return nestedBindings;
+  }
 }